@@ -0,0 +1,33 @@
+package main.java.com.example.demo.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+// Boots the application against the embedded "bench" database and seeds it once per JVM.
+// Scale is controlled with -Dbench.patients, -Dbench.readingsPerPatient and -Dbench.days.
+public final class BenchmarkApplication {
+
+    public static final int PATIENTS = Integer.getInteger("bench.patients", 10_000);
+    public static final int READINGS_PER_PATIENT = Integer.getInteger("bench.readingsPerPatient", 100);
+    public static final int DAYS = Integer.getInteger("bench.days", 365);
+    public static final long SEED = Long.getLong("bench.seed", 42L);
+
+    // Fixed so seeded timestamps, and therefore query selectivity, are identical between runs
+    public static final LocalDateTime END = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkConfiguration.class)
+                .profiles("bench")
+                .web(webApplicationType)
+                .run(args);
+        new SyntheticDataGenerator(context.getBean(JdbcTemplate.class), SEED).generate(PATIENTS, READINGS_PER_PATIENT, DAYS, END);
+        return context;
+    }
+}
@@ -0,0 +1,12 @@
+package main.java.com.example.demo.benchmark;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+// Boot configuration for benchmarks and load tests. The application's beans, entities and repositories live under
+// main.java.com.example.demo, outside com.example.demo.DemoApplication's scan root, so this class roots both the
+// component scan and the entity/repository scan there explicitly.
+@SpringBootApplication(scanBasePackages = "main.java.com.example.demo")
+@AutoConfigurationPackage(basePackages = "main.java.com.example.demo")
+public class BenchmarkConfiguration {
+}
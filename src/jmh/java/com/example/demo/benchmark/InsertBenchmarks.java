@@ -0,0 +1,90 @@
+package main.java.com.example.demo.benchmark;
+
+import main.java.com.example.demo.dto.BulkItemResult;
+import main.java.com.example.demo.dto.ClinicalDataRequest;
+import main.java.com.example.demo.model.ClinicalData;
+import main.java.com.example.demo.model.Patient;
+import main.java.com.example.demo.repository.PatientRepository;
+import main.java.com.example.demo.service.ClinicalDataIngestService;
+import main.java.com.example.demo.service.ClinicalDataWriteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Single-row create (controller path) versus bulk ingest; both report time per reading
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InsertBenchmarks {
+
+    private static final int BULK_SIZE = 500;
+
+    private ConfigurableApplicationContext context;
+    private ClinicalDataWriteService clinicalDataWriteService;
+    private ClinicalDataIngestService clinicalDataIngestService;
+    private PatientRepository patientRepository;
+    private final SplittableRandom random = new SplittableRandom(11L);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE);
+        clinicalDataWriteService = context.getBean(ClinicalDataWriteService.class);
+        clinicalDataIngestService = context.getBean(ClinicalDataIngestService.class);
+        patientRepository = context.getBean(PatientRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private ClinicalDataRequest randomReading() {
+        String component = SyntheticDataGenerator.randomComponent(random);
+        return new ClinicalDataRequest(1L + random.nextInt(BenchmarkApplication.PATIENTS), component,
+                SyntheticDataGenerator.randomComponentValue(random, component), LocalDateTime.now());
+    }
+
+    // Mirrors createClinicalData: patient lookup, then a single save
+    @Benchmark
+    public ClinicalData singleInsert() {
+        ClinicalDataRequest reading = randomReading();
+        Patient patient = patientRepository.findById(reading.patientId()).orElseThrow();
+        ClinicalData clinicalData = new ClinicalData();
+        clinicalData.setPatient(patient);
+        clinicalData.setComponentName(reading.componentName());
+        clinicalData.setComponentValue(reading.componentValue());
+        clinicalData.setMeasuredDateTime(reading.measuredDateTime());
+        return clinicalDataWriteService.create(clinicalData);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<BulkItemResult> bulkInsert() {
+        List<ClinicalDataRequest> readings = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            readings.add(randomReading());
+        }
+        return clinicalDataIngestService.ingest(readings);
+    }
+}
@@ -0,0 +1,79 @@
+package main.java.com.example.demo.benchmark;
+
+import main.java.com.example.demo.model.ClinicalData;
+import main.java.com.example.demo.model.Patient;
+import main.java.com.example.demo.repository.ClinicalDataRepository;
+import main.java.com.example.demo.repository.PatientRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Hot read paths of ClinicalDataRepository against a seeded embedded database
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RepositoryBenchmarks {
+
+    private ConfigurableApplicationContext context;
+    private ClinicalDataRepository clinicalDataRepository;
+    private PatientRepository patientRepository;
+    private final SplittableRandom random = new SplittableRandom(7L);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE);
+        clinicalDataRepository = context.getBean(ClinicalDataRepository.class);
+        patientRepository = context.getBean(PatientRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long randomPatientId() {
+        return 1L + random.nextInt(BenchmarkApplication.PATIENTS);
+    }
+
+    @Benchmark
+    public List<ClinicalData> findByPatientId() {
+        return clinicalDataRepository.findByPatientId(randomPatientId());
+    }
+
+    @Benchmark
+    public List<ClinicalData> findLatestClinicalDataByPatient() {
+        Patient patient = patientRepository.getReferenceById(randomPatientId());
+        return clinicalDataRepository.findLatestClinicalDataByPatient(patient);
+    }
+
+    @Benchmark
+    public ClinicalData findLatestByPatientIdAndComponentName() {
+        return clinicalDataRepository.findLatestByPatientIdAndComponentName(randomPatientId(), "bp");
+    }
+
+    // One-hour window at a random point of the seeded history
+    @Benchmark
+    public List<ClinicalData> findByMeasuredDateTimeBetween() {
+        LocalDateTime start = BenchmarkApplication.END.minusHours(1L + random.nextInt(BenchmarkApplication.DAYS * 24));
+        return clinicalDataRepository.findByMeasuredDateTimeBetween(start, start.plusHours(1));
+    }
+}
@@ -0,0 +1,62 @@
+package main.java.com.example.demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import main.java.com.example.demo.model.ClinicalData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// JSON serialization of clinical data lists as the controllers return them (no database involved)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmarks {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<ClinicalData> clinicalData;
+
+    @Setup
+    public void setUp() {
+        // Same builder Spring Boot uses for the MVC message converters
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        SplittableRandom random = new SplittableRandom(BenchmarkApplication.SEED);
+        LocalDateTime measured = BenchmarkApplication.END;
+        clinicalData = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ClinicalData reading = new ClinicalData();
+            reading.setId((long) i);
+            String component = SyntheticDataGenerator.randomComponent(random);
+            reading.setComponentName(component);
+            reading.setComponentValue(SyntheticDataGenerator.randomComponentValue(random, component));
+            reading.setMeasuredDateTime(measured.minusMinutes(i));
+            reading.parseComponentValue();
+            clinicalData.add(reading);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeClinicalDataList() throws Exception {
+        return objectMapper.writeValueAsBytes(clinicalData);
+    }
+}
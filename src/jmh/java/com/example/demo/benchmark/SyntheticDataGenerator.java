@@ -0,0 +1,103 @@
+package main.java.com.example.demo.benchmark;
+
+import main.java.com.example.demo.model.ParsedMeasurement;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Scales the shape of databaseSettings.sql (patients with interleaved bp and heartrate readings)
+// to arbitrary sizes. Deterministic for a given seed so runs are comparable between builds.
+public class SyntheticDataGenerator {
+
+    private static final String[] FIRST_NAMES = {"John", "Siva", "Anthony", "Bruce", "Abhram", "Gandhi", "Antti", "Simba", "Rose", "Rowling"};
+    private static final String[] LAST_NAMES = {"Mccain", "Shankar", "Simon", "Sanhurst", "Mani", "Singh", "Krovinan", "White", "Tanic", "Lte"};
+    private static final String[] BP_VALUES = {"67/119", "63/115", "72/129", "74/139", "62/109", "55/102", "47/90", "90/149", "50/109", "37/89"};
+    private static final String[] COMPONENTS = {"bp", "heartrate"};
+
+    private static final int BATCH = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SplittableRandom random;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.random = new SplittableRandom(seed);
+    }
+
+    public static String randomComponentValue(SplittableRandom random, String componentName) {
+        return "bp".equals(componentName)
+                ? BP_VALUES[random.nextInt(BP_VALUES.length)]
+                : Integer.toString(47 + random.nextInt(103));
+    }
+
+    public static String randomComponent(SplittableRandom random) {
+        return COMPONENTS[random.nextInt(COMPONENTS.length)];
+    }
+
+    // Readings per patient are spread evenly over the given number of days before `end`.
+    // Returns the highest clinical data id written.
+    public long generate(int patients, int readingsPerPatient, int days, LocalDateTime end) {
+        List<Object[]> patientRows = new ArrayList<>(BATCH);
+        for (int p = 1; p <= patients; p++) {
+            patientRows.add(new Object[] {(long) p, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + p,
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)], 1 + random.nextInt(95)});
+            if (patientRows.size() == BATCH) {
+                insertPatients(patientRows);
+            }
+        }
+        insertPatients(patientRows);
+
+        long spacingSeconds = Math.max(1L, days * 86_400L / Math.max(1, readingsPerPatient));
+        List<Object[]> readingRows = new ArrayList<>(BATCH);
+        long id = 0;
+        for (int p = 1; p <= patients; p++) {
+            LocalDateTime measured = end.minusSeconds(spacingSeconds * readingsPerPatient);
+            for (int r = 0; r < readingsPerPatient; r++) {
+                String component = COMPONENTS[r % COMPONENTS.length];
+                String value = randomComponentValue(random, component);
+                ParsedMeasurement parsed = ParsedMeasurement.parse(value);
+                measured = measured.plusSeconds(spacingSeconds);
+                readingRows.add(new Object[] {++id, (long) p, component, value, Timestamp.valueOf(measured),
+                        parsed.numericValue(), parsed.systolicValue(), parsed.diastolicValue()});
+                if (readingRows.size() == BATCH) {
+                    insertReadings(readingRows);
+                }
+            }
+        }
+        insertReadings(readingRows);
+
+        rebuildLatestProjection();
+        // Keep generated keys clear of the explicitly inserted ones
+        jdbcTemplate.execute("ALTER TABLE patient ALTER COLUMN id RESTART WITH " + (patients + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE clinicaldata_seq RESTART WITH " + (id + 1));
+        return id;
+    }
+
+    private void insertPatients(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO patient (id, first_name, last_name, age) VALUES (?, ?, ?, ?)", rows);
+            rows.clear();
+        }
+    }
+
+    private void insertReadings(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO clinicaldata (id, patient_id, component_name, component_value, measured_date_time, " +
+                    "numeric_value, systolic_value, diastolic_value) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+            rows.clear();
+        }
+    }
+
+    private void rebuildLatestProjection() {
+        jdbcTemplate.update("DELETE FROM clinicaldata_latest");
+        jdbcTemplate.update("INSERT INTO clinicaldata_latest (patient_id, component_name, clinicaldata_id, measured_date_time) " +
+                "SELECT patient_id, component_name, id, measured_date_time FROM (" +
+                "SELECT c.patient_id, c.component_name, c.id, c.measured_date_time, ROW_NUMBER() OVER " +
+                "(PARTITION BY c.patient_id, c.component_name ORDER BY c.measured_date_time DESC, c.id DESC) AS rn " +
+                "FROM clinicaldata c) ranked WHERE rn = 1");
+    }
+}
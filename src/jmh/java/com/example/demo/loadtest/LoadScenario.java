@@ -0,0 +1,9 @@
+package main.java.com.example.demo.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+// One traffic class of the load mix: a name, a target request rate and a request factory
+record LoadScenario(String name, double ratePerSecond, Function<SplittableRandom, HttpRequest> request) {
+}
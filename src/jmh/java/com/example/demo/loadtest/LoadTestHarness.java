@@ -0,0 +1,252 @@
+package main.java.com.example.demo.loadtest;
+
+import main.java.com.example.demo.benchmark.BenchmarkApplication;
+import main.java.com.example.demo.benchmark.SyntheticDataGenerator;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// End-to-end HTTP load test of the REST API against the embedded "bench" database.
+//
+// Requests are issued open-loop at a fixed rate per scenario and latency is measured from the
+// intended send time, so a stalled server shows up as queueing delay instead of silently lowering
+// the offered load (coordinated omission). Arguments are key=value pairs:
+//   duration=60s warmup=10s out=target/loadtest/<name>
+//   mix=ingest:20,ward:400,latest:200,range:5,lookup:50,aggregate:2   (requests per second)
+//   batch=50           readings per monitor ingest request
+//   target=http://host:port   run against an already running server instead of booting one
+public final class LoadTestHarness {
+
+    private static final DateTimeFormatter PARAM_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String DEFAULT_MIX = "ingest:20,ward:400,latest:200,range:5,lookup:50,aggregate:2";
+    private static final int MAX_IN_FLIGHT = 10_000;
+    // Microseconds, up to one minute at three significant digits
+    private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        Path out = Path.of(options.getOrDefault("out", "target/loadtest/" + System.currentTimeMillis()));
+        LoadTestReport report = execute(options);
+        report.print(System.out);
+        report.write(out);
+        System.out.println("Report written to " + out.toAbsolutePath());
+    }
+
+    // Warms up and measures one configuration; boots the application with springArgs unless target= is given
+    static LoadTestReport execute(Map<String, String> options, String... springArgs) throws InterruptedException {
+        Duration duration = duration(options.getOrDefault("duration", "60s"));
+        Duration warmup = duration(options.getOrDefault("warmup", "10s"));
+        int batch = Integer.parseInt(options.getOrDefault("batch", "50"));
+
+        ConfigurableApplicationContext context = null;
+        String base = options.get("target");
+        if (base == null) {
+            String[] args = new String[springArgs.length + 1];
+            args[0] = "--server.port=0";
+            System.arraycopy(springArgs, 0, args, 1, springArgs.length);
+            context = BenchmarkApplication.start(WebApplicationType.SERVLET, args);
+            base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            List<LoadScenario> scenarios = scenarios(base, options.getOrDefault("mix", DEFAULT_MIX), batch);
+            LoadTestHarness harness = new LoadTestHarness();
+            System.out.println("Warming up for " + warmup.toSeconds() + "s against " + base);
+            harness.run(scenarios, warmup);
+            System.out.println("Measuring for " + duration.toSeconds() + "s");
+            return harness.run(scenarios, duration);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    static List<LoadScenario> scenarios(String base, String mix, int batch) {
+        int patients = BenchmarkApplication.PATIENTS;
+        String from = BenchmarkApplication.END.minusDays(BenchmarkApplication.DAYS).format(PARAM_FORMAT);
+        List<LoadScenario> scenarios = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            String name = parts[0];
+            double rate = Double.parseDouble(parts[1]);
+            if (rate <= 0) {
+                continue;
+            }
+            scenarios.add(switch (name) {
+                // Bedside monitors pushing a burst of readings for one patient
+                case "ingest" -> new LoadScenario(name, rate, random -> {
+                    long patientId = 1 + random.nextInt(patients);
+                    StringBuilder body = new StringBuilder("[");
+                    for (int i = 0; i < batch; i++) {
+                        String component = SyntheticDataGenerator.randomComponent(random);
+                        body.append(i == 0 ? "" : ",")
+                                .append("{\"patientId\":").append(patientId)
+                                .append(",\"componentName\":\"").append(component)
+                                .append("\",\"componentValue\":\"").append(SyntheticDataGenerator.randomComponentValue(random, component))
+                                .append("\"}");
+                    }
+                    return HttpRequest.newBuilder(URI.create(base + "/api/clinical-data/bulk"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body.append(']').toString()))
+                            .build();
+                });
+                // Ward screens refreshing every vital of a patient
+                case "ward" -> new LoadScenario(name, rate, random ->
+                        get(base + "/api/clinical-data/patient/" + (1 + random.nextInt(patients)) + "/latest"));
+                case "latest" -> new LoadScenario(name, rate, random ->
+                        get(base + "/api/clinical-data/patient/" + (1 + random.nextInt(patients)) + "/component/"
+                                + SyntheticDataGenerator.randomComponent(random) + "/latest"));
+                // Analysts scanning one day of readings for the whole hospital
+                case "range" -> new LoadScenario(name, rate, random -> {
+                    int day = random.nextInt(BenchmarkApplication.DAYS);
+                    String start = BenchmarkApplication.END.minusDays(day + 1L).format(PARAM_FORMAT);
+                    String end = BenchmarkApplication.END.minusDays(day).format(PARAM_FORMAT);
+                    return get(base + "/api/clinical-data/date-range/page?startDate=" + encode(start)
+                            + "&endDate=" + encode(end) + "&limit=500");
+                });
+                case "lookup" -> new LoadScenario(name, rate, random ->
+                        get(base + "/api/patients/" + (1 + random.nextInt(patients))));
+                case "aggregate" -> new LoadScenario(name, rate, random ->
+                        get(base + "/api/clinical-data/patient/" + (1 + random.nextInt(patients))
+                                + "/component/bp/aggregate?bucket=day&measure=systolic&startDate=" + encode(from)));
+                default -> throw new IllegalArgumentException("Unknown scenario: " + name);
+            });
+        }
+        return scenarios;
+    }
+
+    // Runs every scenario concurrently for the given duration and waits for outstanding responses
+    LoadTestReport run(List<LoadScenario> scenarios, Duration duration) throws InterruptedException {
+        Map<String, ConcurrentHistogram> histograms = new LinkedHashMap<>();
+        Map<String, AtomicLong> errors = new LinkedHashMap<>();
+        List<Thread> dispatchers = new ArrayList<>();
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long endNanos = startNanos + duration.toNanos();
+
+        long seed = BenchmarkApplication.SEED;
+        for (LoadScenario scenario : scenarios) {
+            ConcurrentHistogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE, 3);
+            AtomicLong errorCount = new AtomicLong();
+            histograms.put(scenario.name(), histogram);
+            errors.put(scenario.name(), errorCount);
+            SplittableRandom random = new SplittableRandom(seed++);
+            Thread dispatcher = new Thread(() -> dispatch(scenario, random, startNanos, endNanos, histogram, errorCount),
+                    "load-" + scenario.name());
+            dispatcher.setDaemon(true);
+            dispatchers.add(dispatcher);
+            dispatcher.start();
+        }
+        for (Thread dispatcher : dispatchers) {
+            dispatcher.join();
+        }
+        // Drain: every permit back means every response has been recorded
+        if (!inFlight.tryAcquire(MAX_IN_FLIGHT, 2, TimeUnit.MINUTES)) {
+            System.err.println("Timed out waiting for " + (MAX_IN_FLIGHT - inFlight.availablePermits()) + " outstanding requests");
+        } else {
+            inFlight.release(MAX_IN_FLIGHT);
+        }
+
+        double seconds = duration.toNanos() / 1e9;
+        LoadTestReport report = new LoadTestReport();
+        Histogram total = new Histogram(HIGHEST_TRACKABLE, 3);
+        long totalErrors = 0;
+        for (LoadScenario scenario : scenarios) {
+            Histogram histogram = histograms.get(scenario.name());
+            long errorCount = errors.get(scenario.name()).get();
+            report.add(scenario.name(), histogram, errorCount, seconds);
+            total.add(histogram);
+            totalErrors += errorCount;
+        }
+        report.add("total", total, totalErrors, seconds);
+        return report;
+    }
+
+    private void dispatch(LoadScenario scenario, SplittableRandom random, long startNanos, long endNanos,
+                          ConcurrentHistogram histogram, AtomicLong errors) {
+        long intervalNanos = (long) (1e9 / scenario.ratePerSecond());
+        for (long n = 0; ; n++) {
+            long intended = startNanos + n * intervalNanos;
+            if (intended >= endNanos) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            HttpRequest request = scenario.request().apply(random);
+            if (!inFlight.tryAcquire()) {
+                // The server has fallen so far behind that the client would run out of memory; count it as a failure
+                errors.incrementAndGet();
+                continue;
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                try {
+                    histogram.recordValue(Math.min(HIGHEST_TRACKABLE, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended)));
+                    if (failure != null || response.statusCode() >= 400) {
+                        errors.incrementAndGet();
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            options.put(arg.substring(0, eq).toLowerCase(Locale.ROOT), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private static Duration duration(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(v.endsWith("s") ? v.substring(0, v.length() - 1) : v));
+    }
+}
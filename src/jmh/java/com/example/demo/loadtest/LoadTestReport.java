@@ -0,0 +1,122 @@
+package main.java.com.example.demo.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Per-scenario latency/throughput summary. Written as a text table, a CSV for comparing builds and
+// one .hgrm percentile distribution per scenario. Run main(before.csv, after.csv) to diff two runs.
+public final class LoadTestReport {
+
+    private static final String HEADER = "scenario,requests,errors,throughput_rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms";
+
+    record Row(String scenario, long requests, long errors, double throughput, double p50, double p90, double p99, double p999, double max) {
+
+        static Row of(String scenario, Histogram histogram, long errors, double seconds) {
+            return new Row(scenario, histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                    ms(histogram.getValueAtPercentile(50)), ms(histogram.getValueAtPercentile(90)),
+                    ms(histogram.getValueAtPercentile(99)), ms(histogram.getValueAtPercentile(99.9)), ms(histogram.getMaxValue()));
+        }
+
+        String csv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f", scenario, requests, errors, throughput, p50, p90, p99, p999, max);
+        }
+
+        static Row parse(String line) {
+            String[] f = line.split(",");
+            return new Row(f[0], Long.parseLong(f[1]), Long.parseLong(f[2]), Double.parseDouble(f[3]), Double.parseDouble(f[4]),
+                    Double.parseDouble(f[5]), Double.parseDouble(f[6]), Double.parseDouble(f[7]), Double.parseDouble(f[8]));
+        }
+    }
+
+    private final List<Row> rows = new ArrayList<>();
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+
+    void add(String scenario, Histogram histogram, long errors, double seconds) {
+        rows.add(Row.of(scenario, histogram, errors, seconds));
+        histograms.put(scenario, histogram);
+    }
+
+    void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%-22s %10s %8s %12s %10s %10s %10s %10s %10s%n",
+                "scenario", "requests", "errors", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Row r : rows) {
+            out.printf(Locale.ROOT, "%-22s %10d %8d %12.1f %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    r.scenario(), r.requests(), r.errors(), r.throughput(), r.p50(), r.p90(), r.p99(), r.p999(), r.max());
+        }
+    }
+
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        rows.forEach(r -> lines.add(r.csv()));
+        Files.write(directory.resolve("summary.csv"), lines);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("summary.txt")))) {
+            print(out);
+        }
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")))) {
+                // Microsecond samples reported in milliseconds
+                entry.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+
+    // Compare two summary.csv files between builds
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: LoadTestReport <before/summary.csv> <after/summary.csv>");
+            System.exit(2);
+        }
+        compare(read(Path.of(args[0])), read(Path.of(args[1])), System.out);
+    }
+
+    // Prints throughput and latency change per scenario of after relative to before
+    static void compare(Map<String, Row> before, Map<String, Row> after, PrintStream out) {
+        out.printf(Locale.ROOT, "%-22s %14s %14s %14s %14s%n", "scenario", "rps change", "p50 change", "p99 change", "errors");
+        for (Map.Entry<String, Row> entry : after.entrySet()) {
+            Row b = before.get(entry.getKey());
+            Row a = entry.getValue();
+            if (b == null) {
+                out.printf(Locale.ROOT, "%-22s %14s%n", entry.getKey(), "(new)");
+                continue;
+            }
+            out.printf(Locale.ROOT, "%-22s %13.1f%% %13.1f%% %13.1f%% %6d -> %-6d%n", entry.getKey(),
+                    change(b.throughput(), a.throughput()), change(b.p50(), a.p50()), change(b.p99(), a.p99()),
+                    b.errors(), a.errors());
+        }
+    }
+
+    Map<String, Row> rows() {
+        Map<String, Row> byScenario = new LinkedHashMap<>();
+        rows.forEach(r -> byScenario.put(r.scenario(), r));
+        return byScenario;
+    }
+
+    private static Map<String, Row> read(Path file) throws IOException {
+        Map<String, Row> rows = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(file);
+        for (String line : lines.subList(1, lines.size())) {
+            Row row = Row.parse(line);
+            rows.put(row.scenario(), row);
+        }
+        return rows;
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) * 100.0 / before;
+    }
+}
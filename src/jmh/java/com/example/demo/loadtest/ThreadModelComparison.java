@@ -0,0 +1,43 @@
+package main.java.com.example.demo.loadtest;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+// Runs the same load mix twice in one JVM, first on Tomcat's platform-thread pool and then with
+// spring.threads.virtual.enabled=true (which also turns on the connection-pool concurrency limit),
+// and prints the change in throughput and latency. Needs a Java 21 runtime. Takes LoadTestHarness
+// arguments; a polling-heavy mix shows the difference best, e.g.
+//   mvn -P benchmarks,java21 test-compile exec:exec -Dbench.main=main.java.com.example.demo.loadtest.ThreadModelComparison
+//       -Dbench.args="duration=60s mix=ward:3000,latest:1000,range:10"
+public final class ThreadModelComparison {
+
+    private ThreadModelComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (Runtime.version().feature() < 21) {
+            System.err.println("Virtual threads need Java 21; running on " + Runtime.version());
+            System.exit(2);
+        }
+        Map<String, String> options = LoadTestHarness.parse(args);
+        if (options.containsKey("target")) {
+            System.err.println("target= is not supported: both runs boot their own embedded server");
+            System.exit(2);
+        }
+        Path out = Path.of(options.getOrDefault("out", "target/loadtest/threads-" + System.currentTimeMillis()));
+
+        System.out.println("== platform threads (thread per request)");
+        LoadTestReport platform = LoadTestHarness.execute(options, "--spring.threads.virtual.enabled=false");
+        platform.print(System.out);
+        platform.write(out.resolve("platform"));
+
+        System.out.println("== virtual threads");
+        LoadTestReport virtual = LoadTestHarness.execute(options, "--spring.threads.virtual.enabled=true");
+        virtual.print(System.out);
+        virtual.write(out.resolve("virtual"));
+
+        System.out.println("== virtual relative to platform");
+        LoadTestReport.compare(platform.rows(), virtual.rows(), System.out);
+        System.out.println("Reports written to " + out.toAbsolutePath());
+    }
+}
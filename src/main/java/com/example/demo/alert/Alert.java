@@ -0,0 +1,9 @@
+package main.java.com.example.demo.alert;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+// A rule that fired on a reading. Sequence numbers increase by one per alert since startup.
+public record Alert(long sequence, Instant raisedAt, String rule, AlertRule.Severity severity, Long patientId,
+                    String componentName, Long readingId, LocalDateTime measuredDateTime, double value, String detail) {
+}
@@ -0,0 +1,262 @@
+package main.java.com.example.demo.alert;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.event.ClinicalDataChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Evaluates alerting rules on every reading written through the API, bulk or write-behind ingest, right after it
+// commits. State lives in memory per patient (see VitalSeries), in lock shards chosen by patient id so readings of
+// different patients are evaluated in parallel; history is never queried, so a series warms up from the readings
+// that arrive after startup or after the rules change. Patients are LRU-evicted beyond max-patients. Alerts are
+// kept in a bounded in-memory list for GET /api/clinical-data/alerts and appended to a local JSON-lines log.
+@Component
+@ConditionalOnProperty(name = "clinical.alerts.enabled", havingValue = "true", matchIfMissing = true)
+public class AlertEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertEngine.class);
+
+    public record Stats(int rules, long patients, long evaluated, long alerts, long suppressed, long logDropped,
+                        double averageMicros) {
+    }
+
+    // The rules on one field of one component, and the index of their series in a patient's state
+    private record Channel(int index, AlertRule.Field field, AlertRule[] rules) {
+    }
+
+    // An immutable rule set; replacing it starts every series afresh
+    private record RuleSet(List<AlertRule> rules, Map<String, Channel[]> byComponent, int channels) {
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${clinical.alerts.rules:classpath:alert-rules.json}")
+    private Resource rulesResource;
+
+    @Value("${clinical.alerts.window-readings:16}")
+    private int windowReadings;
+
+    @Value("${clinical.alerts.cooldown-seconds:300}")
+    private long cooldownSeconds;
+
+    @Value("${clinical.alerts.max-patients:100000}")
+    private int maxPatients;
+
+    @Value("${clinical.alerts.recent:10000}")
+    private int recentCapacity;
+
+    @Value("${clinical.alerts.log-file:data/alerts/alerts.log}")
+    private Path logFile;
+
+    private Shard[] shards;
+    private volatile RuleSet ruleSet = new RuleSet(List.of(), Map.of(), 0);
+
+    private final ArrayDeque<Alert> recent = new ArrayDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder evaluated = new LongAdder();
+    private final LongAdder evaluationNanos = new LongAdder();
+    private final LongAdder raised = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private AlertLog alertLog;
+
+    @PostConstruct
+    public void init() throws IOException {
+        // A power of two at least four times the cores, so concurrent writers rarely share a shard
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1;
+        shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(Math.max(1, maxPatients / count));
+        }
+        if (rulesResource.exists()) {
+            try (InputStream in = rulesResource.getInputStream()) {
+                replaceRules(objectMapper.readValue(in, new TypeReference<List<AlertRule>>() { }));
+            }
+        }
+        alertLog = new AlertLog(logFile, recentCapacity, objectMapper);
+        log.info("Alerting on {} rules", ruleSet.rules().size());
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        alertLog.close();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClinicalDataChanged(ClinicalDataChangedEvent event) {
+        // Only new measurements: corrections and imported history do not alert
+        if (event.type() == ClinicalDataChangedEvent.Type.CREATED) {
+            for (ClinicalReading reading : event.readings()) {
+                evaluate(reading);
+            }
+        }
+    }
+
+    // Evaluates the rules of the reading's component and returns the alerts raised
+    public List<Alert> evaluate(ClinicalReading reading) {
+        RuleSet rules = ruleSet;
+        Channel[] channels = reading.componentName() == null ? null : rules.byComponent().get(reading.componentName());
+        if (channels == null || reading.patientId() == null || reading.measuredDateTime() == null) {
+            return List.of();
+        }
+        long started = System.nanoTime();
+        long second = reading.measuredDateTime().toEpochSecond(ZoneOffset.UTC);
+        List<VitalSeries.Firing> firings = new ArrayList<>(0);
+        int suppressedHere = 0;
+        Shard shard = shards[(int) (mix(reading.patientId()) & (shards.length - 1))];
+        synchronized (shard) {
+            if (shard.ruleSet != rules) {
+                // The rules changed since this shard last evaluated: start its series afresh
+                shard.clear();
+                shard.ruleSet = rules;
+            }
+            VitalSeries[] state = shard.computeIfAbsent(reading.patientId(), id -> new VitalSeries[rules.channels()]);
+            for (Channel channel : channels) {
+                double value = channel.field().of(reading);
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                VitalSeries series = state[channel.index()];
+                if (series == null) {
+                    series = new VitalSeries(windowReadings, channel.rules().length);
+                    state[channel.index()] = series;
+                }
+                suppressedHere += series.evaluate(channel.rules(), second, value, cooldownSeconds, firings);
+            }
+        }
+        evaluated.increment();
+        suppressed.add(suppressedHere);
+        List<Alert> alerts = firings.isEmpty() ? List.of() : raise(reading, firings);
+        evaluationNanos.add(System.nanoTime() - started);
+        return alerts;
+    }
+
+    // Most recent alerts first, optionally of one patient and newer than a sequence number
+    public List<Alert> recent(Long patientId, long afterSequence, int limit) {
+        List<Alert> alerts = new ArrayList<>();
+        synchronized (recent) {
+            Iterator<Alert> newestFirst = recent.descendingIterator();
+            while (newestFirst.hasNext() && alerts.size() < limit) {
+                Alert alert = newestFirst.next();
+                if (alert.sequence() <= afterSequence) {
+                    break;
+                }
+                if (patientId == null || patientId.equals(alert.patientId())) {
+                    alerts.add(alert);
+                }
+            }
+        }
+        return alerts;
+    }
+
+    public List<AlertRule> rules() {
+        return ruleSet.rules();
+    }
+
+    // Validates and installs a new rule set; throws IllegalArgumentException naming the first invalid rule
+    public synchronized void replaceRules(List<AlertRule> rules) {
+        Map<String, Map<AlertRule.Field, List<AlertRule>>> grouped = new LinkedHashMap<>();
+        for (AlertRule rule : rules) {
+            String error = rule == null ? "rule is required" : rule.validate();
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            grouped.computeIfAbsent(rule.componentName(), c -> new LinkedHashMap<>())
+                    .computeIfAbsent(rule.fieldOrDefault(), f -> new ArrayList<>())
+                    .add(rule);
+        }
+        Map<String, Channel[]> byComponent = new HashMap<>();
+        int index = 0;
+        for (Map.Entry<String, Map<AlertRule.Field, List<AlertRule>>> component : grouped.entrySet()) {
+            List<Channel> channels = new ArrayList<>();
+            for (Map.Entry<AlertRule.Field, List<AlertRule>> field : component.getValue().entrySet()) {
+                channels.add(new Channel(index++, field.getKey(), field.getValue().toArray(new AlertRule[0])));
+            }
+            byComponent.put(component.getKey(), channels.toArray(new Channel[0]));
+        }
+        ruleSet = new RuleSet(List.copyOf(rules), byComponent, index);
+    }
+
+    public Stats stats() {
+        long patients = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                patients += shard.size();
+            }
+        }
+        long count = evaluated.sum();
+        return new Stats(ruleSet.rules().size(), patients, count, raised.sum(), suppressed.sum(), alertLog.dropped(),
+                count == 0 ? 0 : evaluationNanos.sum() / 1000.0 / count);
+    }
+
+    private List<Alert> raise(ClinicalReading reading, List<VitalSeries.Firing> firings) {
+        List<Alert> alerts = new ArrayList<>(firings.size());
+        Instant now = Instant.now();
+        synchronized (recent) {
+            for (VitalSeries.Firing firing : firings) {
+                AlertRule rule = firing.rule();
+                Alert alert = new Alert(sequence.incrementAndGet(), now, rule.name(), rule.severityOrDefault(),
+                        reading.patientId(), reading.componentName(), reading.id(), reading.measuredDateTime(),
+                        rule.fieldOrDefault().of(reading), firing.detail());
+                recent.addLast(alert);
+                if (recent.size() > recentCapacity) {
+                    recent.removeFirst();
+                }
+                alerts.add(alert);
+            }
+        }
+        for (Alert alert : alerts) {
+            alertLog.append(alert);
+        }
+        raised.add(alerts.size());
+        return alerts;
+    }
+
+    // Spreads sequential patient ids over the shards
+    private static long mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    // Access-ordered map of patient state, evicting the least recently seen patient beyond capacity
+    private static final class Shard extends LinkedHashMap<Long, VitalSeries[]> {
+
+        private final int capacity;
+        private RuleSet ruleSet;
+
+        Shard(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, VitalSeries[]> eldest) {
+            return size() > capacity;
+        }
+    }
+}
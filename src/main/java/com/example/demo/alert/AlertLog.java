@@ -0,0 +1,91 @@
+package main.java.com.example.demo.alert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Appends alerts as JSON lines to a local log file from a background thread, so raising an alert costs the
+// ingest path one queue offer. Alerts arriving while the queue is full are counted and left out of the file.
+class AlertLog implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertLog.class);
+
+    private final ObjectMapper objectMapper;
+    private final ArrayBlockingQueue<Alert> queue;
+    private final OutputStream out;
+    private final Thread writer;
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean running = true;
+
+    AlertLog(Path file, int capacity, ObjectMapper objectMapper) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.writer = new Thread(this::drainLoop, "clinical-alert-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    void append(Alert alert) {
+        if (!queue.offer(alert)) {
+            dropped.increment();
+        }
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    // Writes what is queued, then stops
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join(5_000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+    }
+
+    private void drainLoop() {
+        List<Alert> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Alert first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                for (Alert alert : batch) {
+                    out.write(objectMapper.writeValueAsBytes(alert));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                dropped.add(batch.size());
+                log.warn("Could not write {} alerts to the alert log", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package main.java.com.example.demo.alert;
+
+import main.java.com.example.demo.dto.ClinicalReading;
+
+// One alerting rule on a component's readings, as read from the rules file or PUT /api/clinical-data/alerts/rules.
+//   THRESHOLD       the value is below min or above max (either bound may be left out)
+//   RATE_OF_CHANGE  the value moved by more than maxChange from a reading of the last windowSeconds
+//   DEVIATION       the value is more than maxZ standard deviations from the patient's exponentially weighted mean
+//                   (weight alpha per reading), once warmup readings have been seen
+// field picks the number compared: the parsed value, or the systolic or diastolic half of a blood pressure.
+public record AlertRule(String name, String componentName, Type type, Field field, Severity severity,
+                        Double min, Double max, Double maxChange, Long windowSeconds, Double alpha, Double maxZ,
+                        Integer warmup) {
+
+    public enum Type {
+        THRESHOLD,
+        RATE_OF_CHANGE,
+        DEVIATION
+    }
+
+    public enum Field {
+        VALUE,
+        SYSTOLIC,
+        DIASTOLIC;
+
+        // NaN when the reading has no such number
+        double of(ClinicalReading reading) {
+            Double value = switch (this) {
+                case VALUE -> reading.numericValue();
+                case SYSTOLIC -> reading.systolicValue();
+                case DIASTOLIC -> reading.diastolicValue();
+            };
+            return value == null ? Double.NaN : value;
+        }
+    }
+
+    public enum Severity {
+        WARNING,
+        CRITICAL
+    }
+
+    // Returns a validation error message, or null when the rule is complete
+    public String validate() {
+        if (name == null || name.isBlank()) {
+            return "name is required";
+        }
+        if (componentName == null || componentName.isBlank()) {
+            return name + ": componentName is required";
+        }
+        if (type == null) {
+            return name + ": type is required";
+        }
+        return switch (type) {
+            case THRESHOLD -> min == null && max == null ? name + ": min or max is required" : null;
+            case RATE_OF_CHANGE -> maxChange == null || maxChange <= 0 || windowSeconds == null || windowSeconds <= 0
+                    ? name + ": positive maxChange and windowSeconds are required" : null;
+            case DEVIATION -> alpha == null || alpha <= 0 || alpha >= 1 || maxZ == null || maxZ <= 0
+                    ? name + ": alpha between 0 and 1 and a positive maxZ are required" : null;
+        };
+    }
+
+    Field fieldOrDefault() {
+        return field == null ? Field.VALUE : field;
+    }
+
+    Severity severityOrDefault() {
+        return severity == null ? Severity.WARNING : severity;
+    }
+
+    int warmupOrDefault() {
+        return warmup == null ? 10 : warmup;
+    }
+}
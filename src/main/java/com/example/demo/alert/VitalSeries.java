@@ -0,0 +1,119 @@
+package main.java.com.example.demo.alert;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Alerting state of one patient's values of one component field: the last readings in a ring of primitive arrays
+// (for RATE_OF_CHANGE), and per rule the exponentially weighted mean and variance (for DEVIATION) and the time of
+// its last alert. Evaluation never looks further back than the ring. Not thread-safe; the engine's shard lock
+// guards it.
+final class VitalSeries {
+
+    record Firing(AlertRule rule, String detail) {
+    }
+
+    private final long[] seconds;
+    private final double[] values;
+    private int head;
+    private int size;
+
+    private final double[] mean;
+    private final double[] variance;
+    private final int[] count;
+    private final long[] lastAlert;
+
+    VitalSeries(int capacity, int rules) {
+        this.seconds = new long[capacity];
+        this.values = new double[capacity];
+        this.mean = new double[rules];
+        this.variance = new double[rules];
+        this.count = new int[rules];
+        this.lastAlert = new long[rules];
+        Arrays.fill(lastAlert, Long.MIN_VALUE);
+    }
+
+    // Evaluates the rules against the state before this value, then adds it; fired rules are added to firings.
+    // A value older than the newest one held is only checked against thresholds. Returns the number of firings
+    // suppressed because their rule fired for this series less than cooldownSeconds before.
+    int evaluate(AlertRule[] rules, long second, double value, long cooldownSeconds, List<Firing> firings) {
+        boolean inOrder = size == 0 || second >= seconds[(head + size - 1) % seconds.length];
+        int suppressed = 0;
+        for (int k = 0; k < rules.length; k++) {
+            AlertRule rule = rules[k];
+            String detail = switch (rule.type()) {
+                case THRESHOLD -> threshold(rule, value);
+                case RATE_OF_CHANGE -> inOrder ? rateOfChange(rule, second, value) : null;
+                case DEVIATION -> inOrder ? deviation(k, rule, value) : null;
+            };
+            if (detail == null) {
+                continue;
+            }
+            if (lastAlert[k] != Long.MIN_VALUE && Math.abs(second - lastAlert[k]) < cooldownSeconds) {
+                suppressed++;
+            } else {
+                lastAlert[k] = second;
+                firings.add(new Firing(rule, detail));
+            }
+        }
+        if (inOrder) {
+            if (size < seconds.length) {
+                size++;
+            } else {
+                head = (head + 1) % seconds.length;
+            }
+            int tail = (head + size - 1) % seconds.length;
+            seconds[tail] = second;
+            values[tail] = value;
+        }
+        return suppressed;
+    }
+
+    private static String threshold(AlertRule rule, double value) {
+        if (rule.min() != null && value < rule.min()) {
+            return value + " below " + rule.min();
+        }
+        if (rule.max() != null && value > rule.max()) {
+            return value + " above " + rule.max();
+        }
+        return null;
+    }
+
+    // The largest move from a reading within the window
+    private String rateOfChange(AlertRule rule, long second, double value) {
+        long since = second - rule.windowSeconds();
+        double largest = 0;
+        double from = value;
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % seconds.length;
+            if (seconds[slot] >= since && Math.abs(value - values[slot]) > largest) {
+                largest = Math.abs(value - values[slot]);
+                from = values[slot];
+            }
+        }
+        return largest > rule.maxChange() ? "changed from " + from + " to " + value + " within " + rule.windowSeconds() + " s" : null;
+    }
+
+    // Scores against the mean and variance so far, then folds the value in (West's incremental EWMA variance)
+    private String deviation(int k, AlertRule rule, double value) {
+        String detail = null;
+        if (count[k] >= rule.warmupOrDefault() && variance[k] > 0) {
+            double z = (value - mean[k]) / Math.sqrt(variance[k]);
+            if (Math.abs(z) > rule.maxZ()) {
+                detail = String.format(Locale.ROOT, "%s is %.1f standard deviations from the mean %.1f", value, z, mean[k]);
+            }
+        }
+        if (count[k] == 0) {
+            mean[k] = value;
+        } else {
+            double diff = value - mean[k];
+            double increment = rule.alpha() * diff;
+            mean[k] += increment;
+            variance[k] = (1 - rule.alpha()) * (variance[k] + diff * increment);
+        }
+        if (count[k] < Integer.MAX_VALUE) {
+            count[k]++;
+        }
+        return detail;
+    }
+}
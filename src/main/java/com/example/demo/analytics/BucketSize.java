@@ -0,0 +1,35 @@
+package main.java.com.example.demo.analytics;
+
+// Fixed-width time buckets for aggregation; ALL collapses the whole range into one bucket
+public enum BucketSize {
+    MINUTE(60L, 0L),
+    HOUR(3_600L, 0L),
+    DAY(86_400L, 0L),
+    // The epoch falls on a Thursday; shift by three days so weeks start on Monday
+    WEEK(604_800L, 259_200L),
+    ALL(0L, 0L);
+
+    private final long seconds;
+    private final long alignment;
+
+    BucketSize(long seconds, long alignment) {
+        this.seconds = seconds;
+        this.alignment = alignment;
+    }
+
+    public static BucketSize of(String value) {
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown bucket size: " + value, e);
+        }
+    }
+
+    // Start of the bucket containing the given epoch second
+    public long bucketStart(long epochSecond) {
+        if (seconds == 0L) {
+            return 0L;
+        }
+        return Math.floorDiv(epochSecond + alignment, seconds) * seconds - alignment;
+    }
+}
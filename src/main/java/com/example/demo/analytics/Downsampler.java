@@ -0,0 +1,126 @@
+package main.java.com.example.demo.analytics;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// Reduces a time-ordered series to a target number of points for charting. Both methods keep the first and
+// last point and return indexes into the source series, so callers decide how to render the points.
+public enum Downsampler {
+
+    // Largest-Triangle-Three-Buckets: per bucket keeps the point forming the largest triangle with the point
+    // kept before it and the average of the next bucket; preserves the visual shape of the line
+    LTTB {
+        @Override
+        public int[] select(TimeSeries series, int points) {
+            int n = series.size();
+            if (n <= points || points < 3) {
+                return all(n, points);
+            }
+            int[] selected = new int[points];
+            int count = 0;
+            selected[count++] = 0;
+            double every = (double) (n - 2) / (points - 2);
+            int a = 0;
+            for (int bucket = 0; bucket < points - 2; bucket++) {
+                int rangeStart = (int) Math.floor(bucket * every) + 1;
+                int rangeEnd = Math.min((int) Math.floor((bucket + 1) * every) + 1, n - 1);
+
+                // Average of the next bucket (the last point for the final bucket)
+                int nextStart = rangeEnd;
+                int nextEnd = Math.min((int) Math.floor((bucket + 2) * every) + 1, n);
+                double avgX = 0;
+                double avgY = 0;
+                for (int i = nextStart; i < nextEnd; i++) {
+                    avgX += series.time(i);
+                    avgY += series.value(i);
+                }
+                int nextCount = Math.max(1, nextEnd - nextStart);
+                avgX /= nextCount;
+                avgY /= nextCount;
+
+                double ax = series.time(a);
+                double ay = series.value(a);
+                double maxArea = -1;
+                int chosen = rangeStart;
+                for (int i = rangeStart; i < rangeEnd; i++) {
+                    double area = Math.abs((ax - avgX) * (series.value(i) - ay) - (ax - series.time(i)) * (avgY - ay));
+                    if (area > maxArea) {
+                        maxArea = area;
+                        chosen = i;
+                    }
+                }
+                selected[count++] = chosen;
+                a = chosen;
+            }
+            selected[count] = n - 1;
+            return selected;
+        }
+    },
+
+    // Splits the time range into points / 2 equal-width buckets and keeps each bucket's minimum and maximum
+    // in time order; never hides a spike, which matters for vitals
+    MINMAX {
+        @Override
+        public int[] select(TimeSeries series, int points) {
+            int n = series.size();
+            if (n <= points || points < 4) {
+                return all(n, points);
+            }
+            int buckets = (points - 2) / 2;
+            long first = series.time(0);
+            long span = Math.max(1, series.time(n - 1) - first + 1);
+            int[] selected = new int[points];
+            int count = 0;
+            selected[count++] = 0;
+            int i = 1;
+            for (int bucket = 0; bucket < buckets && i < n - 1; bucket++) {
+                long bucketEnd = first + (long) Math.ceil((double) span * (bucket + 1) / buckets);
+                int min = -1;
+                int max = -1;
+                for (; i < n - 1 && series.time(i) < bucketEnd; i++) {
+                    if (min < 0 || series.value(i) < series.value(min)) {
+                        min = i;
+                    }
+                    if (max < 0 || series.value(i) > series.value(max)) {
+                        max = i;
+                    }
+                }
+                if (min < 0) {
+                    continue;
+                }
+                selected[count++] = Math.min(min, max);
+                if (min != max) {
+                    selected[count++] = Math.max(min, max);
+                }
+            }
+            selected[count++] = n - 1;
+            return Arrays.copyOf(selected, count);
+        }
+    };
+
+    public abstract int[] select(TimeSeries series, int points);
+
+    public static Downsampler of(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown downsampling method: " + value, e);
+        }
+    }
+
+    private static int[] all(int n, int points) {
+        if (n <= points) {
+            int[] selected = new int[n];
+            for (int i = 0; i < n; i++) {
+                selected[i] = i;
+            }
+            return selected;
+        }
+        // Too few points requested to run the algorithm: evenly spaced, always including both ends
+        int[] selected = new int[points];
+        for (int i = 0; i < points; i++) {
+            selected[i] = points == 1 ? 0 : (int) Math.round((double) i * (n - 1) / (points - 1));
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,116 @@
+package main.java.com.example.demo.analytics;
+
+import java.util.Arrays;
+
+// Mergeable quantile sketch with relative-error guarantees (DDSketch style log-spaced buckets).
+// Memory is one long per occupied log bucket, so ~300 buckets cover every plausible vital sign at 1% accuracy.
+// Values <= 0 are counted in a dedicated zero bucket.
+public final class QuantileSketch {
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    private static final double MIN_POSITIVE = 1e-9;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+
+    // counts[i] holds the bucket with index offset + i
+    private long[] counts = new long[0];
+    private int offset;
+    private long zeroCount;
+    private long count;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be in (0, 1): " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public void add(double value) {
+        count++;
+        if (value <= MIN_POSITIVE) {
+            zeroCount++;
+            return;
+        }
+        increment((int) Math.ceil(Math.log(value) / logGamma), 1L);
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+        count += other.count;
+        zeroCount += other.zeroCount;
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] != 0L) {
+                increment(other.offset + i, other.counts[i]);
+            }
+        }
+    }
+
+    // Estimated value at quantile q in [0, 1]; NaN when empty
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1]: " + q);
+        }
+        if (count == 0L) {
+            return Double.NaN;
+        }
+        long rank = (long) (q * (count - 1));
+        if (rank < zeroCount) {
+            return 0.0;
+        }
+        long cumulative = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative > rank) {
+                return valueOf(offset + i);
+            }
+        }
+        return valueOf(offset + counts.length - 1);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // Midpoint of (gamma^(index-1), gamma^index] in relative terms
+    private double valueOf(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    private void increment(int index, long n) {
+        if (counts.length == 0) {
+            counts = new long[16];
+            offset = index - 8;
+        } else if (index < offset || index >= offset + counts.length) {
+            int newStart = Math.min(offset, index);
+            int newEnd = Math.max(offset + counts.length, index + 1);
+            // Grow with some slack so a drifting series doesn't reallocate on every new bucket
+            int slack = Math.max(8, (newEnd - newStart) / 4);
+            if (index < offset) {
+                newStart -= slack;
+            } else {
+                newEnd += slack;
+            }
+            long[] grown = new long[newEnd - newStart];
+            System.arraycopy(counts, 0, grown, offset - newStart, counts.length);
+            counts = grown;
+            offset = newStart;
+        }
+        counts[index - offset] += n;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch{count=" + count + ", zeroCount=" + zeroCount + ", buckets=" + Arrays.stream(counts).filter(c -> c != 0).count() + "}";
+    }
+}
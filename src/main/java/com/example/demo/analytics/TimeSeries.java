@@ -0,0 +1,77 @@
+package main.java.com.example.demo.analytics;
+
+import java.util.Arrays;
+
+// Growable (epoch second, value) series backed by primitive arrays, so long histories cost 16 bytes a point
+public final class TimeSeries {
+
+    private long[] times;
+    private double[] values;
+    private int size;
+    private boolean sorted = true;
+
+    public TimeSeries() {
+        this(1024);
+    }
+
+    public TimeSeries(int capacity) {
+        times = new long[Math.max(16, capacity)];
+        values = new double[times.length];
+    }
+
+    public void add(long epochSecond, double value) {
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        if (size > 0 && epochSecond < times[size - 1]) {
+            sorted = false;
+        }
+        times[size] = epochSecond;
+        values[size] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long time(int i) {
+        return times[i];
+    }
+
+    public double value(int i) {
+        return values[i];
+    }
+
+    // Orders points by time (stable), only needed when they were appended out of order
+    public void sortByTime() {
+        if (sorted) {
+            return;
+        }
+        long[] timeBuffer = new long[size];
+        double[] valueBuffer = new double[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int lo = 0; lo < size - width; lo += 2 * width) {
+                merge(lo, lo + width, Math.min(lo + 2 * width, size), timeBuffer, valueBuffer);
+            }
+        }
+        sorted = true;
+    }
+
+    private void merge(int lo, int mid, int hi, long[] timeBuffer, double[] valueBuffer) {
+        System.arraycopy(times, lo, timeBuffer, lo, hi - lo);
+        System.arraycopy(values, lo, valueBuffer, lo, hi - lo);
+        int left = lo;
+        int right = mid;
+        for (int k = lo; k < hi; k++) {
+            if (right >= hi || (left < mid && timeBuffer[left] <= timeBuffer[right])) {
+                times[k] = timeBuffer[left];
+                values[k] = valueBuffer[left++];
+            } else {
+                times[k] = timeBuffer[right];
+                values[k] = valueBuffer[right++];
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package main.java.com.example.demo.analytics;
+
+// Single-pass, mergeable statistics for one time bucket: primitive count/min/max/sum plus a quantile sketch
+public final class VitalsAccumulator {
+
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum;
+    private final QuantileSketch sketch = new QuantileSketch();
+
+    public void add(double value) {
+        count++;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        sum += value;
+        sketch.add(value);
+    }
+
+    public void merge(VitalsAccumulator other) {
+        if (other.count == 0L) {
+            return;
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sum += other.sum;
+        sketch.merge(other.sketch);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0L ? Double.NaN : sum / count;
+    }
+
+    // Sketch estimates are clamped to the exact extremes
+    public double quantile(double q) {
+        double estimate = sketch.quantile(q);
+        return Math.max(min, Math.min(max, estimate));
+    }
+}
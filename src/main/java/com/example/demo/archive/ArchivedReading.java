@@ -0,0 +1,7 @@
+package main.java.com.example.demo.archive;
+
+import java.time.LocalDateTime;
+
+// One clinicaldata row as stored in an archive segment
+public record ArchivedReading(long id, long patientId, String componentName, String componentValue, LocalDateTime measuredDateTime) {
+}
@@ -0,0 +1,227 @@
+package main.java.com.example.demo.archive;
+
+import jakarta.annotation.PostConstruct;
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.event.ClinicalDataChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Catalog of the local archive tier: segment files written by ClinicalDataArchiver, memory-mapped and kept
+// open for the lifetime of the application. Segments are never rewritten: removing a patient or deleting a reading
+// records a tombstone (archived readings of that patient, or with that id, are filtered out) and clearing all data
+// deletes the segments. A reading deleted from clinicaldata is tombstoned too when it may also be archived.
+@Component
+public class ClinicalDataArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(ClinicalDataArchive.class);
+
+    private static final String SUFFIX = ".seg";
+    private static final String TOMBSTONES = "removed-patients";
+    private static final String DELETED_READINGS = "deleted-readings";
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    public record Stats(int segments, long rows, long bytes, int removedPatients, int deletedReadings) {
+    }
+
+    @Value("${clinical.archive.dir:data/archive}")
+    private Path directory;
+
+    private final List<SegmentFile> segments = new CopyOnWriteArrayList<>();
+    private final Set<Long> removedPatients = ConcurrentHashMap.newKeySet();
+    private final Set<Long> deletedReadings = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void load() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    segments.add(SegmentFile.open(file));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable archive segment {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        readIds(directory.resolve(TOMBSTONES), removedPatients);
+        readIds(directory.resolve(DELETED_READINGS), deletedReadings);
+        log.info("Archive {}: {} segments, {} rows", directory, segments.size(), stats().rows());
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    // Readings of a patient, optionally restricted to one component and/or a time range
+    public void readPatient(long patientId, String componentName, LocalDateTime from, LocalDateTime to,
+                            Consumer<ArchivedReading> consumer) {
+        if (removedPatients.contains(patientId)) {
+            return;
+        }
+        for (SegmentFile segment : segments) {
+            if ((componentName == null || componentName.equals(segment.componentName())) && segment.overlaps(from, to)) {
+                segment.read(patientId, from, to, reading -> {
+                    if (!deletedReadings.contains(reading.id())) {
+                        consumer.accept(reading);
+                    }
+                });
+            }
+        }
+    }
+
+    // Every archived reading within [from, to]
+    public void scan(LocalDateTime from, LocalDateTime to, Consumer<ArchivedReading> consumer) {
+        scan(null, from, to, consumer);
+    }
+
+    // Every archived reading within [from, to], optionally restricted to one component
+    public void scan(String componentName, LocalDateTime from, LocalDateTime to, Consumer<ArchivedReading> consumer) {
+        for (SegmentFile segment : segments) {
+            if ((componentName == null || componentName.equals(segment.componentName())) && segment.overlaps(from, to)) {
+                segment.scan(from, to, reading -> {
+                    if (!removedPatients.contains(reading.patientId()) && !deletedReadings.contains(reading.id())) {
+                        consumer.accept(reading);
+                    }
+                });
+            }
+        }
+    }
+
+    // The archived reading with this id, unless it was deleted or its patient removed. Walks the id column of
+    // every segment, so it is meant for single-row operations, not queries.
+    public Optional<ArchivedReading> find(long id) {
+        if (deletedReadings.contains(id)) {
+            return Optional.empty();
+        }
+        for (SegmentFile segment : segments) {
+            ArchivedReading reading = segment.find(id);
+            if (reading != null) {
+                return removedPatients.contains(reading.patientId()) ? Optional.empty() : Optional.of(reading);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // End of the latest archived month, or null when nothing is archived. Only clinicaldata rows measured before
+    // it can also be in the archive (a run interrupted between publishing a segment and deleting its rows).
+    public LocalDateTime coveredUntil() {
+        YearMonth latest = null;
+        for (SegmentFile segment : segments) {
+            if (latest == null || segment.month().isAfter(latest)) {
+                latest = segment.month();
+            }
+        }
+        return latest == null ? null : latest.plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    public Stats stats() {
+        long rows = 0;
+        long bytes = 0;
+        for (SegmentFile segment : segments) {
+            rows += segment.rows();
+            bytes += segment.sizeInBytes();
+        }
+        return new Stats(segments.size(), rows, bytes, removedPatients.size(), deletedReadings.size());
+    }
+
+    // A new, not yet visible segment file for a component and month
+    SegmentWriter newSegment(String componentName, YearMonth month) throws IOException {
+        Files.createDirectories(directory);
+        String name = month.format(MONTH) + "-" + URLEncoder.encode(componentName, StandardCharsets.UTF_8)
+                + "-" + System.currentTimeMillis() + SUFFIX;
+        return new SegmentWriter(directory.resolve(name), componentName, month);
+    }
+
+    // Makes a finished segment visible to readers
+    void publish(Path file) throws IOException {
+        segments.add(SegmentFile.open(file));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClinicalDataChanged(ClinicalDataChangedEvent event) {
+        switch (event.type()) {
+            case DELETED, ARCHIVE_DELETED -> event.readings().forEach(this::deleteReading);
+            case PATIENT_REMOVED -> removePatient(event.patientId());
+            case CLEARED -> clear();
+            default -> {
+                // archived readings are never created or updated
+            }
+        }
+    }
+
+    private synchronized void removePatient(Long patientId) {
+        if (patientId == null || segments.isEmpty() || !removedPatients.add(patientId)) {
+            return;
+        }
+        appendId(directory.resolve(TOMBSTONES), patientId);
+    }
+
+    // Only a reading measured before the end of the archived months can have an archived copy
+    private synchronized void deleteReading(ClinicalReading reading) {
+        LocalDateTime coveredUntil = coveredUntil();
+        if (reading.id() == null || coveredUntil == null
+                || (reading.measuredDateTime() != null && !reading.measuredDateTime().isBefore(coveredUntil))
+                || !deletedReadings.add(reading.id())) {
+            return;
+        }
+        appendId(directory.resolve(DELETED_READINGS), reading.id());
+    }
+
+    private static void appendId(Path file, long id) {
+        try {
+            Files.writeString(file, id + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void readIds(Path file, Set<Long> ids) throws IOException {
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file)) {
+                if (!line.isBlank()) {
+                    ids.add(Long.parseLong(line.trim()));
+                }
+            }
+        }
+    }
+
+    private synchronized void clear() {
+        List<SegmentFile> removed = new ArrayList<>(segments);
+        segments.clear();
+        removedPatients.clear();
+        deletedReadings.clear();
+        try {
+            for (SegmentFile segment : removed) {
+                Files.deleteIfExists(segment.path());
+            }
+            Files.deleteIfExists(directory.resolve(TOMBSTONES));
+            Files.deleteIfExists(directory.resolve(DELETED_READINGS));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package main.java.com.example.demo.archive;
+
+import main.java.com.example.demo.event.ClinicalDataChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Moves clinicaldata rows older than clinical.archive.after-months into archive segments, one file per
+// component and month, then deletes them from MySQL. Rows referenced by clinicaldata_latest stay hot so
+// latest-value lookups never need the archive. A segment is forced to disk and published before any row
+// is deleted; if the job dies in between, rows exist in both tiers and reads prefer the MySQL copy.
+@Component
+@ConditionalOnProperty(name = "clinical.archive.enabled", havingValue = "true")
+public class ClinicalDataArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(ClinicalDataArchiver.class);
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int DELETE_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClinicalDataArchive archive;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${clinical.archive.after-months:12}")
+    private int afterMonths;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ClinicalDataArchiver(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    @Scheduled(cron = "${clinical.archive.cron:0 45 2 * * *}")
+    public void scheduledArchive() {
+        try {
+            archive();
+        } catch (IllegalStateException e) {
+            log.info("Skipping scheduled archive run: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Archive run failed", e);
+        }
+    }
+
+    // Archives every complete month before the cutoff; returns the number of rows moved
+    public long archive() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Archive is already running");
+        }
+        try {
+            YearMonth cutoff = YearMonth.from(LocalDate.now()).minusMonths(afterMonths);
+            LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(measured_date_time) FROM clinicaldata", LocalDateTime.class);
+            long moved = 0;
+            for (YearMonth month = oldest == null ? cutoff : YearMonth.from(oldest); month.isBefore(cutoff); month = month.plusMonths(1)) {
+                Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+                Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+                List<String> components = jdbcTemplate.queryForList(
+                        "SELECT DISTINCT component_name FROM clinicaldata WHERE measured_date_time >= ? AND measured_date_time < ?",
+                        String.class, from, to);
+                for (String component : components) {
+                    moved += archiveMonth(component, month, from, to);
+                }
+            }
+            log.info("Archived {} clinical data rows older than {}", moved, cutoff);
+            if (moved > 0) {
+                eventPublisher.publishEvent(ClinicalDataChangedEvent.archived());
+            }
+            return moved;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long archiveMonth(String component, YearMonth month, Timestamp from, Timestamp to) {
+        // Ids written to the segment, grown as rows stream in
+        long[][] collected = {new long[1024]};
+        int[] size = {0};
+        Path file;
+        try (SegmentWriter writer = archive.newSegment(component, month)) {
+            jdbcTemplate.query("SELECT c.id, c.patient_id, c.measured_date_time, c.component_value FROM clinicaldata c " +
+                            "WHERE c.component_name = ? AND c.measured_date_time >= ? AND c.measured_date_time < ? " +
+                            "AND c.patient_id IS NOT NULL " +
+                            "AND NOT EXISTS (SELECT 1 FROM clinicaldata_latest l WHERE l.clinicaldata_id = c.id) " +
+                            "ORDER BY c.patient_id, c.measured_date_time, c.id",
+                    rs -> {
+                        long id = rs.getLong(1);
+                        try {
+                            writer.append(id, rs.getLong(2), rs.getTimestamp(3).toLocalDateTime(), rs.getString(4));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        if (size[0] == collected[0].length) {
+                            collected[0] = Arrays.copyOf(collected[0], size[0] * 2);
+                        }
+                        collected[0][size[0]++] = id;
+                    },
+                    component, from, to);
+            if (size[0] == 0) {
+                return 0;
+            }
+            writer.finish();
+            file = writer.path();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            archive.publish(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        deleteArchived(collected[0], size[0], from, to);
+        log.info("Archived {} {} readings of {} to {}", size[0], component, month, file.getFileName());
+        return size[0];
+    }
+
+    // The time bounds let MySQL prune to the month's partition; the latest check covers rows that became
+    // a patient's latest reading while the segment was being written
+    private void deleteArchived(long[] ids, int count, Timestamp from, Timestamp to) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (int start = 0; start < count; start += DELETE_BATCH) {
+            int end = Math.min(count, start + DELETE_BATCH);
+            StringBuilder sql = new StringBuilder("DELETE FROM clinicaldata WHERE measured_date_time >= ? AND measured_date_time < ? " +
+                    "AND NOT EXISTS (SELECT 1 FROM clinicaldata_latest l WHERE l.clinicaldata_id = clinicaldata.id) AND id IN (");
+            Object[] args = new Object[2 + end - start];
+            args[0] = from;
+            args[1] = to;
+            for (int i = start; i < end; i++) {
+                sql.append(i == start ? "?" : ",?");
+                args[2 + i - start] = ids[i];
+            }
+            sql.append(')');
+            tx.executeWithoutResult(status -> jdbcTemplate.update(sql.toString(), args));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package main.java.com.example.demo.archive;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Variable-length integer encoding shared by SegmentWriter and SegmentFile. Small and delta-encoded values
+// (consecutive ids, seconds between readings, changes between vitals) mostly fit in one or two bytes.
+final class SegmentCodec {
+
+    static final int MAGIC = 0x43445331; // "CDS1"
+    static final byte VERSION = 1;
+
+    // Per-block encodings of component_value
+    static final byte VALUES_INTEGER = 0;
+    static final byte VALUES_PAIR = 1;
+    static final byte VALUES_TEXT = 2;
+
+    static final byte FLAG_NANOS = 1;
+
+    // patientId, offset, length, count, minEpochSecond, maxEpochSecond
+    static final int INDEX_ENTRY_BYTES = 8 + 8 + 4 + 4 + 8 + 8;
+    // entryCount, indexOffset, magic
+    static final int TRAILER_BYTES = 4 + 8 + 4;
+
+    private SegmentCodec() {
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = (int) readVarLong(buffer);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Growable byte array used to encode one block before it is written
+    static final class Buffer {
+
+        private byte[] bytes = new byte[4096];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] array() {
+            return bytes;
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeSigned(long value) {
+            writeVarLong(zigZag(value));
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package main.java.com.example.demo.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Read side of a segment written by SegmentWriter. The file is memory-mapped once; lookups binary-search the
+// patient index and decode only the blocks they need, scans walk the blocks sequentially. Thread safe.
+final class SegmentFile {
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final String componentName;
+    private final YearMonth month;
+    // Index columns, sorted by patient id
+    private final long[] patientIds;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final long[] minSeconds;
+    private final long[] maxSeconds;
+    private final long rows;
+
+    private SegmentFile(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        ByteBuffer view = buffer.duplicate();
+        if (view.limit() < 4 + SegmentCodec.TRAILER_BYTES || view.getInt(0) != SegmentCodec.MAGIC
+                || view.getInt(view.limit() - 4) != SegmentCodec.MAGIC) {
+            throw new IOException("Not a complete archive segment: " + path);
+        }
+        view.position(4);
+        if (view.get() != SegmentCodec.VERSION) {
+            throw new IOException("Unsupported archive segment version: " + path);
+        }
+        byte[] name = new byte[view.getShort()];
+        view.get(name);
+        this.componentName = new String(name, StandardCharsets.UTF_8);
+        this.month = YearMonth.of(view.getInt(), view.get());
+
+        int entries = view.getInt(view.limit() - SegmentCodec.TRAILER_BYTES);
+        long indexOffset = view.getLong(view.limit() - SegmentCodec.TRAILER_BYTES + 4);
+        patientIds = new long[entries];
+        offsets = new long[entries];
+        lengths = new int[entries];
+        minSeconds = new long[entries];
+        maxSeconds = new long[entries];
+        long total = 0;
+        view.position((int) indexOffset);
+        for (int i = 0; i < entries; i++) {
+            patientIds[i] = view.getLong();
+            offsets[i] = view.getLong();
+            lengths[i] = view.getInt();
+            total += view.getInt();
+            minSeconds[i] = view.getLong();
+            maxSeconds[i] = view.getLong();
+        }
+        this.rows = total;
+    }
+
+    static SegmentFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new SegmentFile(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    String componentName() {
+        return componentName;
+    }
+
+    YearMonth month() {
+        return month;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        return (from == null || from.isBefore(end)) && (to == null || !to.isBefore(start));
+    }
+
+    // Readings of one patient within [from, to] (either bound may be null)
+    void read(long patientId, LocalDateTime from, LocalDateTime to, Consumer<ArchivedReading> consumer) {
+        int i = Arrays.binarySearch(patientIds, patientId);
+        if (i >= 0) {
+            decode(i, from, to, consumer);
+        }
+    }
+
+    // Every reading within [from, to], block by block in patient order
+    void scan(LocalDateTime from, LocalDateTime to, Consumer<ArchivedReading> consumer) {
+        for (int i = 0; i < patientIds.length; i++) {
+            decode(i, from, to, consumer);
+        }
+    }
+
+    // The reading with this id, or null; only the id column of each block is decoded until it is found
+    ArchivedReading find(long id) {
+        for (int i = 0; i < patientIds.length; i++) {
+            ByteBuffer block = buffer.duplicate();
+            block.position((int) offsets[i]).limit((int) (offsets[i] + lengths[i]));
+            SegmentCodec.readVarLong(block);
+            int count = (int) SegmentCodec.readVarLong(block);
+            block.get();
+            block.get();
+            long previous = 0;
+            for (int j = 0; j < count; j++) {
+                previous += SegmentCodec.unZigZag(SegmentCodec.readVarLong(block));
+                if (previous == id) {
+                    ArchivedReading[] found = new ArchivedReading[1];
+                    decode(i, null, null, reading -> {
+                        if (reading.id() == id) {
+                            found[0] = reading;
+                        }
+                    });
+                    return found[0];
+                }
+            }
+        }
+        return null;
+    }
+
+    private void decode(int entry, LocalDateTime from, LocalDateTime to, Consumer<ArchivedReading> consumer) {
+        long fromSecond = from == null ? Long.MIN_VALUE : from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to == null ? Long.MAX_VALUE : to.toEpochSecond(ZoneOffset.UTC);
+        if (maxSeconds[entry] < fromSecond || minSeconds[entry] > toSecond) {
+            return;
+        }
+        ByteBuffer block = buffer.duplicate();
+        block.position((int) offsets[entry]).limit((int) (offsets[entry] + lengths[entry]));
+        long patientId = SegmentCodec.readVarLong(block);
+        int count = (int) SegmentCodec.readVarLong(block);
+        boolean hasNanos = (block.get() & SegmentCodec.FLAG_NANOS) != 0;
+        byte kind = block.get();
+
+        long[] ids = new long[count];
+        long[] seconds = new long[count];
+        int[] nanos = new int[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += SegmentCodec.unZigZag(SegmentCodec.readVarLong(block));
+            ids[i] = previous;
+        }
+        previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += SegmentCodec.unZigZag(SegmentCodec.readVarLong(block));
+            seconds[i] = previous;
+        }
+        if (hasNanos) {
+            for (int i = 0; i < count; i++) {
+                nanos[i] = (int) SegmentCodec.readVarLong(block);
+            }
+        }
+        long previousFirst = 0;
+        long previousSecond = 0;
+        for (int i = 0; i < count; i++) {
+            String value;
+            if (kind == SegmentCodec.VALUES_TEXT) {
+                value = SegmentCodec.readString(block);
+            } else if (kind == SegmentCodec.VALUES_INTEGER) {
+                previousFirst += SegmentCodec.unZigZag(SegmentCodec.readVarLong(block));
+                value = Long.toString(previousFirst);
+            } else {
+                previousFirst += SegmentCodec.unZigZag(SegmentCodec.readVarLong(block));
+                previousSecond += SegmentCodec.unZigZag(SegmentCodec.readVarLong(block));
+                value = previousFirst + "/" + previousSecond;
+            }
+            LocalDateTime measured = LocalDateTime.ofEpochSecond(seconds[i], nanos[i], ZoneOffset.UTC);
+            if ((from == null || !measured.isBefore(from)) && (to == null || !measured.isAfter(to))) {
+                consumer.accept(new ArchivedReading(ids[i], patientId, componentName, value, measured));
+            }
+        }
+    }
+}
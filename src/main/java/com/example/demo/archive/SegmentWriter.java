@@ -0,0 +1,215 @@
+package main.java.com.example.demo.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+// Writes one archive segment file: every reading of one component in one month, grouped into a block per
+// patient. Within a block each column is stored separately (ids, timestamps, values), delta and varint
+// encoded; a footer indexes the blocks by patient. Rows must be appended ordered by patient, time, id.
+//
+//   header  magic, version, component name, year, month
+//   blocks  patientId, count, flags, value kind, ids, epoch seconds, [nanos], values
+//   index   one fixed-size entry per block (see SegmentCodec.INDEX_ENTRY_BYTES)
+//   trailer entry count, index offset, magic
+final class SegmentWriter implements Closeable {
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final SegmentCodec.Buffer block = new SegmentCodec.Buffer();
+    private final SegmentCodec.Buffer index = new SegmentCodec.Buffer();
+    private ByteBuffer indexEntries = ByteBuffer.allocate(SegmentCodec.INDEX_ENTRY_BYTES * 64);
+
+    private long position;
+    private int blocks;
+    private long rows;
+
+    // Rows of the patient currently being buffered
+    private long patientId = -1;
+    private int count;
+    private long[] ids = new long[256];
+    private long[] seconds = new long[256];
+    private int[] nanos = new int[256];
+    private String[] values = new String[256];
+
+    SegmentWriter(Path target, String componentName, YearMonth month) throws IOException {
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        byte[] name = componentName.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(4 + 1 + 2 + name.length + 4 + 1);
+        header.putInt(SegmentCodec.MAGIC).put(SegmentCodec.VERSION)
+                .putShort((short) name.length).put(name)
+                .putInt(month.getYear()).put((byte) month.getMonthValue())
+                .flip();
+        write(header);
+    }
+
+    void append(long id, long patientId, LocalDateTime measuredDateTime, String componentValue) throws IOException {
+        if (patientId != this.patientId) {
+            flushBlock();
+            this.patientId = patientId;
+        }
+        if (count == ids.length) {
+            int capacity = count * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            seconds = Arrays.copyOf(seconds, capacity);
+            nanos = Arrays.copyOf(nanos, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        ids[count] = id;
+        seconds[count] = measuredDateTime.toEpochSecond(ZoneOffset.UTC);
+        nanos[count] = measuredDateTime.getNano();
+        values[count] = componentValue == null ? "" : componentValue;
+        count++;
+        rows++;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    Path path() {
+        return target;
+    }
+
+    // Writes the index and trailer, forces the file to disk and moves it into place
+    void finish() throws IOException {
+        flushBlock();
+        long indexOffset = position;
+        indexEntries.flip();
+        write(indexEntries);
+        ByteBuffer trailer = ByteBuffer.allocate(SegmentCodec.TRAILER_BYTES);
+        trailer.putInt(blocks).putLong(indexOffset).putInt(SegmentCodec.MAGIC).flip();
+        write(trailer);
+        channel.force(true);
+        channel.close();
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        block.reset();
+        block.writeVarLong(patientId);
+        block.writeVarLong(count);
+        boolean hasNanos = false;
+        for (int i = 0; i < count; i++) {
+            hasNanos |= nanos[i] != 0;
+        }
+        block.writeByte(hasNanos ? SegmentCodec.FLAG_NANOS : 0);
+        byte kind = valueKind();
+        block.writeByte(kind);
+
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            block.writeSigned(ids[i] - previous);
+            previous = ids[i];
+        }
+        previous = 0;
+        for (int i = 0; i < count; i++) {
+            block.writeSigned(seconds[i] - previous);
+            previous = seconds[i];
+        }
+        if (hasNanos) {
+            for (int i = 0; i < count; i++) {
+                block.writeVarLong(nanos[i]);
+            }
+        }
+        writeValues(kind);
+
+        ensureIndexCapacity();
+        indexEntries.putLong(patientId).putLong(position).putInt(block.size()).putInt(count)
+                .putLong(seconds[0]).putLong(seconds[count - 1]);
+        write(ByteBuffer.wrap(block.array(), 0, block.size()));
+        blocks++;
+        count = 0;
+    }
+
+    // Vitals are almost always plain integers ("72") or integer pairs ("67/119"); those are stored as
+    // delta-encoded numbers when the text can be rebuilt exactly, anything else as text
+    private byte valueKind() {
+        boolean integers = true;
+        boolean pairs = true;
+        for (int i = 0; i < count && (integers || pairs); i++) {
+            String value = values[i];
+            int slash = value.indexOf('/');
+            integers &= slash < 0 && isCanonicalLong(value);
+            pairs &= slash > 0 && isCanonicalLong(value.substring(0, slash)) && isCanonicalLong(value.substring(slash + 1));
+        }
+        return integers ? SegmentCodec.VALUES_INTEGER : pairs ? SegmentCodec.VALUES_PAIR : SegmentCodec.VALUES_TEXT;
+    }
+
+    private void writeValues(byte kind) {
+        if (kind == SegmentCodec.VALUES_TEXT) {
+            for (int i = 0; i < count; i++) {
+                block.writeString(values[i]);
+            }
+            return;
+        }
+        long previousFirst = 0;
+        long previousSecond = 0;
+        for (int i = 0; i < count; i++) {
+            String value = values[i];
+            if (kind == SegmentCodec.VALUES_INTEGER) {
+                long v = Long.parseLong(value);
+                block.writeSigned(v - previousFirst);
+                previousFirst = v;
+            } else {
+                int slash = value.indexOf('/');
+                long first = Long.parseLong(value.substring(0, slash));
+                long second = Long.parseLong(value.substring(slash + 1));
+                block.writeSigned(first - previousFirst);
+                block.writeSigned(second - previousSecond);
+                previousFirst = first;
+                previousSecond = second;
+            }
+        }
+    }
+
+    private void ensureIndexCapacity() {
+        if (indexEntries.remaining() < SegmentCodec.INDEX_ENTRY_BYTES) {
+            ByteBuffer larger = ByteBuffer.allocate(indexEntries.capacity() * 2);
+            indexEntries.flip();
+            larger.put(indexEntries);
+            indexEntries = larger;
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+
+    static boolean isCanonicalLong(String value) {
+        if (value.isEmpty() || value.length() > 18) {
+            return false;
+        }
+        try {
+            return Long.toString(Long.parseLong(value)).equals(value);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package main.java.com.example.demo.cache;
+
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.event.ClinicalDataChangedEvent;
+import main.java.com.example.demo.replica.ReadRouting;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// In-process cache of the latest reading per (patient, component), kept per patient so that both
+// /patient/{id}/latest and /patient/{id}/component/{name}/latest are served from the same entry.
+// Entries are LRU-evicted within lock stripes and kept current from ClinicalDataChangedEvent:
+// inserts are applied in place, updates and deletes invalidate the patient.
+@Component
+public class LatestVitalsCache {
+
+    private static final int STRIPES = 16;
+
+    public record Stats(long hits, long misses, long evictions, long invalidations, long size) {
+    }
+
+    // latest is null while the entry is being loaded; inserts seen meanwhile are parked in pending
+    // and an update/delete marks the load stale so it is not installed
+    private static final class Entry {
+        Map<String, ClinicalReading> latest;
+        List<ClinicalReading> pending = new ArrayList<>();
+        boolean stale;
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public LatestVitalsCache(@Value("${clinical.cache.latest.max-patients:100000}") int maxPatients) {
+        int perStripe = Math.max(1, maxPatients / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    // Latest reading per component for a patient. On a miss the loader is called outside the lock, reading from the
+    // primary since entries live until the next change; it returns null when the patient does not exist, which is
+    // passed through and not cached.
+    public Map<String, ClinicalReading> getOrLoad(Long patientId, Function<Long, Map<String, ClinicalReading>> loader) {
+        Stripe stripe = stripeFor(patientId);
+        Entry entry;
+        boolean install;
+        synchronized (stripe) {
+            entry = stripe.get(patientId);
+            if (entry != null && entry.latest != null) {
+                hits.increment();
+                return entry.latest;
+            }
+            // A load already in flight: load independently but leave installation to the first loader
+            install = entry == null;
+            if (install) {
+                entry = new Entry();
+                stripe.put(patientId, entry);
+            }
+        }
+        misses.increment();
+
+        Map<String, ClinicalReading> loaded = null;
+        try {
+            loaded = ReadRouting.onPrimary(() -> loader.apply(patientId));
+        } finally {
+            if (install) {
+                loaded = install(patientId, entry, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // Latest readings for many patients with a single loader call for all misses. The loader receives the
+    // missing ids and returns readings for the patients that exist (an empty map for a patient without
+    // readings); patients that do not exist are absent from the result. The loader reads from the primary.
+    public Map<Long, Map<String, ClinicalReading>> getAllOrLoad(Collection<Long> patientIds,
+                                                                Function<Collection<Long>, Map<Long, Map<String, ClinicalReading>>> loader) {
+        Map<Long, Map<String, ClinicalReading>> result = new HashMap<>();
+        Map<Long, Entry> installing = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long patientId : patientIds) {
+            Stripe stripe = stripeFor(patientId);
+            synchronized (stripe) {
+                Entry entry = stripe.get(patientId);
+                if (entry != null && entry.latest != null) {
+                    hits.increment();
+                    result.put(patientId, entry.latest);
+                    continue;
+                }
+                if (entry == null) {
+                    entry = new Entry();
+                    stripe.put(patientId, entry);
+                    installing.put(patientId, entry);
+                }
+            }
+            misses.increment();
+            missing.add(patientId);
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, Map<String, ClinicalReading>> loaded = null;
+        try {
+            loaded = ReadRouting.onPrimary(() -> loader.apply(missing));
+        } finally {
+            for (Map.Entry<Long, Entry> installed : installing.entrySet()) {
+                Long patientId = installed.getKey();
+                Map<String, ClinicalReading> latest = install(patientId, installed.getValue(), loaded == null ? null : loaded.get(patientId));
+                if (latest != null) {
+                    result.put(patientId, latest);
+                }
+            }
+        }
+        // Misses another caller is already loading are answered from this load without installing it
+        for (Long patientId : missing) {
+            Map<String, ClinicalReading> latest = loaded.get(patientId);
+            if (latest != null) {
+                result.putIfAbsent(patientId, latest);
+            }
+        }
+        return result;
+    }
+
+    // Completes a load started by this caller: installs the loaded readings merged with inserts seen meanwhile,
+    // or drops the entry when the patient does not exist or the load went stale. Returns what the caller should use.
+    private Map<String, ClinicalReading> install(Long patientId, Entry entry, Map<String, ClinicalReading> loaded) {
+        Stripe stripe = stripeFor(patientId);
+        synchronized (stripe) {
+            if (stripe.get(patientId) != entry) {
+                return loaded;
+            }
+            if (loaded == null || entry.stale) {
+                stripe.remove(patientId);
+                return loaded;
+            }
+            Map<String, ClinicalReading> merged = new HashMap<>(loaded);
+            for (ClinicalReading reading : entry.pending) {
+                merged.merge(reading.componentName(), reading, (a, b) -> b.isNewerThan(a) ? b : a);
+            }
+            entry.latest = Collections.unmodifiableMap(merged);
+            entry.pending = null;
+            return entry.latest;
+        }
+    }
+
+    public Stats stats() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClinicalDataChanged(ClinicalDataChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, IMPORTED -> event.readings().forEach(this::applyInsert);
+            case UPDATED -> {
+                invalidate(event.previous().patientId());
+                invalidate(event.readings().get(0).patientId());
+            }
+            case DELETED -> event.readings().forEach(reading -> invalidate(reading.patientId()));
+            case PATIENT_REMOVED -> invalidate(event.patientId());
+            case CLEARED -> clear();
+        }
+    }
+
+    private void applyInsert(ClinicalReading reading) {
+        if (reading.patientId() == null) {
+            return;
+        }
+        Stripe stripe = stripeFor(reading.patientId());
+        synchronized (stripe) {
+            Entry entry = stripe.get(reading.patientId());
+            if (entry == null) {
+                return;
+            }
+            if (entry.latest == null) {
+                entry.pending.add(reading);
+            } else if (reading.isNewerThan(entry.latest.get(reading.componentName()))) {
+                // Copy on write: readers hold on to the previous map outside the lock
+                Map<String, ClinicalReading> updated = new HashMap<>(entry.latest);
+                updated.put(reading.componentName(), reading);
+                entry.latest = Collections.unmodifiableMap(updated);
+            }
+        }
+    }
+
+    private void invalidate(Long patientId) {
+        if (patientId == null) {
+            return;
+        }
+        Stripe stripe = stripeFor(patientId);
+        synchronized (stripe) {
+            Entry entry = stripe.get(patientId);
+            if (entry == null) {
+                return;
+            }
+            invalidations.increment();
+            if (entry.latest == null) {
+                entry.stale = true;
+            } else {
+                stripe.remove(patientId);
+            }
+        }
+    }
+
+    private void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Entry entry : stripe.values()) {
+                    entry.stale = true;
+                }
+                stripe.clear();
+            }
+        }
+    }
+
+    private Stripe stripeFor(Long patientId) {
+        return stripes[Math.floorMod(Long.hashCode(patientId), STRIPES)];
+    }
+
+    // Access-ordered map evicting its least recently used patient beyond capacity
+    private final class Stripe extends LinkedHashMap<Long, Entry> {
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package main.java.com.example.demo.cohort;
+
+import java.util.List;
+
+// Body of POST /api/patients/cohort: the patients aged minAge..maxAge (either bound optional) who match every
+// reading predicate. A predicate compares one measure of a component's readings with a value:
+//   LATEST  the patient's latest reading of the component matches, and is at most withinDays old
+//   ANY     some reading of the component from the last withinDays matches
+// Without withinDays a predicate looks at all the history the snapshot holds (clinical.cohort.history-days).
+// limit caps the patient ids returned (lowest ids first); the count is always complete.
+public record CohortQuery(Integer minAge, Integer maxAge, List<ReadingPredicate> readings, Integer limit) {
+
+    public static final int DEFAULT_LIMIT = 1000;
+    public static final int MAX_LIMIT = 100_000;
+
+    public enum Mode {
+        LATEST,
+        ANY
+    }
+
+    // For blood pressure VALUE is the systolic value, see ParsedMeasurement
+    public enum Measure {
+        VALUE,
+        SYSTOLIC,
+        DIASTOLIC
+    }
+
+    public enum Op {
+        GT,
+        GE,
+        LT,
+        LE,
+        EQ
+    }
+
+    public record ReadingPredicate(String componentName, Measure measure, Op op, Double value, Integer withinDays,
+                                   Mode mode) {
+    }
+
+    // Returns a validation error message, or null when the query is well formed
+    public String validate(int historyDays) {
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            return "minAge is greater than maxAge";
+        }
+        if (limit != null && (limit < 0 || limit > MAX_LIMIT)) {
+            return "limit must be between 0 and " + MAX_LIMIT;
+        }
+        if (readings != null) {
+            for (ReadingPredicate predicate : readings) {
+                if (predicate == null || predicate.componentName() == null || predicate.op() == null || predicate.value() == null) {
+                    return "every reading predicate needs componentName, op and value";
+                }
+                if (predicate.withinDays() != null && (predicate.withinDays() < 1 || predicate.withinDays() > historyDays)) {
+                    return "withinDays must be between 1 and " + historyDays;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,7 @@
+package main.java.com.example.demo.cohort;
+
+import java.util.List;
+
+// Matching patients: the full count and the lowest ids up to the query's limit
+public record CohortResult(long count, List<Long> patientIds, long elapsedMicros) {
+}
@@ -0,0 +1,244 @@
+package main.java.com.example.demo.cohort;
+
+import jakarta.annotation.PreDestroy;
+import main.java.com.example.demo.archive.ClinicalDataArchive;
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.event.ClinicalDataChangedEvent;
+import main.java.com.example.demo.event.PatientChangedEvent;
+import main.java.com.example.demo.model.ParsedMeasurement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Owns the cohort snapshot: loaded in the background once the application is ready (patients, then history-days
+// of readings from the archive tier and from clinicaldata), rebuilt nightly to drop aged-out and removed rows, and
+// kept current from ClinicalDataChangedEvents and PatientChangedEvents. Changes arriving during a rebuild are applied
+// to the snapshot being served and replayed onto the new one before it is swapped in. Queries run in parallel on a
+// dedicated fork-join pool so they do not compete with the common pool.
+@Service
+@ConditionalOnProperty(name = "clinical.cohort.enabled", havingValue = "true", matchIfMissing = true)
+public class CohortService {
+
+    private static final Logger log = LoggerFactory.getLogger(CohortService.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    public record Stats(boolean ready, int patients, int components, long rows, long deadRows, int historyDays,
+                        LocalDateTime builtAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClinicalDataArchive archive;
+
+    @Value("${clinical.cohort.history-days:400}")
+    private int historyDays;
+
+    private final ForkJoinPool pool;
+
+    // Queries hold the read lock; changes, replays and swaps hold the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private CohortSnapshot snapshot;
+    private List<Object> pending;
+    private volatile boolean ready;
+    private volatile LocalDateTime builtAt;
+
+    @Autowired
+    public CohortService(DataSource dataSource, @Value("${clinical.cohort.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.snapshot = new CohortSnapshot(LocalDateTime.now());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread builder = new Thread(this::rebuild, "cohort-snapshot-rebuild");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    @Scheduled(cron = "${clinical.cohort.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    // Reloads patients and readings into a fresh snapshot and swaps it in
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                return;
+            }
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LocalDateTime since = LocalDateTime.now().minusDays(historyDays);
+        CohortSnapshot fresh = new CohortSnapshot(since);
+        long started = System.nanoTime();
+        try {
+            jdbcTemplate.query("SELECT id, age FROM patient", rs -> {
+                fresh.putPatient(rs.getLong(1), rs.getInt(2));
+            });
+            // Archived rows are older than any row still in clinicaldata; removed patients are filtered by the archive
+            archive.scan(since, null, archived -> {
+                ParsedMeasurement parsed = ParsedMeasurement.parse(archived.componentValue());
+                fresh.addReading(new ClinicalReading(archived.id(), archived.patientId(), archived.componentName(),
+                        archived.componentValue(), archived.measuredDateTime(), parsed.numericValue(),
+                        parsed.systolicValue(), parsed.diastolicValue()), false);
+            });
+            jdbcTemplate.query("SELECT id, patient_id, component_name, measured_date_time, numeric_value, diastolic_value"
+                    + " FROM clinicaldata WHERE measured_date_time >= ? AND numeric_value IS NOT NULL", rs -> {
+                double diastolic = rs.getDouble(6);
+                Double diastolicValue = rs.wasNull() ? null : diastolic;
+                fresh.addReading(new ClinicalReading(rs.getLong(1), rs.getLong(2), rs.getString(3), null,
+                        rs.getTimestamp(4).toLocalDateTime(), rs.getDouble(5), null, diastolicValue), false);
+            }, Timestamp.valueOf(since));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("Cohort snapshot rebuild failed", e);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Object event : pending) {
+                apply(fresh, event, true);
+            }
+            pending = null;
+            snapshot = fresh;
+            builtAt = LocalDateTime.now();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        CohortSnapshot.Stats stats = fresh.stats();
+        log.info("Cohort snapshot built with {} patients and {} readings in {} ms", stats.patients(), stats.rows(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClinicalDataChanged(ClinicalDataChangedEvent event) {
+        change(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        change(event);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Throws IllegalArgumentException for a malformed query
+    public CohortResult query(CohortQuery query) {
+        String error = query.validate(historyDays);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        long started = System.nanoTime();
+        long[] ids;
+        lock.readLock().lock();
+        try {
+            ids = snapshot.query(query, LocalDateTime.now(), pool);
+        } finally {
+            lock.readLock().unlock();
+        }
+        int limit = Math.min(ids.length, query.limit() == null ? CohortQuery.DEFAULT_LIMIT : query.limit());
+        List<Long> patientIds = new ArrayList<>(limit);
+        for (long id : Arrays.copyOf(ids, limit)) {
+            patientIds.add(id);
+        }
+        return new CohortResult(ids.length, patientIds, (System.nanoTime() - started) / 1000);
+    }
+
+    public Stats stats() {
+        CohortSnapshot.Stats stats;
+        lock.readLock().lock();
+        try {
+            stats = snapshot.stats();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new Stats(ready, stats.patients(), stats.components(), stats.rows(), stats.deadRows(), historyDays, builtAt);
+    }
+
+    private void change(Object event) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            apply(snapshot, event, false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Replayed changes may already be in a snapshot loaded after they committed, so replay dedupes added readings
+    private static void apply(CohortSnapshot target, Object event, boolean replay) {
+        if (event instanceof PatientChangedEvent patientEvent) {
+            switch (patientEvent.type()) {
+                case SAVED -> target.putPatient(patientEvent.patient().id(), patientEvent.patient().age());
+                case REMOVED -> target.removePatient(patientEvent.patientId());
+                case CLEARED -> target.clearPatients();
+            }
+            return;
+        }
+        ClinicalDataChangedEvent dataEvent = (ClinicalDataChangedEvent) event;
+        switch (dataEvent.type()) {
+            case CREATED, IMPORTED -> {
+                for (ClinicalReading reading : dataEvent.readings()) {
+                    target.addReading(reading, replay);
+                }
+            }
+            case UPDATED -> {
+                if (dataEvent.previous() != null) {
+                    target.removeReading(dataEvent.previous());
+                }
+                for (ClinicalReading reading : dataEvent.readings()) {
+                    target.addReading(reading, true);
+                }
+            }
+            case DELETED, ARCHIVE_DELETED -> {
+                for (ClinicalReading reading : dataEvent.readings()) {
+                    target.removeReading(reading);
+                }
+            }
+            case PATIENT_REMOVED -> target.removePatient(dataEvent.patientId());
+            case CLEARED -> target.clearReadings();
+            default -> {
+                // ARCHIVED rows move to the archive tier and stay history
+            }
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package main.java.com.example.demo.cohort;
+
+import main.java.com.example.demo.dto.ClinicalReading;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntPredicate;
+
+// Columnar in-memory copy of patients and their numeric readings for cohort queries. Patients occupy dense slots
+// (age in an int array, liveness in a bitmap). Each component keeps its readings in parallel primitive arrays in
+// arrival order, with a bitmap of the patient slots holding any live reading of it, the row of each slot's latest
+// reading and a chain through each slot's rows. Removed rows stay as dead rows until the next rebuild.
+//
+// Queries narrow a bitmap of candidate slots predicate by predicate; slot and row scans are split into fork-join
+// tasks. Not thread-safe: CohortService serializes changes against queries with a read-write lock.
+final class CohortSnapshot {
+
+    // Times are held as int seconds from 2000-01-01T00:00 (measured times are zone-less; UTC is assumed)
+    static final long EPOCH_SECOND = 946_684_800L;
+
+    // Slots or rows scanned by one fork-join leaf task
+    static final int LEAF = 1 << 16;
+
+    record Stats(int patients, int components, long rows, long deadRows) {
+    }
+
+    private final int historyFrom;
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private long[] ids = new long[1024];
+    private int[] ages = new int[1024];
+    private final BitSet livePatients = new BitSet();
+    private int slots;
+
+    private final Map<String, Component> components = new HashMap<>();
+    private long rows;
+    private long deadRows;
+
+    // Readings measured before historyFrom are not kept
+    CohortSnapshot(LocalDateTime historyFrom) {
+        this.historyFrom = time(historyFrom);
+    }
+
+    static int time(LocalDateTime dateTime) {
+        long seconds = dateTime.toEpochSecond(ZoneOffset.UTC) - EPOCH_SECOND;
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, seconds));
+    }
+
+    void putPatient(long id, int age) {
+        int slot = slotOf(id);
+        ages[slot] = age;
+        livePatients.set(slot);
+    }
+
+    void removePatient(long id) {
+        Integer slot = slotById.get(id);
+        if (slot != null) {
+            livePatients.clear(slot);
+        }
+    }
+
+    void clearPatients() {
+        livePatients.clear();
+    }
+
+    // Keeps readings with a numeric value; with dedupe a reading already held (same component, patient and id)
+    // is not added again, as when replaying changes onto a snapshot loaded meanwhile
+    void addReading(ClinicalReading reading, boolean dedupe) {
+        if (reading.patientId() == null || reading.componentName() == null || reading.measuredDateTime() == null
+                || reading.numericValue() == null || reading.id() == null) {
+            return;
+        }
+        int time = time(reading.measuredDateTime());
+        if (time < historyFrom) {
+            return;
+        }
+        int slot = slotOf(reading.patientId());
+        Component component = components.computeIfAbsent(reading.componentName(), name -> new Component());
+        if (dedupe && component.find(slot, reading.id()) >= 0) {
+            return;
+        }
+        component.append(slot, time, reading.id(), reading.numericValue().floatValue(),
+                reading.diastolicValue() == null ? Float.NaN : reading.diastolicValue().floatValue());
+        rows++;
+    }
+
+    void removeReading(ClinicalReading reading) {
+        Integer slot = reading.patientId() == null ? null : slotById.get(reading.patientId());
+        Component component = reading.componentName() == null ? null : components.get(reading.componentName());
+        if (slot == null || component == null || reading.id() == null) {
+            return;
+        }
+        int row = component.find(slot, reading.id());
+        if (row >= 0) {
+            component.kill(row);
+            deadRows++;
+        }
+    }
+
+    void clearReadings() {
+        components.clear();
+        rows = 0;
+        deadRows = 0;
+    }
+
+    Stats stats() {
+        return new Stats(livePatients.cardinality(), components.size(), rows - deadRows, deadRows);
+    }
+
+    // Ids of the live patients matching the query, ascending
+    long[] query(CohortQuery query, LocalDateTime now, ForkJoinPool pool) {
+        long[] candidates = livePatients.toLongArray();
+        if (query.minAge() != null || query.maxAge() != null) {
+            int min = query.minAge() == null ? Integer.MIN_VALUE : query.minAge();
+            int max = query.maxAge() == null ? Integer.MAX_VALUE : query.maxAge();
+            int[] age = ages;
+            candidates = filterSlots(candidates, slot -> age[slot] >= min && age[slot] <= max, pool);
+        }
+        if (query.readings() != null) {
+            int current = time(now);
+            for (CohortQuery.ReadingPredicate predicate : query.readings()) {
+                Component component = components.get(predicate.componentName());
+                if (component == null) {
+                    return new long[0];
+                }
+                // The component's bitmap index drops patients without any reading of it before scanning
+                candidates = and(candidates, component.patients.toLongArray());
+                int since = predicate.withinDays() == null ? Integer.MIN_VALUE : current - predicate.withinDays() * 86_400;
+                Matcher matcher = new Matcher(predicate);
+                if (predicate.mode() == CohortQuery.Mode.ANY) {
+                    candidates = anyRow(component, candidates, since, matcher, pool);
+                } else {
+                    candidates = filterSlots(candidates, slot -> {
+                        int row = component.latest[slot];
+                        return row >= 0 && component.time[row] >= since && matcher.test(component, row);
+                    }, pool);
+                }
+                if (BitSet.valueOf(candidates).isEmpty()) {
+                    return new long[0];
+                }
+            }
+        }
+        BitSet matching = BitSet.valueOf(candidates);
+        long[] result = new long[matching.cardinality()];
+        int n = 0;
+        for (int slot = matching.nextSetBit(0); slot >= 0; slot = matching.nextSetBit(slot + 1)) {
+            result[n++] = ids[slot];
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private int slotOf(long id) {
+        Integer slot = slotById.get(id);
+        if (slot != null) {
+            return slot;
+        }
+        if (slots == ids.length) {
+            ids = Arrays.copyOf(ids, slots * 2);
+            ages = Arrays.copyOf(ages, slots * 2);
+        }
+        ids[slots] = id;
+        slotById.put(id, slots);
+        return slots++;
+    }
+
+    private static long[] and(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] & b[i];
+        }
+        return result;
+    }
+
+    // Candidate slots passing the test, scanned in 64-slot words split across fork-join tasks
+    private static long[] filterSlots(long[] candidates, IntPredicate test, ForkJoinPool pool) {
+        long[] result = new long[candidates.length];
+        pool.invoke(new SlotScan(candidates, result, 0, candidates.length, test));
+        return result;
+    }
+
+    // Candidate slots with a live matching row since the given time; rows are split across fork-join tasks
+    private static long[] anyRow(Component component, long[] candidates, int since, Matcher matcher, ForkJoinPool pool) {
+        AtomicLongArray found = new AtomicLongArray(candidates.length);
+        pool.invoke(new RowScan(component, candidates, found, since, matcher, 0, component.size));
+        long[] result = new long[candidates.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = found.get(i);
+        }
+        return result;
+    }
+
+    private static final class SlotScan extends RecursiveAction {
+
+        private final long[] candidates;
+        private final long[] result;
+        private final int from;
+        private final int to;
+        private final IntPredicate test;
+
+        SlotScan(long[] candidates, long[] result, int from, int to, IntPredicate test) {
+            this.candidates = candidates;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+            this.test = test;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF / 64) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SlotScan(candidates, result, from, middle, test), new SlotScan(candidates, result, middle, to, test));
+                return;
+            }
+            for (int word = from; word < to; word++) {
+                long bits = candidates[word];
+                long kept = 0;
+                while (bits != 0) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    if (test.test(word * 64 + bit)) {
+                        kept |= 1L << bit;
+                    }
+                    bits &= bits - 1;
+                }
+                result[word] = kept;
+            }
+        }
+    }
+
+    private static final class RowScan extends RecursiveAction {
+
+        private final Component component;
+        private final long[] candidates;
+        private final AtomicLongArray found;
+        private final int since;
+        private final Matcher matcher;
+        private final int from;
+        private final int to;
+
+        RowScan(Component component, long[] candidates, AtomicLongArray found, int since, Matcher matcher, int from, int to) {
+            this.component = component;
+            this.candidates = candidates;
+            this.found = found;
+            this.since = since;
+            this.matcher = matcher;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowScan(component, candidates, found, since, matcher, from, middle),
+                        new RowScan(component, candidates, found, since, matcher, middle, to));
+                return;
+            }
+            int[] patient = component.patient;
+            int[] time = component.time;
+            for (int row = component.liveRows.nextSetBit(from); row >= 0 && row < to; row = component.liveRows.nextSetBit(row + 1)) {
+                int slot = patient[row];
+                int word = slot >>> 6;
+                long bit = 1L << slot;
+                if (time[row] >= since && word < candidates.length && (candidates[word] & bit) != 0
+                        && (found.get(word) & bit) == 0 && matcher.test(component, row)) {
+                    found.getAndAccumulate(word, bit, (a, b) -> a | b);
+                }
+            }
+        }
+    }
+
+    // One measure of a row compared with a value, in float as the values are held
+    private static final class Matcher {
+
+        private final CohortQuery.Measure measure;
+        private final CohortQuery.Op op;
+        private final float value;
+
+        Matcher(CohortQuery.ReadingPredicate predicate) {
+            this.measure = predicate.measure() == null ? CohortQuery.Measure.VALUE : predicate.measure();
+            this.op = predicate.op();
+            this.value = predicate.value().floatValue();
+        }
+
+        boolean test(Component component, int row) {
+            float actual = switch (measure) {
+                case VALUE -> component.value[row];
+                // Pairs hold the systolic value in value and the diastolic one in diastolic
+                case SYSTOLIC -> Float.isNaN(component.diastolic[row]) ? Float.NaN : component.value[row];
+                case DIASTOLIC -> component.diastolic[row];
+            };
+            return switch (op) {
+                case GT -> actual > value;
+                case GE -> actual >= value;
+                case LT -> actual < value;
+                case LE -> actual <= value;
+                case EQ -> actual == value;
+            };
+        }
+    }
+
+    // The rows of one component
+    private static final class Component {
+
+        int[] patient = new int[1024];
+        int[] time = new int[1024];
+        long[] id = new long[1024];
+        float[] value = new float[1024];
+        float[] diastolic = new float[1024];
+        // Previous row of the same patient slot, -1 at the end of the chain
+        int[] previous = new int[1024];
+        int size;
+        final BitSet liveRows = new BitSet();
+
+        // Per patient slot, -1 for none: the last row appended and the row of the latest reading
+        int[] head = new int[0];
+        int[] latest = new int[0];
+        // Patient slots with a live row
+        final BitSet patients = new BitSet();
+
+        void append(int slot, int measured, long readingId, float numeric, float secondValue) {
+            if (size == patient.length) {
+                int capacity = size * 2;
+                patient = Arrays.copyOf(patient, capacity);
+                time = Arrays.copyOf(time, capacity);
+                id = Arrays.copyOf(id, capacity);
+                value = Arrays.copyOf(value, capacity);
+                diastolic = Arrays.copyOf(diastolic, capacity);
+                previous = Arrays.copyOf(previous, capacity);
+            }
+            if (slot >= head.length) {
+                int capacity = Math.max(slot + 1, head.length * 2);
+                int from = head.length;
+                head = Arrays.copyOf(head, capacity);
+                latest = Arrays.copyOf(latest, capacity);
+                Arrays.fill(head, from, capacity, -1);
+                Arrays.fill(latest, from, capacity, -1);
+            }
+            int row = size++;
+            patient[row] = slot;
+            time[row] = measured;
+            id[row] = readingId;
+            value[row] = numeric;
+            diastolic[row] = secondValue;
+            previous[row] = head[slot];
+            head[slot] = row;
+            liveRows.set(row);
+            patients.set(slot);
+            if (latest[slot] < 0 || newer(row, latest[slot])) {
+                latest[slot] = row;
+            }
+        }
+
+        // The live row of the reading, or -1
+        int find(int slot, long readingId) {
+            if (slot >= head.length) {
+                return -1;
+            }
+            for (int row = head[slot]; row >= 0; row = previous[row]) {
+                if (id[row] == readingId && liveRows.get(row)) {
+                    return row;
+                }
+            }
+            return -1;
+        }
+
+        void kill(int row) {
+            liveRows.clear(row);
+            int slot = patient[row];
+            if (latest[slot] != row) {
+                return;
+            }
+            int best = -1;
+            for (int other = head[slot]; other >= 0; other = previous[other]) {
+                if (liveRows.get(other) && (best < 0 || newer(other, best))) {
+                    best = other;
+                }
+            }
+            latest[slot] = best;
+            if (best < 0) {
+                patients.clear(slot);
+            }
+        }
+
+        private boolean newer(int a, int b) {
+            return time[a] > time[b] || (time[a] == time[b] && id[a] > id[b]);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package main.java.com.example.demo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import main.java.com.example.demo.model.Patient;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+// Enables @Cacheable lookups (Spring caches configured by spring.cache.*) and supplies the Hibernate second-level
+// cache: a Caffeine JCache manager whose regions are created here with the clinical.cache.* bounds, so a region
+// Hibernate asks for that is not configured fails startup instead of growing unbounded.
+@Configuration
+@EnableCaching
+public class CachingConfig {
+
+    @Bean
+    public CacheManager secondLevelCacheManager(@Value("${clinical.cache.patient.max-size:100000}") long patientMaxSize,
+                                                @Value("${clinical.cache.patient.ttl-seconds:600}") long patientTtlSeconds) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        if (cacheManager.getCache(Patient.CACHE_REGION) == null) {
+            CaffeineConfiguration<Object, Object> region = new CaffeineConfiguration<>();
+            region.setMaximumSize(OptionalLong.of(patientMaxSize));
+            region.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(patientTtlSeconds)));
+            region.setStatisticsEnabled(true);
+            cacheManager.createCache(Patient.CACHE_REGION, region);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+}
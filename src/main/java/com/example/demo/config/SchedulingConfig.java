@@ -0,0 +1,10 @@
+package main.java.com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled maintenance jobs (partition management and the like)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,31 +1,148 @@
 package main.java.com.example.demo.controller;
 
+import com.fasterxml.jackson.core.JacksonException;
+import jakarta.servlet.http.HttpServletRequest;
+import main.java.com.example.demo.alert.Alert;
+import main.java.com.example.demo.alert.AlertEngine;
+import main.java.com.example.demo.alert.AlertRule;
+import main.java.com.example.demo.analytics.BucketSize;
+import main.java.com.example.demo.analytics.Downsampler;
+import main.java.com.example.demo.archive.ClinicalDataArchive;
+import main.java.com.example.demo.archive.ClinicalDataArchiver;
+import main.java.com.example.demo.cache.LatestVitalsCache;
+import main.java.com.example.demo.counter.ClinicalCounters;
+import main.java.com.example.demo.dto.AggregateBucket;
+import main.java.com.example.demo.dto.BulkItemResult;
+import main.java.com.example.demo.dto.ClinicalDataRequest;
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.dto.CursorPage;
+import main.java.com.example.demo.dto.DownsampledSeries;
+import main.java.com.example.demo.dto.KeysetCursor;
+import main.java.com.example.demo.export.ClinicalDataExporter;
+import main.java.com.example.demo.export.ExportFilter;
+import main.java.com.example.demo.export.ExportFormat;
+import main.java.com.example.demo.ingest.BulkImporter;
+import main.java.com.example.demo.ingest.ImportFormat;
+import main.java.com.example.demo.ingest.WriteBehindIngestor;
 import main.java.com.example.demo.model.ClinicalData;
 import main.java.com.example.demo.model.Patient;
+import main.java.com.example.demo.partition.ClinicalDataPartition;
+import main.java.com.example.demo.partition.ClinicalDataPartitionManager;
+import main.java.com.example.demo.push.ReadingFanoutHub;
+import main.java.com.example.demo.replica.ReplicaRouter;
 import main.java.com.example.demo.repository.ClinicalDataRepository;
 import main.java.com.example.demo.repository.PatientRepository;
+import main.java.com.example.demo.service.ClinicalDataIngestService;
+import main.java.com.example.demo.service.ClinicalDataWriteService;
+import main.java.com.example.demo.service.ComponentNameService;
+import main.java.com.example.demo.service.DownsamplingService;
+import main.java.com.example.demo.service.JsonStreamWriter;
+import main.java.com.example.demo.service.MeasurementBackfillService;
+import main.java.com.example.demo.service.PatientViewService;
+import main.java.com.example.demo.service.VitalsAggregationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/clinical-data")
 @CrossOrigin(origins = "*")
 public class ClinicalDataController {
 
+    // Patients one push subscription may watch (a ward screen shows a few dozen)
+    private static final int MAX_SUBSCRIBED_PATIENTS = 1000;
+
     @Autowired
     private ClinicalDataRepository clinicalDataRepository;
 
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private JsonStreamWriter jsonStreamWriter;
+
+    @Autowired
+    private MeasurementBackfillService measurementBackfillService;
+
+    @Autowired
+    private VitalsAggregationService vitalsAggregationService;
+
+    @Autowired
+    private DownsamplingService downsamplingService;
+
+    @Autowired
+    private ClinicalDataIngestService clinicalDataIngestService;
+
+    @Autowired
+    private LatestVitalsCache latestVitalsCache;
+
+    @Autowired
+    private ClinicalDataWriteService clinicalDataWriteService;
+
+    @Autowired
+    private ReadingFanoutHub readingFanoutHub;
+
+    @Autowired
+    private PatientViewService patientViewService;
+
+    @Autowired
+    private ClinicalDataExporter clinicalDataExporter;
+
+    @Autowired
+    private ComponentNameService componentNameService;
+
+    // Present only when clinical.ingest.write-behind.enabled=true
+    @Autowired(required = false)
+    private WriteBehindIngestor writeBehindIngestor;
+
+    // Present only when clinical.import.enabled=true
+    @Autowired(required = false)
+    private BulkImporter bulkImporter;
+
+    // Absent when clinical.partitioning.enabled=false
+    @Autowired(required = false)
+    private ClinicalDataPartitionManager partitionManager;
+
+    @Autowired
+    private ClinicalDataArchive clinicalDataArchive;
+
+    // Present only when clinical.archive.enabled=true
+    @Autowired(required = false)
+    private ClinicalDataArchiver clinicalDataArchiver;
+
+    // Absent when clinical.counters.enabled=false
+    @Autowired(required = false)
+    private ClinicalCounters clinicalCounters;
+
+    // Absent when clinical.alerts.enabled=false
+    @Autowired(required = false)
+    private AlertEngine alertEngine;
+
+    // Present only when clinical.replicas.enabled=true
+    @Autowired(required = false)
+    private ReplicaRouter replicaRouter;
+
     // GET all clinical data
     @GetMapping
     public ResponseEntity<List<ClinicalData>> getAllClinicalData() {
@@ -118,20 +235,135 @@ public class ClinicalDataController {
         }
     }
 
+    // GET clinical data by component name with a parsed value in range (measure = value, systolic or diastolic)
+    @GetMapping("/component/{componentName}/value-range")
+    public ResponseEntity<List<ClinicalData>> getClinicalDataByValueRange(
+            @PathVariable("componentName") String componentName,
+            @RequestParam("min") double min,
+            @RequestParam("max") double max,
+            @RequestParam(value = "measure", defaultValue = "value") String measure) {
+        try {
+            List<ClinicalData> clinicalData;
+            switch (measure) {
+                case "value" -> clinicalData = clinicalDataRepository.findByComponentNameAndNumericValueBetween(componentName, min, max);
+                case "systolic" -> clinicalData = clinicalDataRepository.findByComponentNameAndSystolicValueBetween(componentName, min, max);
+                case "diastolic" -> clinicalData = clinicalDataRepository.findByComponentNameAndDiastolicValueBetween(componentName, min, max);
+                default -> {
+                    return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+                }
+            }
+            if (clinicalData.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(clinicalData, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET per-bucket count/min/max/mean/p50/p95 for a patient and component
+    // (bucket = minute, hour, day, week or all; measure = value, systolic or diastolic)
+    @GetMapping("/patient/{patientId}/component/{componentName}/aggregate")
+    public ResponseEntity<List<AggregateBucket>> aggregateClinicalDataByPatientIdAndComponentName(
+            @PathVariable("patientId") Long patientId,
+            @PathVariable("componentName") String componentName,
+            @RequestParam(value = "bucket", defaultValue = "hour") String bucket,
+            @RequestParam(value = "measure", defaultValue = "value") String measure,
+            @RequestParam(value = "startDate", required = false) String startDateStr,
+            @RequestParam(value = "endDate", required = false) String endDateStr) {
+        try {
+            List<AggregateBucket> buckets = vitalsAggregationService.aggregatePatient(patientId, componentName, measure,
+                    BucketSize.of(bucket), parseOptionalDateTime(startDateStr), parseOptionalDateTime(endDateStr));
+            if (buckets.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(buckets, HttpStatus.OK);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET a patient's component series reduced to at most `points` points for charting
+    // (method = lttb or minmax; measure = value, systolic or diastolic)
+    @GetMapping("/patient/{patientId}/component/{componentName}/downsample")
+    public ResponseEntity<DownsampledSeries> downsampleClinicalDataByPatientIdAndComponentName(
+            @PathVariable("patientId") Long patientId,
+            @PathVariable("componentName") String componentName,
+            @RequestParam(value = "points", defaultValue = "1000") int points,
+            @RequestParam(value = "method", defaultValue = "lttb") String method,
+            @RequestParam(value = "measure", defaultValue = "value") String measure,
+            @RequestParam(value = "startDate", required = false) String startDateStr,
+            @RequestParam(value = "endDate", required = false) String endDateStr) {
+        try {
+            DownsampledSeries series = downsamplingService.downsample(patientId, componentName, measure, Downsampler.of(method),
+                    points, parseOptionalDateTime(startDateStr), parseOptionalDateTime(endDateStr));
+            if (series.points().isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(series, HttpStatus.OK);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET per-bucket statistics for a component across a cohort (patient IDs and/or age range; none means all patients)
+    @GetMapping("/component/{componentName}/aggregate")
+    public ResponseEntity<List<AggregateBucket>> aggregateClinicalDataByCohort(
+            @PathVariable("componentName") String componentName,
+            @RequestParam(value = "patientIds", required = false) List<Long> patientIds,
+            @RequestParam(value = "minAge", required = false) Integer minAge,
+            @RequestParam(value = "maxAge", required = false) Integer maxAge,
+            @RequestParam(value = "bucket", defaultValue = "day") String bucket,
+            @RequestParam(value = "measure", defaultValue = "value") String measure,
+            @RequestParam(value = "startDate", required = false) String startDateStr,
+            @RequestParam(value = "endDate", required = false) String endDateStr) {
+        try {
+            List<AggregateBucket> buckets = vitalsAggregationService.aggregateCohort(patientIds, minAge, maxAge, componentName, measure,
+                    BucketSize.of(bucket), parseOptionalDateTime(startDateStr), parseOptionalDateTime(endDateStr));
+            if (buckets.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(buckets, HttpStatus.OK);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // GET latest clinical data by patient ID
     @GetMapping("/patient/{patientId}/latest")
-    public ResponseEntity<List<ClinicalData>> getLatestClinicalDataByPatientId(@PathVariable("patientId") Long patientId) {
+    public ResponseEntity<List<ClinicalReading>> getLatestClinicalDataByPatientId(@PathVariable("patientId") Long patientId) {
         try {
-            Optional<Patient> patient = patientRepository.findById(patientId);
-            if (!patient.isPresent()) {
+            Map<String, ClinicalReading> latest = latestVitalsCache.getOrLoad(patientId, this::loadLatestReadings);
+            if (latest == null) {
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
             }
-            
-            List<ClinicalData> clinicalData = clinicalDataRepository.findLatestClinicalDataByPatient(patient.get());
-            if (clinicalData.isEmpty()) {
+            if (latest.isEmpty()) {
                 return new ResponseEntity<>(HttpStatus.NO_CONTENT);
             }
-            return new ResponseEntity<>(clinicalData, HttpStatus.OK);
+            return new ResponseEntity<>(new ArrayList<>(latest.values()), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET latest clinical data for many patients in one call, keyed by patient ID (unknown patients omitted)
+    @GetMapping("/latest")
+    public ResponseEntity<Map<Long, List<ClinicalReading>>> getLatestClinicalDataByPatientIds(
+            @RequestParam("patientIds") List<Long> patientIds) {
+        try {
+            Map<Long, List<ClinicalReading>> latest = patientViewService.latestVitals(patientIds);
+            if (latest.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(latest, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -139,11 +371,12 @@ public class ClinicalDataController {
 
     // GET latest clinical data by patient ID and component name
     @GetMapping("/patient/{patientId}/component/{componentName}/latest")
-    public ResponseEntity<ClinicalData> getLatestClinicalDataByPatientIdAndComponentName(
+    public ResponseEntity<ClinicalReading> getLatestClinicalDataByPatientIdAndComponentName(
             @PathVariable("patientId") Long patientId,
             @PathVariable("componentName") String componentName) {
         try {
-            ClinicalData clinicalData = clinicalDataRepository.findLatestByPatientIdAndComponentName(patientId, componentName);
+            Map<String, ClinicalReading> latest = latestVitalsCache.getOrLoad(patientId, this::loadLatestReadings);
+            ClinicalReading clinicalData = latest != null ? latest.get(componentName) : null;
             if (clinicalData == null) {
                 return new ResponseEntity<>(HttpStatus.NO_CONTENT);
             }
@@ -171,33 +404,117 @@ public class ClinicalDataController {
                 clinicalData.setMeasuredDateTime(LocalDateTime.now());
             }
             
-            ClinicalData savedClinicalData = clinicalDataRepository.save(clinicalData);
+            ClinicalData savedClinicalData = clinicalDataWriteService.create(clinicalData);
             return new ResponseEntity<>(savedClinicalData, HttpStatus.CREATED);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // POST create many clinical data readings from a JSON array
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkItemResult>> createClinicalDataBulk(@RequestBody List<ClinicalDataRequest> readings) {
+        try {
+            return bulkResponse(clinicalDataIngestService.ingest(readings));
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // POST create many clinical data readings from NDJSON (one reading per line)
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    public ResponseEntity<List<BulkItemResult>> createClinicalDataBulkNdjson(HttpServletRequest request) {
+        try {
+            return bulkResponse(clinicalDataIngestService.ingestNdjson(request.getInputStream()));
+        } catch (JacksonException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // POST accept a reading for asynchronous write-behind (202), or 429 when the ingest queue is full
+    @PostMapping("/async")
+    public ResponseEntity<HttpStatus> createClinicalDataAsync(@RequestBody ClinicalDataRequest reading) {
+        if (reading.validate() != null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return acceptAsync(List.of(reading));
+    }
+
+    // POST accept many readings for asynchronous write-behind; all are accepted or none are
+    @PostMapping("/bulk/async")
+    public ResponseEntity<HttpStatus> createClinicalDataBulkAsync(@RequestBody List<ClinicalDataRequest> readings) {
+        if (readings.stream().anyMatch(r -> r == null || r.validate() != null)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return acceptAsync(readings);
+    }
+
+    // GET write-behind queue statistics
+    @GetMapping("/async/stats")
+    public ResponseEntity<WriteBehindIngestor.Stats> getAsyncIngestStats() {
+        if (writeBehindIngestor == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(writeBehindIngestor.stats(), HttpStatus.OK);
+    }
+
+    // POST start importing a CSV or NDJSON file from clinical.import.dir (format defaults to the file extension).
+    // A file imported before resumes from its checkpoint; resume=false imports it again from the start.
+    @PostMapping("/import")
+    public ResponseEntity<BulkImporter.Status> startImport(
+            @RequestParam("file") String file,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "resume", defaultValue = "true") boolean resume) {
+        if (bulkImporter == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        try {
+            ImportFormat importFormat = format == null || format.isEmpty() ? ImportFormat.forFile(file) : ImportFormat.of(format);
+            return new ResponseEntity<>(bulkImporter.start(file, importFormat, resume), HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET progress of the running import, or the outcome of the last one
+    @GetMapping("/import")
+    public ResponseEntity<BulkImporter.Status> getImportStatus() {
+        if (bulkImporter == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        BulkImporter.Status status = bulkImporter.status();
+        if (status == null) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(status, HttpStatus.OK);
+    }
+
+    // DELETE cancel the running import once its current chunks are written; POST /import resumes it
+    @DeleteMapping("/import")
+    public ResponseEntity<BulkImporter.Status> cancelImport() {
+        if (bulkImporter == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        BulkImporter.Status status = bulkImporter.cancel();
+        if (status == null) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(status, HttpStatus.ACCEPTED);
+    }
+
     // PUT update clinical data
     @PutMapping("/{id}")
     public ResponseEntity<ClinicalData> updateClinicalData(@PathVariable("id") Long id, @RequestBody ClinicalData clinicalData) {
-        Optional<ClinicalData> clinicalDataOptional = clinicalDataRepository.findById(id);
+        Optional<ClinicalData> updatedClinicalData = clinicalDataWriteService.update(id, clinicalData);
         
-        if (clinicalDataOptional.isPresent()) {
-            ClinicalData existingClinicalData = clinicalDataOptional.get();
-            existingClinicalData.setComponentName(clinicalData.getComponentName());
-            existingClinicalData.setComponentValue(clinicalData.getComponentValue());
-            existingClinicalData.setMeasuredDateTime(clinicalData.getMeasuredDateTime());
-            
-            // Update patient if provided
-            if (clinicalData.getPatient() != null && clinicalData.getPatient().getId() != null) {
-                Optional<Patient> patient = patientRepository.findById(clinicalData.getPatient().getId());
-                if (patient.isPresent()) {
-                    existingClinicalData.setPatient(patient.get());
-                }
-            }
-            
-            return new ResponseEntity<>(clinicalDataRepository.save(existingClinicalData), HttpStatus.OK);
+        if (updatedClinicalData.isPresent()) {
+            return new ResponseEntity<>(updatedClinicalData.get(), HttpStatus.OK);
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -207,7 +524,7 @@ public class ClinicalDataController {
     @DeleteMapping("/{id}")
     public ResponseEntity<HttpStatus> deleteClinicalData(@PathVariable("id") Long id) {
         try {
-            clinicalDataRepository.deleteById(id);
+            clinicalDataWriteService.delete(id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -218,18 +535,30 @@ public class ClinicalDataController {
     @DeleteMapping
     public ResponseEntity<HttpStatus> deleteAllClinicalData() {
         try {
-            clinicalDataRepository.deleteAll();
+            clinicalDataWriteService.deleteAll();
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    // GET distinct component names
+    // POST backfill parsed numeric values for rows written before they were stored
+    @PostMapping("/measurements/backfill")
+    public ResponseEntity<Long> backfillMeasurements() {
+        try {
+            return new ResponseEntity<>(measurementBackfillService.backfill(), HttpStatus.OK);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET distinct component names (hot tier only, see ComponentNameService)
     @GetMapping("/components")
     public ResponseEntity<List<String>> getDistinctComponentNames() {
         try {
-            List<String> componentNames = clinicalDataRepository.findDistinctComponentNames();
+            List<String> componentNames = componentNameService.componentNames();
             if (componentNames.isEmpty()) {
                 return new ResponseEntity<>(HttpStatus.NO_CONTENT);
             }
@@ -243,7 +572,7 @@ public class ClinicalDataController {
     @GetMapping("/patient/{patientId}/components")
     public ResponseEntity<List<String>> getDistinctComponentNamesByPatientId(@PathVariable("patientId") Long patientId) {
         try {
-            List<String> componentNames = clinicalDataRepository.findDistinctComponentNamesByPatientId(patientId);
+            List<String> componentNames = componentNameService.componentNamesOfPatient(patientId);
             if (componentNames.isEmpty()) {
                 return new ResponseEntity<>(HttpStatus.NO_CONTENT);
             }
@@ -253,14 +582,440 @@ public class ClinicalDataController {
         }
     }
 
-    // GET count of clinical data by patient ID
+    // GET server-sent events with new readings for a set of patients and/or components instead of polling /latest.
+    // Starts with the current latest readings of the requested patients, then pushes changes as they commit.
+    @GetMapping(value = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToClinicalData(
+            @RequestParam(value = "patientIds", required = false) List<Long> patientIds,
+            @RequestParam(value = "components", required = false) List<String> componentNames) {
+        Set<Long> patients = patientIds == null ? Set.of() : new HashSet<>(patientIds);
+        Set<String> components = componentNames == null ? Set.of() : new HashSet<>(componentNames);
+        if (patients.size() > MAX_SUBSCRIBED_PATIENTS) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            List<ClinicalReading> initial = new ArrayList<>();
+            for (Long patientId : patients) {
+                Map<String, ClinicalReading> latest = latestVitalsCache.getOrLoad(patientId, this::loadLatestReadings);
+                if (latest != null) {
+                    initial.addAll(latest.values());
+                }
+            }
+            SseEmitter emitter = readingFanoutHub.subscribe(patients, components, initial);
+            if (emitter == null) {
+                return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return new ResponseEntity<>(emitter, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET fan-out statistics of push subscriptions
+    @GetMapping("/subscribe/stats")
+    public ResponseEntity<ReadingFanoutHub.Stats> getSubscriptionStats() {
+        return new ResponseEntity<>(readingFanoutHub.stats(), HttpStatus.OK);
+    }
+
+    // GET recent alerts, newest first; after=<sequence> returns only alerts raised since that one
+    @GetMapping("/alerts")
+    public ResponseEntity<List<Alert>> getAlerts(
+            @RequestParam(value = "patientId", required = false) Long patientId,
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (alertEngine == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (limit < 1) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        List<Alert> alerts = alertEngine.recent(patientId, after, Math.min(limit, 1000));
+        if (alerts.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(alerts, HttpStatus.OK);
+    }
+
+    // GET the alerting rules in force
+    @GetMapping("/alerts/rules")
+    public ResponseEntity<List<AlertRule>> getAlertRules() {
+        if (alertEngine == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(alertEngine.rules(), HttpStatus.OK);
+    }
+
+    // PUT replace the alerting rules until the next restart; every patient's alerting state starts afresh
+    @PutMapping("/alerts/rules")
+    public ResponseEntity<List<AlertRule>> replaceAlertRules(@RequestBody List<AlertRule> rules) {
+        if (alertEngine == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        try {
+            alertEngine.replaceRules(rules);
+            return new ResponseEntity<>(alertEngine.rules(), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // GET alert evaluation statistics
+    @GetMapping("/alerts/stats")
+    public ResponseEntity<AlertEngine.Stats> getAlertStats() {
+        if (alertEngine == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(alertEngine.stats(), HttpStatus.OK);
+    }
+
+    // GET health and lag of each read replica
+    @GetMapping("/replicas")
+    public ResponseEntity<List<ReplicaRouter.ReplicaStatus>> getReplicas() {
+        if (replicaRouter == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(replicaRouter.replicas(), HttpStatus.OK);
+    }
+
+    // GET where read-only transactions went: replicas, the primary for read-your-writes, or the primary as fallback
+    @GetMapping("/replicas/stats")
+    public ResponseEntity<ReplicaRouter.Stats> getReplicaStats() {
+        if (replicaRouter == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(replicaRouter.stats(), HttpStatus.OK);
+    }
+
+    // GET hit/miss statistics of the latest-vitals cache
+    @GetMapping("/cache/latest/stats")
+    public ResponseEntity<LatestVitalsCache.Stats> getLatestCacheStats() {
+        return new ResponseEntity<>(latestVitalsCache.stats(), HttpStatus.OK);
+    }
+
+    // POST move readings older than clinical.archive.after-months to the archive tier
+    @PostMapping("/archive")
+    public ResponseEntity<Long> archiveClinicalData() {
+        if (clinicalDataArchiver == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        try {
+            return new ResponseEntity<>(clinicalDataArchiver.archive(), HttpStatus.OK);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET size of the archive tier
+    @GetMapping("/archive/stats")
+    public ResponseEntity<ClinicalDataArchive.Stats> getArchiveStats() {
+        return new ResponseEntity<>(clinicalDataArchive.stats(), HttpStatus.OK);
+    }
+
+    // GET clinicaldata partitions, or with startDate and endDate the partitions a date-range query reads
+    @GetMapping("/partitions")
+    public ResponseEntity<?> getPartitions(
+            @RequestParam(value = "startDate", required = false) String startDateStr,
+            @RequestParam(value = "endDate", required = false) String endDateStr) {
+        if (partitionManager == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        try {
+            if (startDateStr != null && endDateStr != null) {
+                List<String> scanned = partitionManager.partitionsScanned(parseDateTime(startDateStr), parseDateTime(endDateStr));
+                return new ResponseEntity<>(scanned, HttpStatus.OK);
+            }
+            List<ClinicalDataPartition> partitions = partitionManager.partitions();
+            if (partitions.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(partitions, HttpStatus.OK);
+        } catch (DateTimeParseException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET count of clinical data by patient ID (hot tier only, see ClinicalCounters)
     @GetMapping("/patient/{patientId}/count")
     public ResponseEntity<Long> countClinicalDataByPatientId(@PathVariable("patientId") Long patientId) {
         try {
-            long count = clinicalDataRepository.countByPatientId(patientId);
+            long count = countersReady() ? clinicalCounters.readingsOfPatient(patientId) : clinicalDataRepository.countByPatientId(patientId);
+            return new ResponseEntity<>(count, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET count of clinical data by component name (hot tier only, see ClinicalCounters)
+    @GetMapping("/component/{componentName}/count")
+    public ResponseEntity<Long> countClinicalDataByComponentName(@PathVariable("componentName") String componentName) {
+        try {
+            long count = countersReady() ? clinicalCounters.readingsOfComponent(componentName) : clinicalDataRepository.countByComponentName(componentName);
             return new ResponseEntity<>(count, HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    // GET count of clinical data per component name
+    @GetMapping("/count/component")
+    public ResponseEntity<Map<String, Long>> getComponentHistogram() {
+        if (clinicalCounters == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (!clinicalCounters.isReady()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        Map<String, Long> histogram = clinicalCounters.componentHistogram();
+        if (histogram.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(histogram, HttpStatus.OK);
+    }
+
+    // GET state of the maintained counters behind the count endpoints
+    @GetMapping("/count/stats")
+    public ResponseEntity<ClinicalCounters.Stats> getCounterStats() {
+        if (clinicalCounters == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(clinicalCounters.stats(), HttpStatus.OK);
+    }
+
+    // GET count of clinical data for many patients in one call, keyed by patient ID (unknown patients omitted)
+    @GetMapping("/count")
+    public ResponseEntity<Map<Long, Long>> countClinicalDataByPatientIds(@RequestParam("patientIds") List<Long> patientIds) {
+        try {
+            Map<Long, Long> counts = patientViewService.clinicalDataCounts(patientIds);
+            if (counts.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(counts, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET page of all clinical data (keyset on id)
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<ClinicalData>> getClinicalDataPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return pageById(cursor, limit, (afterId, max) -> clinicalDataRepository.findByIdGreaterThanOrderByIdAsc(afterId, max));
+    }
+
+    // GET page of clinical data by patient ID (keyset on id)
+    @GetMapping("/patient/{patientId}/page")
+    public ResponseEntity<CursorPage<ClinicalData>> getClinicalDataPageByPatientId(
+            @PathVariable("patientId") Long patientId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return pageById(cursor, limit, (afterId, max) -> clinicalDataRepository.findByPatientIdAndIdGreaterThanOrderByIdAsc(patientId, afterId, max));
+    }
+
+    // GET page of clinical data by component name (keyset on id)
+    @GetMapping("/component/{componentName}/page")
+    public ResponseEntity<CursorPage<ClinicalData>> getClinicalDataPageByComponentName(
+            @PathVariable("componentName") String componentName,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return pageById(cursor, limit, (afterId, max) -> clinicalDataRepository.findByComponentNameAndIdGreaterThanOrderByIdAsc(componentName, afterId, max));
+    }
+
+    // GET page of clinical data by component name and patient ID (keyset on id)
+    @GetMapping("/patient/{patientId}/component/{componentName}/page")
+    public ResponseEntity<CursorPage<ClinicalData>> getClinicalDataPageByPatientIdAndComponentName(
+            @PathVariable("patientId") Long patientId,
+            @PathVariable("componentName") String componentName,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return pageById(cursor, limit, (afterId, max) ->
+                clinicalDataRepository.findByComponentNameAndPatientIdAndIdGreaterThanOrderByIdAsc(componentName, patientId, afterId, max));
+    }
+
+    // GET page of clinical data by date range (keyset on measuredDateTime, id)
+    @GetMapping("/date-range/page")
+    public ResponseEntity<CursorPage<ClinicalData>> getClinicalDataPageByDateRange(
+            @RequestParam("startDate") String startDateStr,
+            @RequestParam("endDate") String endDateStr,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        try {
+            LocalDateTime startDate = parseDateTime(startDateStr);
+            LocalDateTime endDate = parseDateTime(endDateStr);
+            KeysetCursor after = KeysetCursor.decode(cursor, startDate);
+            int size = CursorPage.clampLimit(limit);
+
+            List<ClinicalData> clinicalData = clinicalDataRepository.findByMeasuredDateTimeBetweenAfter(
+                    startDate, endDate, after.measuredDateTime(), after.id(), Limit.of(size + 1));
+            CursorPage<ClinicalData> page = CursorPage.of(clinicalData, size,
+                    c -> KeysetCursor.encode(c.getMeasuredDateTime(), c.getId()));
+            if (page.items().isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET all clinical data as a stream (format=ndjson by default, format=json for a chunked JSON array)
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllClinicalData(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        return stream(() -> clinicalDataRepository.streamAll(), format);
+    }
+
+    // GET clinical data by patient ID as a stream
+    @GetMapping("/patient/{patientId}/stream")
+    public ResponseEntity<StreamingResponseBody> streamClinicalDataByPatientId(
+            @PathVariable("patientId") Long patientId,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        return stream(() -> clinicalDataRepository.streamByPatientIdOrderByIdAsc(patientId), format);
+    }
+
+    // GET clinical data by component name as a stream
+    @GetMapping("/component/{componentName}/stream")
+    public ResponseEntity<StreamingResponseBody> streamClinicalDataByComponentName(
+            @PathVariable("componentName") String componentName,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        return stream(() -> clinicalDataRepository.streamByComponentNameOrderByIdAsc(componentName), format);
+    }
+
+    // GET clinical data by component name and patient ID as a stream
+    @GetMapping("/patient/{patientId}/component/{componentName}/stream")
+    public ResponseEntity<StreamingResponseBody> streamClinicalDataByPatientIdAndComponentName(
+            @PathVariable("patientId") Long patientId,
+            @PathVariable("componentName") String componentName,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        return stream(() -> clinicalDataRepository.streamByComponentNameAndPatientIdOrderByIdAsc(componentName, patientId), format);
+    }
+
+    // GET clinical data by date range as a stream
+    @GetMapping("/date-range/stream")
+    public ResponseEntity<StreamingResponseBody> streamClinicalDataByDateRange(
+            @RequestParam("startDate") String startDateStr,
+            @RequestParam("endDate") String endDateStr,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        try {
+            LocalDateTime startDate = parseDateTime(startDateStr);
+            LocalDateTime endDate = parseDateTime(endDateStr);
+            return stream(() -> clinicalDataRepository.streamByMeasuredDateTimeBetweenOrderByMeasuredDateTimeAscIdAsc(startDate, endDate), format);
+        } catch (DateTimeParseException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // GET bulk export streamed from a JDBC cursor (format=csv|ndjson|columnar); every filter is optional and
+    // archived=false leaves out readings moved to the archive
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportClinicalData(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "patientIds", required = false) List<Long> patientIds,
+            @RequestParam(value = "componentName", required = false) String componentName,
+            @RequestParam(value = "startDate", required = false) String startDateStr,
+            @RequestParam(value = "endDate", required = false) String endDateStr,
+            @RequestParam(value = "archived", defaultValue = "true") boolean archived,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        try {
+            ExportFormat exportFormat = ExportFormat.of(format);
+            ExportFilter filter = new ExportFilter(patientIds == null ? Set.of() : new HashSet<>(patientIds),
+                    componentName == null || componentName.isEmpty() ? null : componentName,
+                    parseOptionalDateTime(startDateStr), parseOptionalDateTime(endDateStr), archived);
+            // The columnar format is compressed already
+            boolean compress = gzip && exportFormat != ExportFormat.COLUMNAR;
+            StreamingResponseBody body = clinicalDataExporter.export(filter, exportFormat, compress);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(compress ? MediaType.parseMediaType("application/gzip") : exportFormat.mediaType());
+            headers.setContentDisposition(ContentDisposition.attachment()
+                    .filename("clinical-data." + exportFormat.extension() + (compress ? ".gz" : "")).build());
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private ResponseEntity<CursorPage<ClinicalData>> pageById(String cursor, int limit,
+                                                              BiFunction<Long, Limit, List<ClinicalData>> query) {
+        try {
+            int size = CursorPage.clampLimit(limit);
+            List<ClinicalData> clinicalData = query.apply(KeysetCursor.decodeId(cursor), Limit.of(size + 1));
+            CursorPage<ClinicalData> page = CursorPage.of(clinicalData, size, c -> KeysetCursor.encodeId(c.getId()));
+            if (page.items().isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private boolean countersReady() {
+        return clinicalCounters != null && clinicalCounters.isReady();
+    }
+
+    private ResponseEntity<HttpStatus> acceptAsync(List<ClinicalDataRequest> readings) {
+        if (writeBehindIngestor == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        try {
+            if (!writeBehindIngestor.offerAll(readings)) {
+                return new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
+            }
+            return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Cache loader for the latest readings of a patient; null when the patient does not exist.
+    // findById rather than existsById: it is answered by the patient second-level cache.
+    private Map<String, ClinicalReading> loadLatestReadings(Long patientId) {
+        if (patientRepository.findById(patientId).isEmpty()) {
+            return null;
+        }
+        Map<String, ClinicalReading> latest = new HashMap<>();
+        for (ClinicalData clinicalData : clinicalDataRepository.findLatestClinicalDataByPatientId(patientId)) {
+            latest.put(clinicalData.getComponentName(), ClinicalReading.from(clinicalData));
+        }
+        return latest;
+    }
+
+    // 201 when every reading was written, 207 when some were rejected or failed
+    private ResponseEntity<List<BulkItemResult>> bulkResponse(List<BulkItemResult> results) {
+        boolean allCreated = results.stream().allMatch(r -> r.status() == BulkItemResult.Status.CREATED);
+        return new ResponseEntity<>(results, allCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+    }
+
+    // 400 for an unknown format, before anything is streamed
+    private ResponseEntity<StreamingResponseBody> stream(Supplier<Stream<ClinicalData>> source, String format) {
+        JsonStreamWriter.Format streamFormat;
+        try {
+            streamFormat = JsonStreamWriter.Format.of(format);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(streamFormat.mediaType());
+        return new ResponseEntity<>(jsonStreamWriter.stream(source, streamFormat), headers, HttpStatus.OK);
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        return LocalDateTime.parse(value, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+    }
+
+    private static LocalDateTime parseOptionalDateTime(String value) {
+        return value == null || value.isEmpty() ? null : parseDateTime(value);
+    }
 }
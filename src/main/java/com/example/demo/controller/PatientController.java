@@ -1,14 +1,30 @@
 package main.java.com.example.demo.controller;
 
+import main.java.com.example.demo.cohort.CohortQuery;
+import main.java.com.example.demo.cohort.CohortResult;
+import main.java.com.example.demo.cohort.CohortService;
+import main.java.com.example.demo.counter.ClinicalCounters;
+import main.java.com.example.demo.dto.CursorPage;
+import main.java.com.example.demo.dto.KeysetCursor;
+import main.java.com.example.demo.dto.PatientOverview;
+import main.java.com.example.demo.dto.PatientSearchHit;
+import main.java.com.example.demo.dto.PatientSummary;
+import main.java.com.example.demo.dto.PatientWithVitals;
 import main.java.com.example.demo.model.Patient;
 import main.java.com.example.demo.repository.PatientRepository;
+import main.java.com.example.demo.search.PatientSearchService;
+import main.java.com.example.demo.service.ClinicalDataWriteService;
+import main.java.com.example.demo.service.PatientViewService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
 
 @RestController
 @RequestMapping("/api/patients")
@@ -18,6 +34,24 @@ public class PatientController {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private ClinicalDataWriteService clinicalDataWriteService;
+
+    @Autowired
+    private PatientViewService patientViewService;
+
+    // Absent when clinical.search.enabled=false
+    @Autowired(required = false)
+    private PatientSearchService patientSearchService;
+
+    // Absent when clinical.counters.enabled=false
+    @Autowired(required = false)
+    private ClinicalCounters clinicalCounters;
+
+    // Absent when clinical.cohort.enabled=false
+    @Autowired(required = false)
+    private CohortService cohortService;
+
     // GET all patients
     @GetMapping
     public ResponseEntity<List<Patient>> getAllPatients() {
@@ -32,6 +66,58 @@ public class PatientController {
         }
     }
 
+    // GET ranked page of patients matching a type-ahead query over names, age and ID
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<PatientSearchHit>> searchPatients(
+            @RequestParam("q") String query,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (patientSearchService == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (!patientSearchService.isReady()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        try {
+            CursorPage<PatientSearchHit> page = patientSearchService.search(query, cursor, limit);
+            if (page.items().isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // POST count and IDs of the patients matching age bounds and reading predicates, from the in-memory snapshot
+    @PostMapping("/cohort")
+    public ResponseEntity<CohortResult> queryCohort(@RequestBody CohortQuery query) {
+        if (cohortService == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (!cohortService.isReady()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        try {
+            return new ResponseEntity<>(cohortService.query(query), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET size and freshness of the cohort snapshot
+    @GetMapping("/cohort/stats")
+    public ResponseEntity<CohortService.Stats> getCohortStats() {
+        if (cohortService == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(cohortService.stats(), HttpStatus.OK);
+    }
+
     // GET patient by ID
     @GetMapping("/{id}")
     public ResponseEntity<Patient> getPatientById(@PathVariable("id") Long id) {
@@ -106,7 +192,7 @@ public class PatientController {
     @PostMapping
     public ResponseEntity<Patient> createPatient(@RequestBody Patient patient) {
         try {
-            Patient savedPatient = patientRepository.save(patient);
+            Patient savedPatient = clinicalDataWriteService.createPatient(patient);
             return new ResponseEntity<>(savedPatient, HttpStatus.CREATED);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -116,15 +202,10 @@ public class PatientController {
     // PUT update patient
     @PutMapping("/{id}")
     public ResponseEntity<Patient> updatePatient(@PathVariable("id") Long id, @RequestBody Patient patient) {
-        Optional<Patient> patientData = patientRepository.findById(id);
+        Optional<Patient> patientData = clinicalDataWriteService.updatePatient(id, patient);
         
         if (patientData.isPresent()) {
-            Patient existingPatient = patientData.get();
-            existingPatient.setFirstName(patient.getFirstName());
-            existingPatient.setLastName(patient.getLastName());
-            existingPatient.setAge(patient.getAge());
-            
-            return new ResponseEntity<>(patientRepository.save(existingPatient), HttpStatus.OK);
+            return new ResponseEntity<>(patientData.get(), HttpStatus.OK);
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -134,7 +215,7 @@ public class PatientController {
     @DeleteMapping("/{id}")
     public ResponseEntity<HttpStatus> deletePatient(@PathVariable("id") Long id) {
         try {
-            patientRepository.deleteById(id);
+            clinicalDataWriteService.deletePatient(id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -145,7 +226,7 @@ public class PatientController {
     @DeleteMapping
     public ResponseEntity<HttpStatus> deleteAllPatients() {
         try {
-            patientRepository.deleteAll();
+            clinicalDataWriteService.deleteAllPatients();
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -166,14 +247,165 @@ public class PatientController {
         }
     }
 
+    // GET patients with clinical data as summaries (patient columns only, one query)
+    @GetMapping("/with-clinical-data/summary")
+    public ResponseEntity<List<PatientSummary>> getPatientSummariesWithClinicalData() {
+        try {
+            List<PatientSummary> patients = patientRepository.findPatientSummariesWithClinicalData();
+            if (patients.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(patients, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET page of patients with the latest reading per component (two queries per page)
+    @GetMapping("/with-recent-vitals")
+    public ResponseEntity<CursorPage<PatientWithVitals>> getPatientsWithRecentVitals(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        try {
+            int size = CursorPage.clampLimit(limit);
+            List<PatientSummary> patients = patientRepository.findSummariesAfter(KeysetCursor.decodeId(cursor), Limit.of(size + 1));
+            CursorPage<PatientSummary> page = CursorPage.of(patients, size, p -> KeysetCursor.encodeId(p.id()));
+            if (page.items().isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(new CursorPage<>(patientViewService.withLatestVitals(page.items()), page.nextCursor()), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // GET patients with latest vitals and clinical data count for a list of IDs, in request order (unknown IDs omitted)
+    @GetMapping("/batch")
+    public ResponseEntity<List<PatientOverview>> getPatientOverviews(@RequestParam("ids") List<Long> ids) {
+        return patientOverviews(ids);
+    }
+
+    // POST same as GET /batch with the IDs as a JSON array, for lists too long for a query string
+    @PostMapping("/batch")
+    public ResponseEntity<List<PatientOverview>> postPatientOverviews(@RequestBody List<Long> ids) {
+        return patientOverviews(ids);
+    }
+
     // GET count of patients by age
     @GetMapping("/count/age/{age}")
     public ResponseEntity<Long> countPatientsByAge(@PathVariable("age") int age) {
         try {
-            long count = patientRepository.countByAge(age);
+            long count = countersReady() ? clinicalCounters.patientsWithAge(age) : patientRepository.countByAge(age);
             return new ResponseEntity<>(count, HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    // GET number of patients per age (ages without patients omitted)
+    @GetMapping("/count/age")
+    public ResponseEntity<Map<Integer, Long>> getAgeHistogram() {
+        if (clinicalCounters == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (!clinicalCounters.isReady()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        Map<Integer, Long> histogram = clinicalCounters.ageHistogram();
+        if (histogram.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(histogram, HttpStatus.OK);
+    }
+
+    // GET page of all patients (keyset on id)
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<PatientSummary>> getPatientsPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return pageById(cursor, limit, (afterId, max) -> patientRepository.findSummariesAfter(afterId, max));
+    }
+
+    // GET page of patients by first name (keyset on id)
+    @GetMapping("/firstName/{firstName}/page")
+    public ResponseEntity<CursorPage<PatientSummary>> getPatientsPageByFirstName(
+            @PathVariable("firstName") String firstName,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return pageById(cursor, limit, (afterId, max) -> patientRepository.findSummariesByFirstNameAfter(firstName, afterId, max));
+    }
+
+    // GET page of patients by last name (keyset on id)
+    @GetMapping("/lastName/{lastName}/page")
+    public ResponseEntity<CursorPage<PatientSummary>> getPatientsPageByLastName(
+            @PathVariable("lastName") String lastName,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return pageById(cursor, limit, (afterId, max) -> patientRepository.findSummariesByLastNameAfter(lastName, afterId, max));
+    }
+
+    // GET page of patients by age (keyset on id)
+    @GetMapping("/age/{age}/page")
+    public ResponseEntity<CursorPage<PatientSummary>> getPatientsPageByAge(
+            @PathVariable("age") int age,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return pageById(cursor, limit, (afterId, max) -> patientRepository.findSummariesByAgeAfter(age, afterId, max));
+    }
+
+    // GET page of patients by age range (keyset on id)
+    @GetMapping("/age/range/page")
+    public ResponseEntity<CursorPage<PatientSummary>> getPatientsPageByAgeRange(
+            @RequestParam("minAge") int minAge,
+            @RequestParam("maxAge") int maxAge,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return pageById(cursor, limit, (afterId, max) -> patientRepository.findSummariesByAgeBetweenAfter(minAge, maxAge, afterId, max));
+    }
+
+    // GET page of patients with clinical data (keyset on id)
+    @GetMapping("/with-clinical-data/page")
+    public ResponseEntity<CursorPage<PatientSummary>> getPatientsWithClinicalDataPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return pageById(cursor, limit, (afterId, max) -> patientRepository.findSummariesWithClinicalDataAfter(afterId, max));
+    }
+
+    private boolean countersReady() {
+        return clinicalCounters != null && clinicalCounters.isReady();
+    }
+
+    private ResponseEntity<List<PatientOverview>> patientOverviews(List<Long> ids) {
+        try {
+            List<PatientOverview> overviews = patientViewService.overviews(ids);
+            if (overviews.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(overviews, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Pages carry column-only projections, so serializing them never touches the lazy clinical data collection
+    private ResponseEntity<CursorPage<PatientSummary>> pageById(String cursor, int limit,
+                                                                BiFunction<Long, Limit, List<PatientSummary>> query) {
+        try {
+            int size = CursorPage.clampLimit(limit);
+            List<PatientSummary> patients = query.apply(KeysetCursor.decodeId(cursor), Limit.of(size + 1));
+            CursorPage<PatientSummary> page = CursorPage.of(patients, size, p -> KeysetCursor.encodeId(p.id()));
+            if (page.items().isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 }
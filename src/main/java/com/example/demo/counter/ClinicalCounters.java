@@ -0,0 +1,221 @@
+package main.java.com.example.demo.counter;
+
+import jakarta.annotation.PreDestroy;
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.event.ClinicalDataChangedEvent;
+import main.java.com.example.demo.event.PatientChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Maintained counts behind the count endpoints: patients per age, and clinical data rows per patient and per
+// component. Change events keep them current; a periodic reconciliation against GROUP BY queries corrects drift
+// (and runs early after bulk removals whose per-key effect is unknown, such as a patient's readings going with it
+// or old months being archived). Counts are served only once the first reconciliation has loaded them.
+// Reading counts cover the hot tier (clinicaldata) only, like the COUNT queries they stand in for: readings moved
+// to the archive tier leave the counts when their month is archived.
+@Component
+@ConditionalOnProperty(name = "clinical.counters.enabled", havingValue = "true", matchIfMissing = true)
+public class ClinicalCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(ClinicalCounters.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    public record Stats(boolean ready, int ages, int patients, int components, long reconciliations, Instant lastReconciled) {
+    }
+
+    private interface KeyReader<K> {
+        K read(ResultSet rs) throws SQLException;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CounterMap<Integer> patientsByAge = new CounterMap<>();
+    private final CounterMap<Long> readingsByPatient = new CounterMap<>();
+    private final CounterMap<String> readingsByComponent = new CounterMap<>();
+
+    private final ExecutorService reconciler;
+    private final AtomicBoolean queued = new AtomicBoolean();
+    private final LongAdder reconciliations = new LongAdder();
+    private volatile boolean ready;
+    private volatile Instant lastReconciled;
+
+    @Autowired
+    public ClinicalCounters(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.reconciler = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "clinical-counters-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestReconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${clinical.counters.reconcile-ms:300000}", initialDelayString = "${clinical.counters.reconcile-ms:300000}")
+    public void scheduledReconcile() {
+        requestReconcile();
+    }
+
+    // Queues a reconciliation unless one is already waiting; one that is running does not absorb the request
+    public void requestReconcile() {
+        if (queued.compareAndSet(false, true)) {
+            reconciler.execute(() -> {
+                queued.set(false);
+                reconcile();
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconciler.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClinicalDataChanged(ClinicalDataChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, IMPORTED -> event.readings().forEach(reading -> count(reading, 1));
+            case DELETED -> event.readings().forEach(reading -> count(reading, -1));
+            case UPDATED -> {
+                count(event.previous(), -1);
+                event.readings().forEach(reading -> count(reading, 1));
+            }
+            case PATIENT_REMOVED -> {
+                readingsByPatient.remove(event.patientId());
+                // Which components the removed readings belonged to is not known here
+                requestReconcile();
+            }
+            case CLEARED -> {
+                readingsByPatient.clear();
+                readingsByComponent.clear();
+            }
+            case ARCHIVED -> requestReconcile();
+            case ARCHIVE_DELETED -> {
+                // archived readings are not counted
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        switch (event.type()) {
+            case SAVED -> {
+                if (event.previous() != null) {
+                    patientsByAge.add(event.previous().age(), -1);
+                }
+                patientsByAge.add(event.patient().age(), 1);
+            }
+            case REMOVED -> {
+                if (event.previous() != null) {
+                    patientsByAge.add(event.previous().age(), -1);
+                }
+            }
+            case CLEARED -> patientsByAge.clear();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long patientsWithAge(int age) {
+        return patientsByAge.get(age);
+    }
+
+    // Patients per age, ages without patients left out
+    public SortedMap<Integer, Long> ageHistogram() {
+        return new TreeMap<>(patientsByAge.snapshot());
+    }
+
+    public long readingsOfPatient(Long patientId) {
+        return readingsByPatient.get(patientId);
+    }
+
+    // Clinical data rows of each given patient, 0 for patients without any
+    public Map<Long, Long> readingsOfPatients(Collection<Long> patientIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Long patientId : patientIds) {
+            counts.put(patientId, readingsByPatient.get(patientId));
+        }
+        return counts;
+    }
+
+    public long readingsOfComponent(String componentName) {
+        return readingsByComponent.get(componentName);
+    }
+
+    // Clinical data rows per component name
+    public SortedMap<String, Long> componentHistogram() {
+        return new TreeMap<>(readingsByComponent.snapshot());
+    }
+
+    public Stats stats() {
+        return new Stats(ready, patientsByAge.size(), readingsByPatient.size(), readingsByComponent.size(),
+                reconciliations.sum(), lastReconciled);
+    }
+
+    void reconcile() {
+        long started = System.nanoTime();
+        try {
+            reconcile(patientsByAge, "SELECT age, COUNT(*) FROM patient GROUP BY age", rs -> rs.getInt(1));
+            reconcile(readingsByComponent, "SELECT component_name, COUNT(*) FROM clinicaldata " +
+                    "WHERE component_name IS NOT NULL GROUP BY component_name", rs -> rs.getString(1));
+            reconcile(readingsByPatient, "SELECT patient_id, COUNT(*) FROM clinicaldata " +
+                    "WHERE patient_id IS NOT NULL GROUP BY patient_id", rs -> rs.getLong(1));
+            ready = true;
+            reconciliations.increment();
+            lastReconciled = Instant.now();
+            log.debug("Reconciled clinical counters in {} ms", (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Clinical counter reconciliation failed", e);
+        }
+    }
+
+    private <K> void reconcile(CounterMap<K> counters, String sql, KeyReader<K> key) {
+        counters.beginReconcile();
+        try {
+            counters.finishReconcile(sink -> jdbcTemplate.query(sql, rs -> {
+                sink.accept(key.read(rs), rs.getLong(2));
+            }));
+        } catch (RuntimeException e) {
+            counters.abortReconcile();
+            throw e;
+        }
+    }
+
+    private void count(ClinicalReading reading, long delta) {
+        if (reading.patientId() != null) {
+            readingsByPatient.add(reading.patientId(), delta);
+        }
+        if (reading.componentName() != null) {
+            readingsByComponent.add(reading.componentName(), delta);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package main.java.com.example.demo.counter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// Counts per key in striped LongAdders, so concurrent writers on a hot key (a common component or age) never
+// contend on one cache line.
+//
+// Reconciliation replaces the counts with a database snapshot without losing concurrent updates: from
+// beginReconcile() every update also goes to a second, empty table; finishReconcile() adds the snapshot to it
+// and swaps it in. The snapshot query must start after beginReconcile() returns, so every update is in the
+// snapshot, the second table or both; one committed in the gap before the query reads is counted twice until the
+// next reconciliation.
+public final class CounterMap<K> {
+
+    private volatile ConcurrentHashMap<K, LongAdder> live = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<K, LongAdder> next;
+
+    public void add(K key, long delta) {
+        // next before live, so an update racing finishReconcile() lands in the table that survives
+        ConcurrentHashMap<K, LongAdder> pending = next;
+        ConcurrentHashMap<K, LongAdder> current = live;
+        add(current, key, delta);
+        if (pending != null && pending != current) {
+            add(pending, key, delta);
+        }
+    }
+
+    public long get(K key) {
+        LongAdder adder = live.get(key);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    // Keys with a non-zero count
+    public Map<K, Long> snapshot() {
+        Map<K, Long> snapshot = new HashMap<>();
+        live.forEach((key, adder) -> {
+            long sum = adder.sum();
+            if (sum != 0) {
+                snapshot.put(key, sum);
+            }
+        });
+        return snapshot;
+    }
+
+    public int size() {
+        return live.size();
+    }
+
+    public void remove(K key) {
+        ConcurrentHashMap<K, LongAdder> pending = next;
+        live.remove(key);
+        if (pending != null) {
+            pending.remove(key);
+        }
+    }
+
+    // Drops every count, and any reconciliation in progress with them
+    public synchronized void clear() {
+        next = null;
+        live = new ConcurrentHashMap<>();
+    }
+
+    public synchronized void beginReconcile() {
+        next = new ConcurrentHashMap<>();
+    }
+
+    // Runs the snapshot query, which reports each key's count to the given sink, and swaps in the result;
+    // returns false if the reconciliation was cleared or aborted meanwhile. Keys counting zero stay in the
+    // table (removing them could drop a concurrent update) and are left out of snapshot().
+    public synchronized boolean finishReconcile(Consumer<BiConsumer<K, Long>> query) {
+        ConcurrentHashMap<K, LongAdder> pending = next;
+        if (pending == null) {
+            return false;
+        }
+        query.accept((key, count) -> add(pending, key, count));
+        live = pending;
+        next = null;
+        return true;
+    }
+
+    public synchronized void abortReconcile() {
+        next = null;
+    }
+
+    private static <K> void add(ConcurrentHashMap<K, LongAdder> table, K key, long delta) {
+        LongAdder adder = table.get(key);
+        if (adder == null) {
+            adder = table.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.add(delta);
+    }
+}
@@ -0,0 +1,7 @@
+package main.java.com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// Summary statistics for one time bucket; bucketStart is null when the whole range is a single bucket
+public record AggregateBucket(LocalDateTime bucketStart, long count, double min, double max, double mean, double p50, double p95) {
+}
@@ -0,0 +1,21 @@
+package main.java.com.example.demo.dto;
+
+// Outcome of one reading in a bulk ingest request, by position in the request
+public record BulkItemResult(int index, Long id, Status status, String error) {
+
+    public enum Status {
+        CREATED, REJECTED, FAILED
+    }
+
+    public static BulkItemResult created(int index, Long id) {
+        return new BulkItemResult(index, id, Status.CREATED, null);
+    }
+
+    public static BulkItemResult rejected(int index, String error) {
+        return new BulkItemResult(index, null, Status.REJECTED, error);
+    }
+
+    public static BulkItemResult failed(int index, String error) {
+        return new BulkItemResult(index, null, Status.FAILED, error);
+    }
+}
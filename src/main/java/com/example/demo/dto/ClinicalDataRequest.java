@@ -0,0 +1,21 @@
+package main.java.com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// One reading in a bulk or asynchronous ingest request; measuredDateTime defaults to the time of ingest
+public record ClinicalDataRequest(Long patientId, String componentName, String componentValue, LocalDateTime measuredDateTime) {
+
+    // Returns a validation error message, or null when the reading is well formed
+    public String validate() {
+        if (patientId == null) {
+            return "patientId is required";
+        }
+        if (componentName == null || componentName.isBlank()) {
+            return "componentName is required";
+        }
+        if (componentValue == null || componentValue.isBlank()) {
+            return "componentValue is required";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,28 @@
+package main.java.com.example.demo.dto;
+
+import main.java.com.example.demo.model.ClinicalData;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+// Immutable, detached snapshot of a clinical data row, safe to cache and hand across threads
+public record ClinicalReading(Long id, Long patientId, String componentName, String componentValue, LocalDateTime measuredDateTime,
+                              Double numericValue, Double systolicValue, Double diastolicValue) {
+
+    // Latest reading wins: by measuredDateTime (missing times are oldest), then by id
+    public static final Comparator<ClinicalReading> RECENCY = Comparator
+            .comparing(ClinicalReading::measuredDateTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ClinicalReading::id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    public static ClinicalReading from(ClinicalData clinicalData) {
+        // getId() on a lazy patient proxy does not initialize it
+        Long patientId = clinicalData.getPatient() != null ? clinicalData.getPatient().getId() : null;
+        return new ClinicalReading(clinicalData.getId(), patientId, clinicalData.getComponentName(), clinicalData.getComponentValue(),
+                clinicalData.getMeasuredDateTime(), clinicalData.getNumericValue(), clinicalData.getSystolicValue(),
+                clinicalData.getDiastolicValue());
+    }
+
+    public boolean isNewerThan(ClinicalReading other) {
+        return other == null || RECENCY.compare(this, other) > 0;
+    }
+}
@@ -0,0 +1,26 @@
+package main.java.com.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset-paginated listing; nextCursor is null on the last page
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    // Clamp a client supplied page size into [1, MAX_LIMIT]
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    // Build a page from a query that fetched limit + 1 rows, so an extra row means there is more
+    public static <T> CursorPage<T> of(List<T> fetched, int limit, Function<T, String> cursorOf) {
+        if (fetched.size() <= limit) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = new ArrayList<>(fetched.subList(0, limit));
+        return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+}
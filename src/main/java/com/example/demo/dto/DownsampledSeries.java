@@ -0,0 +1,7 @@
+package main.java.com.example.demo.dto;
+
+import java.util.List;
+
+// A series reduced for charting; rawPoints is the size of the series before downsampling
+public record DownsampledSeries(String method, long rawPoints, List<SeriesPoint> points) {
+}
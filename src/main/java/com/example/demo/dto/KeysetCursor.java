@@ -0,0 +1,61 @@
+package main.java.com.example.demo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Opaque cursor for keyset pagination on (measuredDateTime, id) or id alone
+public record KeysetCursor(LocalDateTime measuredDateTime, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static String encodeId(long id) {
+        return encodeRaw(Long.toString(id));
+    }
+
+    public static String encode(LocalDateTime measuredDateTime, long id) {
+        return encodeRaw(measuredDateTime + SEPARATOR + id);
+    }
+
+    // Decode an id-only cursor; a missing cursor starts from the beginning
+    public static long decodeId(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(decodeRaw(cursor));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    // Decode a (measuredDateTime, id) cursor; a missing cursor starts at the given lower bound
+    public static KeysetCursor decode(String cursor, LocalDateTime start) {
+        if (cursor == null || cursor.isEmpty()) {
+            return new KeysetCursor(start, 0L);
+        }
+        String raw = decodeRaw(cursor);
+        int split = raw.lastIndexOf(SEPARATOR);
+        if (split < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, split)), Long.parseLong(raw.substring(split + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeRaw(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
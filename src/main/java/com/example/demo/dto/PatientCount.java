@@ -0,0 +1,5 @@
+package main.java.com.example.demo.dto;
+
+// Number of clinical data rows of one patient, from a grouped count
+public record PatientCount(Long patientId, long count) {
+}
@@ -0,0 +1,13 @@
+package main.java.com.example.demo.dto;
+
+import java.util.List;
+
+// Everything a ward screen shows for one patient: the patient, the latest reading of each component and
+// the number of readings on file
+public record PatientOverview(Long id, String firstName, String lastName, int age, List<ClinicalReading> latestVitals,
+                              long clinicalDataCount) {
+
+    public static PatientOverview of(PatientSummary patient, List<ClinicalReading> latestVitals, long clinicalDataCount) {
+        return new PatientOverview(patient.id(), patient.firstName(), patient.lastName(), patient.age(), latestVitals, clinicalDataCount);
+    }
+}
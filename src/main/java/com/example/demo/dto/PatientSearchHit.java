@@ -0,0 +1,5 @@
+package main.java.com.example.demo.dto;
+
+// One ranked patient search result; score is the sum of the per-term match scores
+public record PatientSearchHit(Long id, String firstName, String lastName, int age, double score) {
+}
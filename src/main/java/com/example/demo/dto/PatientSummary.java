@@ -0,0 +1,5 @@
+package main.java.com.example.demo.dto;
+
+// Patient columns only, loaded with a constructor projection so no clinical data collection is touched
+public record PatientSummary(Long id, String firstName, String lastName, int age) {
+}
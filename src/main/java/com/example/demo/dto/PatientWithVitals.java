@@ -0,0 +1,11 @@
+package main.java.com.example.demo.dto;
+
+import java.util.List;
+
+// A patient with the latest reading of each component
+public record PatientWithVitals(Long id, String firstName, String lastName, int age, List<ClinicalReading> latestVitals) {
+
+    public static PatientWithVitals of(PatientSummary patient, List<ClinicalReading> latestVitals) {
+        return new PatientWithVitals(patient.id(), patient.firstName(), patient.lastName(), patient.age(), latestVitals);
+    }
+}
@@ -0,0 +1,7 @@
+package main.java.com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// One point of a charted vital-sign series
+public record SeriesPoint(LocalDateTime measuredDateTime, double value) {
+}
@@ -0,0 +1,61 @@
+package main.java.com.example.demo.event;
+
+import main.java.com.example.demo.dto.ClinicalReading;
+
+import java.util.List;
+
+// Published after clinical data is written so in-process views (caches, counters, subscribers) can follow along.
+// Listeners should use @TransactionalEventListener(fallbackExecution = true) so they only see committed data.
+public record ClinicalDataChangedEvent(Type type, List<ClinicalReading> readings, ClinicalReading previous, Long patientId) {
+
+    public enum Type {
+        // readings were inserted
+        CREATED,
+        // readings holds the new state, previous the state before the update
+        UPDATED,
+        // readings holds the deleted rows
+        DELETED,
+        // all clinical data of patientId was removed together with the patient
+        PATIENT_REMOVED,
+        // all clinical data was removed
+        CLEARED,
+        // old rows left clinicaldata in bulk (moved to the archive tier or retired with their partition)
+        ARCHIVED,
+        // readings holds rows loaded by a bulk import: history, not live measurements
+        IMPORTED,
+        // readings holds a deleted reading that was only in the archive tier, not in clinicaldata
+        ARCHIVE_DELETED
+    }
+
+    public static ClinicalDataChangedEvent created(List<ClinicalReading> readings) {
+        return new ClinicalDataChangedEvent(Type.CREATED, readings, null, null);
+    }
+
+    public static ClinicalDataChangedEvent updated(ClinicalReading previous, ClinicalReading current) {
+        return new ClinicalDataChangedEvent(Type.UPDATED, List.of(current), previous, null);
+    }
+
+    public static ClinicalDataChangedEvent deleted(ClinicalReading reading) {
+        return new ClinicalDataChangedEvent(Type.DELETED, List.of(reading), null, null);
+    }
+
+    public static ClinicalDataChangedEvent patientRemoved(Long patientId) {
+        return new ClinicalDataChangedEvent(Type.PATIENT_REMOVED, List.of(), null, patientId);
+    }
+
+    public static ClinicalDataChangedEvent cleared() {
+        return new ClinicalDataChangedEvent(Type.CLEARED, List.of(), null, null);
+    }
+
+    public static ClinicalDataChangedEvent imported(List<ClinicalReading> readings) {
+        return new ClinicalDataChangedEvent(Type.IMPORTED, readings, null, null);
+    }
+
+    public static ClinicalDataChangedEvent deletedFromArchive(ClinicalReading reading) {
+        return new ClinicalDataChangedEvent(Type.ARCHIVE_DELETED, List.of(reading), null, null);
+    }
+
+    public static ClinicalDataChangedEvent archived() {
+        return new ClinicalDataChangedEvent(Type.ARCHIVED, List.of(), null, null);
+    }
+}
@@ -0,0 +1,38 @@
+package main.java.com.example.demo.event;
+
+import main.java.com.example.demo.dto.PatientSummary;
+import main.java.com.example.demo.model.Patient;
+
+// Published when patients are written so in-process views (the search index) can follow along.
+// Listeners should use @TransactionalEventListener(fallbackExecution = true) so they only see committed data.
+public record PatientChangedEvent(Type type, PatientSummary patient, PatientSummary previous, Long patientId) {
+
+    public enum Type {
+        // patient holds the created or updated state, previous the state before an update (null on create)
+        SAVED,
+        // patientId was deleted; previous holds its last state when it was found
+        REMOVED,
+        // all patients were deleted
+        CLEARED
+    }
+
+    public static PatientChangedEvent created(Patient patient) {
+        return new PatientChangedEvent(Type.SAVED, summaryOf(patient), null, patient.getId());
+    }
+
+    public static PatientChangedEvent updated(PatientSummary previous, Patient patient) {
+        return new PatientChangedEvent(Type.SAVED, summaryOf(patient), previous, patient.getId());
+    }
+
+    public static PatientChangedEvent removed(Long patientId, PatientSummary previous) {
+        return new PatientChangedEvent(Type.REMOVED, null, previous, patientId);
+    }
+
+    public static PatientChangedEvent cleared() {
+        return new PatientChangedEvent(Type.CLEARED, null, null, null);
+    }
+
+    public static PatientSummary summaryOf(Patient patient) {
+        return new PatientSummary(patient.getId(), patient.getFirstName(), patient.getLastName(), patient.getAge());
+    }
+}
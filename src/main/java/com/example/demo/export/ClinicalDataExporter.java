@@ -0,0 +1,162 @@
+package main.java.com.example.demo.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import main.java.com.example.demo.archive.ArchivedReading;
+import main.java.com.example.demo.archive.ClinicalDataArchive;
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.model.ParsedMeasurement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+// Streams clinical data exports from a forward-only JDBC cursor straight to the response: no entities and no
+// persistence context, and memory bounded by the fetch size and one output buffer (or row group) whatever the
+// export size. Archived readings matching the filter are written first, then the rows still in MySQL, each in
+// storage order.
+@Service
+public class ClinicalDataExporter {
+
+    // Patients one export may name; larger cohorts are exported by component and date range
+    public static final int MAX_PATIENTS = 10_000;
+
+    // Above this many patients the archive is scanned once instead of read patient by patient
+    private static final int ARCHIVE_LOOKUP_PATIENTS = 100;
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private static final String COLUMNS = "id, patient_id, component_name, component_value, measured_date_time, " +
+            "numeric_value, systolic_value, diastolic_value";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClinicalDataArchive archive;
+
+    @Autowired
+    public ClinicalDataExporter(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    // Validates the filter up front so a bad request fails before the response starts
+    public StreamingResponseBody export(ExportFilter filter, ExportFormat format, boolean gzip) {
+        if (filter.patientIds() != null) {
+            if (filter.patientIds().size() > MAX_PATIENTS) {
+                throw new IllegalArgumentException("At most " + MAX_PATIENTS + " patient ids per export");
+            }
+            if (filter.patientIds().contains(null)) {
+                throw new IllegalArgumentException("Patient id must not be null");
+            }
+        }
+        if (filter.startDate() != null && filter.endDate() != null && filter.startDate().isAfter(filter.endDate())) {
+            throw new IllegalArgumentException("startDate is after endDate");
+        }
+        return out -> {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_BYTES) : null;
+            OutputStream target = new BufferedOutputStream(compressed != null ? compressed : out, BUFFER_BYTES);
+            RowWriter writer = switch (format) {
+                case CSV -> new CsvRowWriter(target);
+                case NDJSON -> new NdjsonRowWriter(objectMapper.getFactory(), target);
+                case COLUMNAR -> new ColumnarRowWriter(target);
+            };
+            try {
+                if (filter.includeArchived()) {
+                    writeArchived(filter, writer);
+                }
+                writeHot(filter, writer);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+            target.flush();
+            if (compressed != null) {
+                compressed.finish();
+            }
+        };
+    }
+
+    private void writeHot(ExportFilter filter, RowWriter writer) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM clinicaldata WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (filter.patientIds() != null && !filter.patientIds().isEmpty()) {
+            sql.append(" AND patient_id IN (");
+            for (Long patientId : filter.patientIds()) {
+                sql.append(args.isEmpty() ? "?" : ", ?");
+                args.add(patientId);
+            }
+            sql.append(')');
+        }
+        if (filter.componentName() != null) {
+            sql.append(" AND component_name = ?");
+            args.add(filter.componentName());
+        }
+        if (filter.startDate() != null) {
+            sql.append(" AND measured_date_time >= ?");
+            args.add(Timestamp.valueOf(filter.startDate()));
+        }
+        if (filter.endDate() != null) {
+            sql.append(" AND measured_date_time <= ?");
+            args.add(Timestamp.valueOf(filter.endDate()));
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, rs -> {
+            Timestamp measured = rs.getTimestamp(5);
+            write(writer, new ClinicalReading(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4),
+                    measured != null ? measured.toLocalDateTime() : null, rs.getObject(6, Double.class),
+                    rs.getObject(7, Double.class), rs.getObject(8, Double.class)));
+        });
+    }
+
+    private void writeArchived(ExportFilter filter, RowWriter writer) {
+        if (archive.isEmpty()) {
+            return;
+        }
+        Consumer<ArchivedReading> sink = archived -> {
+            if (filter.matches(archived.patientId(), archived.componentName())) {
+                ParsedMeasurement parsed = ParsedMeasurement.parse(archived.componentValue());
+                write(writer, new ClinicalReading(archived.id(), archived.patientId(), archived.componentName(),
+                        archived.componentValue(), archived.measuredDateTime(), parsed.numericValue(),
+                        parsed.systolicValue(), parsed.diastolicValue()));
+            }
+        };
+        if (filter.patientIds() != null && !filter.patientIds().isEmpty() && filter.patientIds().size() <= ARCHIVE_LOOKUP_PATIENTS) {
+            for (Long patientId : filter.patientIds()) {
+                archive.readPatient(patientId, filter.componentName(), filter.startDate(), filter.endDate(), sink);
+            }
+        } else {
+            archive.scan(filter.startDate(), filter.endDate(), sink);
+        }
+    }
+
+    private static void write(RowWriter writer, ClinicalReading reading) {
+        try {
+            writer.write(reading);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
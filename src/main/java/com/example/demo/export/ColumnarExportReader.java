@@ -0,0 +1,118 @@
+package main.java.com.example.demo.export;
+
+import main.java.com.example.demo.dto.ClinicalReading;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+// Reads files written in the COLUMNAR export format (see ColumnarRowWriter) back into rows, one row group at a time
+public final class ColumnarExportReader {
+
+    private ColumnarExportReader() {
+    }
+
+    // Returns the number of rows read
+    public static long read(InputStream in, Consumer<ClinicalReading> consumer) throws IOException {
+        DataInputStream data = new DataInputStream(new GZIPInputStream(in, 64 * 1024));
+        byte[] magic = new byte[ColumnarRowWriter.MAGIC.length];
+        data.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarRowWriter.MAGIC)) {
+            throw new IOException("Not a columnar clinical data export");
+        }
+        int version = data.readUnsignedByte();
+        if (version != ColumnarRowWriter.VERSION) {
+            throw new IOException("Unsupported columnar export version " + version);
+        }
+        long total = 0;
+        for (int rows = (int) readVarLong(data); rows > 0; rows = (int) readVarLong(data)) {
+            ByteBuffer ids = column(data);
+            ByteBuffer patients = column(data);
+            ByteBuffer seconds = column(data);
+            ByteBuffer nanos = column(data);
+            ByteBuffer components = column(data);
+            ByteBuffer values = column(data);
+            ByteBuffer[] doubles = {column(data), column(data), column(data)};
+
+            String[] dictionary = new String[(int) readVarLong(components)];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readString(components, (int) readVarLong(components));
+            }
+            int bitmapBytes = (rows + 7) >> 3;
+            int[] nextDouble = {bitmapBytes, bitmapBytes, bitmapBytes};
+            long id = 0;
+            long patientId = 0;
+            long second = 0;
+            for (int row = 0; row < rows; row++) {
+                id += unZigZag(readVarLong(ids));
+                patientId += unZigZag(readVarLong(patients));
+                second += unZigZag(readVarLong(seconds));
+                LocalDateTime measured = LocalDateTime.ofEpochSecond(second, (int) readVarLong(nanos), ZoneOffset.UTC);
+                int position = (int) readVarLong(components);
+                String component = position == 0 ? null : dictionary[position - 1];
+                int length = (int) readVarLong(values);
+                String value = length == 0 ? null : readString(values, length - 1);
+                Double[] measuredValues = new Double[3];
+                for (int column = 0; column < 3; column++) {
+                    if ((doubles[column].get(row >> 3) & (1 << (row & 7))) != 0) {
+                        measuredValues[column] = Double.longBitsToDouble(doubles[column].getLong(nextDouble[column]));
+                        nextDouble[column] += 8;
+                    }
+                }
+                consumer.accept(new ClinicalReading(id, patientId, component, value, measured,
+                        measuredValues[0], measuredValues[1], measuredValues[2]));
+            }
+            total += rows;
+        }
+        return total;
+    }
+
+    private static ByteBuffer column(DataInputStream data) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(data)];
+        data.readFully(bytes);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private static long readVarLong(DataInputStream data) throws IOException {
+        long result = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = data.read();
+            if (b < 0) {
+                throw new EOFException("Truncated columnar export");
+            }
+            result |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) {
+                return result;
+            }
+        }
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,216 @@
+package main.java.com.example.demo.export;
+
+import main.java.com.example.demo.dto.ClinicalReading;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// Compressed columnar export: rows are buffered into row groups and each group is written column by column, so
+// similar values sit together and compress well. The whole file is gzip-compressed:
+//
+//   "CDX1", version byte
+//   per row group: varint row count, then nine columns, each as varint byte length + bytes:
+//     id, patient_id, measured epoch second (UTC)   zigzag varint delta from the previous row of the group
+//     measured nanos                                varint
+//     component_name                                varint dictionary size, dictionary (varint length + UTF-8),
+//                                                   then per row a varint dictionary position + 1 (0 for null)
+//     component_value                               per row varint UTF-8 length + 1 (0 for null), UTF-8
+//     numeric, systolic, diastolic value            presence bitmap (bit set = present), then the present
+//                                                   values as 8-byte big-endian IEEE doubles
+//   varint 0
+//
+// Memory is bounded by one row group. ColumnarExportReader reads the format back.
+final class ColumnarRowWriter implements RowWriter {
+
+    static final byte[] MAGIC = {'C', 'D', 'X', '1'};
+    static final byte VERSION = 1;
+    static final int ROWS_PER_GROUP = 8192;
+
+    private final GZIPOutputStream out;
+
+    private final Bytes ids = new Bytes();
+    private final Bytes patients = new Bytes();
+    private final Bytes seconds = new Bytes();
+    private final Bytes nanos = new Bytes();
+    private final Bytes components = new Bytes();
+    private final Bytes values = new Bytes();
+    private final Bytes[] doubles = {new Bytes(), new Bytes(), new Bytes()};
+    private final byte[][] present = {new byte[ROWS_PER_GROUP / 8], new byte[ROWS_PER_GROUP / 8], new byte[ROWS_PER_GROUP / 8]};
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final Bytes dictionaryBytes = new Bytes();
+    private final Bytes header = new Bytes();
+
+    private int rows;
+    private long lastId;
+    private long lastPatient;
+    private long lastSecond;
+
+    ColumnarRowWriter(OutputStream out) throws IOException {
+        this.out = new GZIPOutputStream(out, 64 * 1024);
+        this.out.write(MAGIC);
+        this.out.write(VERSION);
+    }
+
+    @Override
+    public void write(ClinicalReading reading) throws IOException {
+        ids.writeSigned(reading.id() - lastId);
+        lastId = reading.id();
+        patients.writeSigned(reading.patientId() - lastPatient);
+        lastPatient = reading.patientId();
+        long second = reading.measuredDateTime().toEpochSecond(ZoneOffset.UTC);
+        seconds.writeSigned(second - lastSecond);
+        lastSecond = second;
+        nanos.writeVarLong(reading.measuredDateTime().getNano());
+
+        String component = reading.componentName();
+        if (component == null) {
+            components.writeVarLong(0);
+        } else {
+            Integer position = dictionary.get(component);
+            if (position == null) {
+                position = dictionary.size();
+                dictionary.put(component, position);
+                dictionaryBytes.writeString(component);
+            }
+            components.writeVarLong(position + 1L);
+        }
+        if (reading.componentValue() == null) {
+            values.writeVarLong(0);
+        } else {
+            values.writeStringPlusOne(reading.componentValue());
+        }
+        Double[] measured = {reading.numericValue(), reading.systolicValue(), reading.diastolicValue()};
+        for (int column = 0; column < 3; column++) {
+            if (measured[column] != null) {
+                present[column][rows >> 3] |= (byte) (1 << (rows & 7));
+                doubles[column].writeLong(Double.doubleToLongBits(measured[column]));
+            }
+        }
+        if (++rows == ROWS_PER_GROUP) {
+            flushGroup();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (rows > 0) {
+            flushGroup();
+        }
+        header.reset();
+        header.writeVarLong(0);
+        header.writeTo(out);
+        out.finish();
+    }
+
+    private void flushGroup() throws IOException {
+        header.reset();
+        header.writeVarLong(rows);
+        header.writeTo(out);
+        writeColumn(ids);
+        writeColumn(patients);
+        writeColumn(seconds);
+        writeColumn(nanos);
+
+        Bytes dictionaryHeader = new Bytes();
+        dictionaryHeader.writeVarLong(dictionary.size());
+        header.reset();
+        header.writeVarLong(dictionaryHeader.size + dictionaryBytes.size + components.size);
+        header.writeTo(out);
+        dictionaryHeader.writeTo(out);
+        dictionaryBytes.writeTo(out);
+        components.writeTo(out);
+
+        writeColumn(values);
+        int bitmapBytes = (rows + 7) >> 3;
+        for (int column = 0; column < 3; column++) {
+            header.reset();
+            header.writeVarLong(bitmapBytes + doubles[column].size);
+            header.writeTo(out);
+            out.write(present[column], 0, bitmapBytes);
+            doubles[column].writeTo(out);
+            Arrays.fill(present[column], (byte) 0);
+            doubles[column].reset();
+        }
+
+        for (Bytes column : new Bytes[] {ids, patients, seconds, nanos, components, values, dictionaryBytes}) {
+            column.reset();
+        }
+        dictionary.clear();
+        rows = 0;
+        lastId = 0;
+        lastPatient = 0;
+        lastSecond = 0;
+    }
+
+    private void writeColumn(Bytes column) throws IOException {
+        header.reset();
+        header.writeVarLong(column.size);
+        header.writeTo(out);
+        column.writeTo(out);
+    }
+
+    // Growable byte array for one column of a row group
+    private static final class Bytes {
+
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeSigned(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            writeRaw(utf8);
+        }
+
+        void writeStringPlusOne(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length + 1L);
+            writeRaw(utf8);
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(bytes, 0, size);
+        }
+
+        private void writeRaw(byte[] raw) {
+            ensure(raw.length);
+            System.arraycopy(raw, 0, bytes, size, raw.length);
+            size += raw.length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package main.java.com.example.demo.export;
+
+import main.java.com.example.demo.dto.ClinicalReading;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+final class CsvRowWriter implements RowWriter {
+
+    static final String HEADER = "id,patient_id,component_name,component_value,measured_date_time,numeric_value,systolic_value,diastolic_value";
+
+    private final Writer out;
+
+    CsvRowWriter(OutputStream out) throws IOException {
+        this.out = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        this.out.write(HEADER);
+        this.out.write("\r\n");
+    }
+
+    @Override
+    public void write(ClinicalReading reading) throws IOException {
+        out.write(Long.toString(reading.id()));
+        out.write(',');
+        out.write(Long.toString(reading.patientId()));
+        out.write(',');
+        writeText(reading.componentName());
+        out.write(',');
+        writeText(reading.componentValue());
+        out.write(',');
+        if (reading.measuredDateTime() != null) {
+            out.write(reading.measuredDateTime().toString());
+        }
+        out.write(',');
+        writeNumber(reading.numericValue());
+        out.write(',');
+        writeNumber(reading.systolicValue());
+        out.write(',');
+        writeNumber(reading.diastolicValue());
+        out.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    // Quoted only when it holds a separator, quote or line break; quotes are doubled
+    private void writeText(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private void writeNumber(Double value) throws IOException {
+        if (value != null) {
+            out.write(value.toString());
+        }
+    }
+}
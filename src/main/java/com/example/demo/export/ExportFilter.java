@@ -0,0 +1,14 @@
+package main.java.com.example.demo.export;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// Rows to export; null or empty fields do not filter. The time range is inclusive at both ends.
+public record ExportFilter(Set<Long> patientIds, String componentName, LocalDateTime startDate, LocalDateTime endDate,
+                           boolean includeArchived) {
+
+    public boolean matches(long patientId, String component) {
+        return (patientIds == null || patientIds.isEmpty() || patientIds.contains(patientId))
+                && (componentName == null || componentName.equals(component));
+    }
+}
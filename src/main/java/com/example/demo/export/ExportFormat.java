@@ -0,0 +1,40 @@
+package main.java.com.example.demo.export;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+// Output formats of GET /api/clinical-data/export
+public enum ExportFormat {
+
+    // RFC 4180 with a header row
+    CSV("text/csv", "csv"),
+    // One JSON object per line
+    NDJSON("application/x-ndjson", "ndjson"),
+    // Gzip-compressed column chunks per row group, see ColumnarRowWriter; read back with ColumnarExportReader
+    COLUMNAR("application/octet-stream", "cdx");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ExportFormat of(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown export format: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package main.java.com.example.demo.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import main.java.com.example.demo.dto.ClinicalReading;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Field by field through the streaming generator rather than data binding, one object per line
+final class NdjsonRowWriter implements RowWriter {
+
+    private final JsonGenerator generator;
+
+    NdjsonRowWriter(JsonFactory factory, OutputStream out) throws IOException {
+        this.generator = factory.createGenerator(out, JsonEncoding.UTF8);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are ended explicitly; the default separator would start every line after the first with a space
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void write(ClinicalReading reading) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", reading.id());
+        generator.writeNumberField("patientId", reading.patientId());
+        generator.writeStringField("componentName", reading.componentName());
+        generator.writeStringField("componentValue", reading.componentValue());
+        if (reading.measuredDateTime() != null) {
+            generator.writeStringField("measuredDateTime", reading.measuredDateTime().toString());
+        } else {
+            generator.writeNullField("measuredDateTime");
+        }
+        writeNumber("numericValue", reading.numericValue());
+        writeNumber("systolicValue", reading.systolicValue());
+        writeNumber("diastolicValue", reading.diastolicValue());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.close();
+    }
+
+    private void writeNumber(String field, Double value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(field, value);
+        } else {
+            generator.writeNullField(field);
+        }
+    }
+}
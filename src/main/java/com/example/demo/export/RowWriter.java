@@ -0,0 +1,13 @@
+package main.java.com.example.demo.export;
+
+import main.java.com.example.demo.dto.ClinicalReading;
+
+import java.io.IOException;
+
+// Encodes exported rows onto the response stream; finish() writes any trailer but does not close the stream
+interface RowWriter {
+
+    void write(ClinicalReading reading) throws IOException;
+
+    void finish() throws IOException;
+}
@@ -0,0 +1,468 @@
+package main.java.com.example.demo.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import main.java.com.example.demo.dto.ClinicalDataRequest;
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.event.ClinicalDataChangedEvent;
+import main.java.com.example.demo.model.ParsedMeasurement;
+import main.java.com.example.demo.service.LatestProjectionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bulk import of historical readings from CSV or NDJSON files in clinical.import.dir. The file is split at line
+// boundaries into one byte range per worker thread; each worker scans its range through memory-mapped windows and
+// writes every chunk of rows in one transaction: a batched INSERT (sent as multi-row INSERTs by the driver's
+// rewriteBatchedStatements), the clinicaldata_latest upserts and the range's checkpoint in clinicaldata_import.
+// Ids come from clinicaldata_seq in one block per chunk. A failed, cancelled or interrupted import resumes
+// exactly where its committed chunks end, and importing a completed file again is a no-op unless asked for.
+@Component
+@ConditionalOnProperty(name = "clinical.import.enabled", havingValue = "true")
+public class BulkImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImporter.class);
+
+    // Length of the component_name and component_value columns
+    private static final int MAX_TEXT = 255;
+
+    // Rejected-row messages kept for the status
+    private static final int MAX_ERRORS = 20;
+
+    private static final String INSERT = "INSERT INTO clinicaldata (id, patient_id, component_name, component_value, " +
+            "measured_date_time, numeric_value, systolic_value, diastolic_value) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    // bytes counts the file's data (after a CSV header); imported and rejected include earlier runs of a resumed import
+    public record Status(String file, ImportFormat format, State state, long bytes, long bytesImported, long imported,
+                         long rejected, long rowsPerSecond, Instant started, Instant finished, List<String> errors) {
+    }
+
+    private record Range(int part, long start, long end, long committed) {
+    }
+
+    private record Row(long offset, ClinicalDataRequest reading) {
+    }
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LatestProjectionService latestProjectionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${clinical.import.dir:data/import}")
+    private Path directory;
+
+    @Value("${clinical.import.threads:4}")
+    private int threads;
+
+    // Rows per transaction
+    @Value("${clinical.import.chunk-size:5000}")
+    private int chunkSize;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The running import, or the last one
+    private volatile Job job;
+
+    @Autowired
+    public BulkImporter(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // Starts importing a file (a path relative to clinical.import.dir). With resume, a file imported before
+    // continues from its checkpoint; without, the checkpoint is discarded and the whole file is imported again.
+    public synchronized Status start(String fileName, ImportFormat format, boolean resume) throws IOException {
+        if (job != null && job.state == State.RUNNING) {
+            throw new IllegalStateException("An import is already running: " + job.name);
+        }
+        Path root = directory.toAbsolutePath().normalize();
+        Path file = root.resolve(fileName).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No such file in the import directory: " + fileName);
+        }
+        String name = root.relativize(file).toString();
+        long size = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        createCheckpointTable();
+
+        String header = null;
+        long dataStart = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (format == ImportFormat.CSV) {
+                MappedLineReader reader = new MappedLineReader(channel, 0, size);
+                while (reader.next() && reader.lineLength() == 0) {
+                    // skip blank lines before the header
+                }
+                if (reader.lineLength() == 0) {
+                    throw new IllegalArgumentException(fileName + " is empty");
+                }
+                byte[] line = new byte[reader.lineLength()];
+                reader.copyLine(line);
+                header = new String(line, StandardCharsets.UTF_8).replace("\uFEFF", "");
+                // Fails here on a header without the required columns
+                new CsvLineParser(header);
+                dataStart = reader.offset();
+            }
+            List<Range> ranges = loadCheckpoint(name, size, modified, format, resume);
+            if (ranges == null) {
+                ranges = new ArrayList<>();
+                long[] bounds = MappedLineReader.split(channel, dataStart, size, Math.max(1, threads));
+                for (int part = 0; part + 1 < bounds.length; part++) {
+                    ranges.add(new Range(part, bounds[part], bounds[part + 1], bounds[part]));
+                    jdbcTemplate.update("INSERT INTO clinicaldata_import (file, part, file_size, file_modified, format, " +
+                                    "start_offset, end_offset, committed_offset, imported_rows, rejected_rows) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, 0)",
+                            name, part, size, modified, format.name(), bounds[part], bounds[part + 1], bounds[part]);
+                }
+            }
+            Job started = new Job(name, file, format, header, size - dataStart);
+            started.imported.add(sumCheckpoint(name, "imported_rows"));
+            started.rejected.add(sumCheckpoint(name, "rejected_rows"));
+            job = started;
+            started.launch(ranges);
+            return started.status();
+        }
+    }
+
+    // The running import, or the last one; null when nothing was imported since startup
+    public Status status() {
+        Job current = job;
+        return current == null ? null : current.status();
+    }
+
+    // Stops the running import after the chunks being written; it can be resumed later
+    public Status cancel() {
+        Job current = job;
+        if (current == null) {
+            return null;
+        }
+        current.cancelled = true;
+        return current.status();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        Job current = job;
+        if (current != null && current.state == State.RUNNING) {
+            current.cancelled = true;
+            current.workers.shutdown();
+            current.workers.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private void createCheckpointTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS clinicaldata_import (" +
+                "file varchar(255) NOT NULL, part int NOT NULL, file_size bigint NOT NULL, file_modified bigint NOT NULL, " +
+                "format varchar(16) NOT NULL, start_offset bigint NOT NULL, end_offset bigint NOT NULL, " +
+                "committed_offset bigint NOT NULL, imported_rows bigint NOT NULL, rejected_rows bigint NOT NULL, " +
+                "PRIMARY KEY (file, part))");
+    }
+
+    // The ranges of an earlier import of the file, or null to split it afresh
+    private List<Range> loadCheckpoint(String name, long size, long modified, ImportFormat format, boolean resume) {
+        if (!resume) {
+            jdbcTemplate.update("DELETE FROM clinicaldata_import WHERE file = ?", name);
+            return null;
+        }
+        List<Range> ranges = new ArrayList<>();
+        boolean[] changed = {false};
+        jdbcTemplate.query("SELECT part, file_size, file_modified, format, start_offset, end_offset, committed_offset " +
+                "FROM clinicaldata_import WHERE file = ? ORDER BY part", rs -> {
+            changed[0] |= rs.getLong(2) != size || rs.getLong(3) != modified || !format.name().equals(rs.getString(4));
+            ranges.add(new Range(rs.getInt(1), rs.getLong(5), rs.getLong(6), rs.getLong(7)));
+        }, name);
+        if (changed[0]) {
+            throw new IllegalArgumentException(name + " changed since it was last imported; pass resume=false to import it from the start");
+        }
+        return ranges.isEmpty() ? null : ranges;
+    }
+
+    private long sumCheckpoint(String name, String column) {
+        Long sum = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(" + column + "), 0) FROM clinicaldata_import WHERE file = ?", Long.class, name);
+        return sum == null ? 0 : sum;
+    }
+
+    // Takes n consecutive ids from clinicaldata_seq, committed at once like Hibernate's own allocations;
+    // a chunk that then fails leaves a gap, as any sequence does
+    private long allocateIds(int n) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Long first = transaction.execute(status -> {
+            Long next = jdbcTemplate.queryForObject("SELECT next_val FROM clinicaldata_seq FOR UPDATE", Long.class);
+            jdbcTemplate.update("UPDATE clinicaldata_seq SET next_val = ?", next + n);
+            return next;
+        });
+        return first;
+    }
+
+    private final class Job {
+
+        private final String name;
+        private final Path file;
+        private final ImportFormat format;
+        private final String header;
+        private final long bytes;
+        private final ObjectReader jsonReader = objectMapper.readerFor(ClinicalDataRequest.class);
+        private final ExecutorService workers;
+        // Patients known to exist, so each is looked up once per import
+        private final Set<Long> knownPatients = ConcurrentHashMap.newKeySet();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private final LongAdder bytesImported = new LongAdder();
+        private final LongAdder imported = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder importedThisRun = new LongAdder();
+        private final AtomicInteger running = new AtomicInteger();
+        private final Instant started = Instant.now();
+        private volatile Instant finished;
+        private volatile State state = State.RUNNING;
+        private volatile boolean cancelled;
+        private volatile boolean failed;
+
+        Job(String name, Path file, ImportFormat format, String header, long bytes) {
+            this.name = name;
+            this.file = file;
+            this.format = format;
+            this.header = header;
+            this.bytes = bytes;
+            AtomicInteger threadCount = new AtomicInteger();
+            this.workers = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+                Thread thread = new Thread(runnable, "clinical-import-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        void launch(List<Range> ranges) {
+            log.info("Importing {} ({} bytes) in {} ranges", name, bytes, ranges.size());
+            List<Range> pending = new ArrayList<>();
+            for (Range range : ranges) {
+                bytesImported.add(range.committed() - range.start());
+                if (range.committed() < range.end()) {
+                    pending.add(range);
+                }
+            }
+            if (pending.isEmpty()) {
+                finish();
+                return;
+            }
+            running.set(pending.size());
+            for (Range range : pending) {
+                workers.execute(() -> {
+                    try {
+                        importRange(range);
+                    } catch (IOException | RuntimeException e) {
+                        log.error("Import of {} failed in range {}", name, range.part(), e);
+                        error("range " + range.part() + ": " + e.getMessage());
+                        failed = true;
+                        cancelled = true;
+                    } finally {
+                        if (running.decrementAndGet() == 0) {
+                            finish();
+                        }
+                    }
+                });
+            }
+        }
+
+        private void importRange(Range range) throws IOException {
+            // Each worker parses CSV with its own parser (it keeps a scratch buffer)
+            CsvLineParser csv = header == null ? null : new CsvLineParser(header);
+            List<Row> rows = new ArrayList<>(chunkSize);
+            byte[] line = new byte[256];
+            long committed = range.committed();
+            int rejectedRows = 0;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedLineReader reader = new MappedLineReader(channel, range.committed(), range.end());
+                while (!cancelled && reader.next()) {
+                    int length = reader.lineLength();
+                    if (length > 0) {
+                        if (line.length < length) {
+                            line = new byte[Math.max(length, line.length * 2)];
+                        }
+                        reader.copyLine(line);
+                        try {
+                            ClinicalDataRequest reading = csv != null ? csv.parse(line, length) : parseJson(line, length);
+                            String error = validate(reading);
+                            if (error != null) {
+                                throw new IllegalArgumentException(error);
+                            }
+                            rows.add(new Row(reader.lineOffset(), reading));
+                        } catch (IllegalArgumentException | DateTimeException | IOException e) {
+                            error("offset " + reader.lineOffset() + ": " + e.getMessage());
+                            rejectedRows++;
+                        }
+                    }
+                    if (rows.size() + rejectedRows >= chunkSize) {
+                        writeChunk(range.part(), rows, rejectedRows, committed, reader.offset());
+                        committed = reader.offset();
+                        rows.clear();
+                        rejectedRows = 0;
+                    }
+                }
+                // A cancelled range keeps its partial chunk unwritten; resuming reads it again
+                if (!cancelled && reader.offset() > committed) {
+                    writeChunk(range.part(), rows, rejectedRows, committed, reader.offset());
+                }
+            }
+        }
+
+        private ClinicalDataRequest parseJson(byte[] line, int length) throws IOException {
+            ClinicalDataRequest reading = jsonReader.readValue(line, 0, length);
+            if (reading != null && reading.measuredDateTime() == null) {
+                throw new IllegalArgumentException("measuredDateTime is required");
+            }
+            return reading;
+        }
+
+        private String validate(ClinicalDataRequest reading) {
+            if (reading == null) {
+                return "reading is required";
+            }
+            String error = reading.validate();
+            if (error == null && (reading.componentName().length() > MAX_TEXT || reading.componentValue().length() > MAX_TEXT)) {
+                error = "componentName and componentValue are limited to " + MAX_TEXT + " characters";
+            }
+            return error;
+        }
+
+        // Writes the parsed rows of [from, to) together with the range's new checkpoint
+        private void writeChunk(int part, List<Row> rows, int rejectedRows, long from, long to) {
+            Set<Long> unknown = new HashSet<>();
+            for (Row row : rows) {
+                if (!knownPatients.contains(row.reading().patientId())) {
+                    unknown.add(row.reading().patientId());
+                }
+            }
+            if (!unknown.isEmpty()) {
+                StringBuilder sql = new StringBuilder("SELECT id FROM patient WHERE id IN (");
+                for (int i = 0; i < unknown.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                knownPatients.addAll(jdbcTemplate.queryForList(sql.append(')').toString(), Long.class, unknown.toArray()));
+            }
+            List<ClinicalDataRequest> accepted = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                if (knownPatients.contains(row.reading().patientId())) {
+                    accepted.add(row.reading());
+                } else {
+                    error("offset " + row.offset() + ": patient " + row.reading().patientId() + " not found");
+                    rejectedRows++;
+                }
+            }
+
+            List<ClinicalReading> readings = new ArrayList<>(accepted.size());
+            long id = accepted.isEmpty() ? 0 : allocateIds(accepted.size());
+            for (ClinicalDataRequest reading : accepted) {
+                ParsedMeasurement parsed = ParsedMeasurement.parse(reading.componentValue());
+                readings.add(new ClinicalReading(id++, reading.patientId(), reading.componentName(), reading.componentValue(),
+                        reading.measuredDateTime(), parsed.numericValue(), parsed.systolicValue(), parsed.diastolicValue()));
+            }
+            int rejectedInChunk = rejectedRows;
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (!readings.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT, readings, readings.size(), (ps, reading) -> {
+                        ps.setLong(1, reading.id());
+                        ps.setLong(2, reading.patientId());
+                        ps.setString(3, reading.componentName());
+                        ps.setString(4, reading.componentValue());
+                        ps.setTimestamp(5, Timestamp.valueOf(reading.measuredDateTime()));
+                        setDouble(ps, 6, reading.numericValue());
+                        setDouble(ps, 7, reading.systolicValue());
+                        setDouble(ps, 8, reading.diastolicValue());
+                    });
+                    latestProjectionService.recordInserts(readings);
+                }
+                jdbcTemplate.update("UPDATE clinicaldata_import SET committed_offset = ?, imported_rows = imported_rows + ?, " +
+                        "rejected_rows = rejected_rows + ? WHERE file = ? AND part = ?", to, readings.size(), rejectedInChunk, name, part);
+            });
+            bytesImported.add(to - from);
+            imported.add(readings.size());
+            importedThisRun.add(readings.size());
+            rejected.add(rejectedInChunk);
+            if (!readings.isEmpty()) {
+                eventPublisher.publishEvent(ClinicalDataChangedEvent.imported(readings));
+            }
+        }
+
+        private void error(String message) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        private void finish() {
+            finished = Instant.now();
+            state = failed ? State.FAILED : cancelled ? State.CANCELLED : State.COMPLETED;
+            workers.shutdown();
+            log.info("Import of {} {}: {} rows imported, {} rejected in {}", name, state.name().toLowerCase(Locale.ROOT),
+                    importedThisRun.sum(), rejected.sum(), Duration.between(started, finished));
+        }
+
+        Status status() {
+            Instant end = finished != null ? finished : Instant.now();
+            long millis = Math.max(1, Duration.between(started, end).toMillis());
+            List<String> messages;
+            synchronized (errors) {
+                messages = List.copyOf(errors);
+            }
+            return new Status(name, format, state, bytes, bytesImported.sum(), imported.sum(), rejected.sum(),
+                    importedThisRun.sum() * 1000 / millis, started, finished, messages);
+        }
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+}
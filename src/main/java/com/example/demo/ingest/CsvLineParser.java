@@ -0,0 +1,135 @@
+package main.java.com.example.demo.ingest;
+
+import main.java.com.example.demo.dto.ClinicalDataRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+
+// Parses CSV lines into readings. Columns are found by the header row: patient_id, component_name, component_value
+// and measured_date_time are required, anything else (such as the id and parsed values of an export) is ignored.
+// Quoted fields may hold separators and doubled quotes but not line breaks, as lines are split before parsing.
+final class CsvLineParser {
+
+    private static final int IGNORED = 0;
+    private static final int PATIENT = 1;
+    private static final int COMPONENT = 2;
+    private static final int VALUE = 3;
+    private static final int TIME = 4;
+
+    private final int[] roles;
+    private byte[] unquoted = new byte[256];
+
+    CsvLineParser(String header) {
+        String[] names = header.split(",", -1);
+        roles = new int[names.length];
+        boolean[] found = new boolean[5];
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i].trim().replace("\"", "").toLowerCase(Locale.ROOT);
+            roles[i] = switch (name) {
+                case "patient_id" -> PATIENT;
+                case "component_name" -> COMPONENT;
+                case "component_value" -> VALUE;
+                case "measured_date_time" -> TIME;
+                default -> IGNORED;
+            };
+            found[roles[i]] = true;
+        }
+        if (!found[PATIENT] || !found[COMPONENT] || !found[VALUE] || !found[TIME]) {
+            throw new IllegalArgumentException("CSV header must name patient_id, component_name, component_value " +
+                    "and measured_date_time: " + header);
+        }
+    }
+
+    // Throws IllegalArgumentException or DateTimeException for a malformed line
+    ClinicalDataRequest parse(byte[] line, int length) {
+        String[] values = new String[5];
+        int column = 0;
+        int i = 0;
+        while (true) {
+            int role = column < roles.length ? roles[column] : IGNORED;
+            if (i < length && line[i] == '"') {
+                int n = 0;
+                int j = i + 1;
+                while (true) {
+                    if (j >= length) {
+                        throw new IllegalArgumentException("unterminated quoted field");
+                    }
+                    if (line[j] == '"') {
+                        if (j + 1 < length && line[j + 1] == '"') {
+                            n = append(n, (byte) '"');
+                            j += 2;
+                            continue;
+                        }
+                        j++;
+                        break;
+                    }
+                    n = append(n, line[j++]);
+                }
+                if (j < length && line[j] != ',') {
+                    throw new IllegalArgumentException("unexpected character after quoted field");
+                }
+                if (role != IGNORED) {
+                    values[role] = new String(unquoted, 0, n, StandardCharsets.UTF_8);
+                }
+                i = j;
+            } else {
+                int j = i;
+                while (j < length && line[j] != ',') {
+                    j++;
+                }
+                if (role != IGNORED && j > i) {
+                    values[role] = new String(line, i, j - i, StandardCharsets.UTF_8);
+                }
+                i = j;
+            }
+            column++;
+            if (i >= length) {
+                break;
+            }
+            i++;
+        }
+        if (column != roles.length) {
+            throw new IllegalArgumentException("expected " + roles.length + " fields, found " + column);
+        }
+        if (values[PATIENT] == null) {
+            throw new IllegalArgumentException("patient_id is required");
+        }
+        if (values[TIME] == null) {
+            throw new IllegalArgumentException("measured_date_time is required");
+        }
+        return new ClinicalDataRequest(Long.parseLong(values[PATIENT].trim()), values[COMPONENT], values[VALUE],
+                parseDateTime(values[TIME].trim()));
+    }
+
+    // yyyy-MM-dd HH:mm:ss (the API's format) on a fast path, otherwise ISO-8601 with either separator
+    static LocalDateTime parseDateTime(String value) {
+        if (value.length() == 19 && value.charAt(4) == '-' && value.charAt(7) == '-'
+                && (value.charAt(10) == ' ' || value.charAt(10) == 'T') && value.charAt(13) == ':' && value.charAt(16) == ':') {
+            return LocalDateTime.of(digits(value, 0, 4), digits(value, 5, 7), digits(value, 8, 10),
+                    digits(value, 11, 13), digits(value, 14, 16), digits(value, 17, 19));
+        }
+        return LocalDateTime.parse(value.replace(' ', 'T'));
+    }
+
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("invalid date-time: " + value);
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private int append(int n, byte b) {
+        if (n == unquoted.length) {
+            unquoted = Arrays.copyOf(unquoted, n * 2);
+        }
+        unquoted[n] = b;
+        return n + 1;
+    }
+}
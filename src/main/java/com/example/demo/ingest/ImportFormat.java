@@ -0,0 +1,32 @@
+package main.java.com.example.demo.ingest;
+
+import java.util.Locale;
+
+// Input formats of POST /api/clinical-data/import; both are what GET /api/clinical-data/export writes
+public enum ImportFormat {
+
+    // Header row naming the columns, one reading per line
+    CSV,
+    // One JSON reading per line
+    NDJSON;
+
+    public static ImportFormat of(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown import format: " + value, e);
+        }
+    }
+
+    // By file extension, for requests that do not name a format
+    public static ImportFormat forFile(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Cannot tell the format of " + fileName + "; pass format=csv or format=ndjson");
+    }
+}
@@ -0,0 +1,189 @@
+package main.java.com.example.demo.ingest;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+// Append-only spill file for readings accepted by the write-behind queue, kept as a series of segment files.
+// Each reading is one line. Offsets are logical across segments (a segment is named after the offset of its first
+// byte), and a separate checkpoint file records the offset up to which readings are committed to the database.
+// Appends roll over to a new segment once the current one reaches segmentBytes, and segments wholly below the
+// checkpoint are deleted, so under steady ingest the journal stays around one segment long.
+// Not thread-safe: callers serialize appends and commits.
+class IngestJournal implements Closeable {
+
+    record Entry(String line, long endOffset) {
+    }
+
+    private static final String PREFIX = "ingest-";
+    private static final String SUFFIX = ".journal";
+    // Single journal file of earlier versions: a segment starting at offset 0
+    private static final String LEGACY_FILE = "ingest.journal";
+
+    private final Path directory;
+    private final Path checkpointFile;
+    private final boolean fsync;
+    private final long segmentBytes;
+    // Start offsets of the segments on disk; the last one is open for appends
+    private final TreeSet<Long> segments = new TreeSet<>();
+    private FileChannel channel;
+    private long base;
+    private long size;
+
+    IngestJournal(Path directory, boolean fsync, long segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.checkpointFile = directory.resolve("ingest.checkpoint");
+        this.fsync = fsync;
+        this.segmentBytes = segmentBytes;
+        Path legacy = directory.resolve(LEGACY_FILE);
+        if (Files.exists(legacy) && !Files.exists(segmentFile(0L))) {
+            Files.move(legacy, segmentFile(0L));
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.add(0L);
+        }
+        this.base = segments.last();
+        this.channel = open(base);
+        this.size = base + channel.size();
+        dropTornTail();
+    }
+
+    // Appends one line and returns the journal offset just past it
+    long append(byte[] line) throws IOException {
+        if (size - base >= segmentBytes) {
+            roll();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            size += channel.write(buffer, size - base);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+        return size;
+    }
+
+    long size() {
+        return size;
+    }
+
+    // Persist the committed offset, then delete the segments it has passed. The checkpoint is written to a temp
+    // file and moved so a crash never leaves a torn one.
+    void commit(long offset) throws IOException {
+        Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        Files.writeString(tmp, Long.toString(offset), StandardCharsets.US_ASCII);
+        Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        while (segments.size() > 1 && segments.higher(segments.first()) <= offset) {
+            Files.deleteIfExists(segmentFile(segments.pollFirst()));
+        }
+    }
+
+    long committedOffset() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return segments.first();
+        }
+        String value = Files.readString(checkpointFile, StandardCharsets.US_ASCII).trim();
+        long offset = value.isEmpty() ? 0L : Long.parseLong(value);
+        return Math.max(segments.first(), Math.min(offset, size));
+    }
+
+    // Passes the lines appended after the last checkpoint, i.e. accepted but not yet known to be written, to the
+    // consumer in order, reading the segments sequentially
+    void forEachUncommitted(Consumer<Entry> consumer) throws IOException {
+        long offset = committedOffset();
+        if (offset >= size) {
+            return;
+        }
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (long start : segments.tailSet(segments.floor(offset), true)) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(segmentFile(start)), 1 << 16)) {
+                long position = Math.max(offset, start);
+                in.skipNBytes(position - start);
+                int b;
+                while ((b = in.read()) >= 0) {
+                    position++;
+                    if (b != '\n') {
+                        line.write(b);
+                    } else {
+                        if (line.size() > 0) {
+                            consumer.accept(new Entry(line.toString(StandardCharsets.UTF_8), position));
+                        }
+                        line.reset();
+                    }
+                }
+            }
+            // Segments only roll after complete lines
+            line.reset();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void roll() throws IOException {
+        channel.force(false);
+        channel.close();
+        base = size;
+        segments.add(base);
+        channel = open(base);
+    }
+
+    private FileChannel open(long start) throws IOException {
+        return FileChannel.open(segmentFile(start), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private Path segmentFile(long start) {
+        return directory.resolve(PREFIX + String.format("%020d", start) + SUFFIX);
+    }
+
+    // A crash mid-append leaves a final line without its newline; cut the active segment back to just after the
+    // last complete line past the checkpoint, so the next append does not continue the torn bytes into an
+    // unparseable line
+    private void dropTornTail() throws IOException {
+        long committed = Math.max(committedOffset(), base);
+        long end = size;
+        ByteBuffer chunk = ByteBuffer.allocate(8192);
+        long keep = committed;
+        scan:
+        while (end > committed) {
+            int length = (int) Math.min(chunk.capacity(), end - committed);
+            long from = end - length;
+            chunk.clear().limit(length);
+            while (chunk.hasRemaining() && channel.read(chunk, from - base + chunk.position()) > 0) {
+                // keep reading
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') {
+                    keep = from + i + 1;
+                    break scan;
+                }
+            }
+            end = from;
+        }
+        if (keep < size) {
+            channel.truncate(keep - base);
+            size = keep;
+        }
+    }
+}
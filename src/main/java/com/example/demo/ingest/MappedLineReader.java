@@ -0,0 +1,144 @@
+package main.java.com.example.demo.ingest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+// Reads the lines of a byte range of a file through read-only memory-mapped windows, so a file of any size is
+// scanned without copying it through stream buffers. Lines end at '\n' (a '\r' before it is dropped); the last
+// line of the range may lack one. A line never spans windows: the next window is mapped from the line's start.
+// Not thread-safe; each import worker reads its own range.
+final class MappedLineReader {
+
+    static final int WINDOW_BYTES = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long end;
+    private final int windowBytes;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int position;
+    private int lineStart;
+    private int lineEnd;
+
+    MappedLineReader(FileChannel channel, long start, long end) {
+        this(channel, start, end, WINDOW_BYTES);
+    }
+
+    MappedLineReader(FileChannel channel, long start, long end, int windowBytes) {
+        this.channel = channel;
+        this.end = end;
+        this.windowBytes = windowBytes;
+        this.windowStart = start;
+    }
+
+    // Moves to the next line; false at the end of the range
+    boolean next() throws IOException {
+        if (windowStart + position >= end) {
+            return false;
+        }
+        if (window == null || position >= window.limit()) {
+            map(windowStart + position);
+        }
+        int scanned = position;
+        while (true) {
+            int limit = window.limit();
+            while (scanned < limit && window.get(scanned) != '\n') {
+                scanned++;
+            }
+            if (scanned < limit) {
+                lineStart = position;
+                lineEnd = scanned;
+                position = scanned + 1;
+                break;
+            }
+            if (windowStart + limit >= end) {
+                lineStart = position;
+                lineEnd = limit;
+                position = limit;
+                break;
+            }
+            if (position == 0) {
+                throw new IOException("Line at offset " + windowStart + " is longer than " + windowBytes + " bytes");
+            }
+            scanned -= position;
+            map(windowStart + position);
+        }
+        if (lineEnd > lineStart && window.get(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        return true;
+    }
+
+    int lineLength() {
+        return lineEnd - lineStart;
+    }
+
+    // Copies the current line into the start of target, which must hold lineLength() bytes
+    void copyLine(byte[] target) {
+        window.get(lineStart, target, 0, lineEnd - lineStart);
+    }
+
+    // File offset of the current line
+    long lineOffset() {
+        return windowStart + lineStart;
+    }
+
+    // File offset just past the current line, where reading resumes
+    long offset() {
+        return windowStart + position;
+    }
+
+    private void map(long from) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(windowBytes, end - from));
+        windowStart = from;
+        position = 0;
+    }
+
+    // Splits [start, end) into up to parts ranges of about equal size, each starting at a line start;
+    // returns the range bounds (a range count + 1 long array)
+    static long[] split(FileChannel channel, long start, long end, int parts) throws IOException {
+        long[] bounds = new long[parts + 1];
+        int count = 0;
+        bounds[count++] = start;
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        for (int i = 1; i < parts; i++) {
+            long target = Math.max(start + (end - start) * i / parts, bounds[count - 1]);
+            long bound = lineStartAtOrAfter(channel, target, end, buffer);
+            if (bound >= end) {
+                break;
+            }
+            if (bound > bounds[count - 1]) {
+                bounds[count++] = bound;
+            }
+        }
+        bounds[count++] = end;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    // The first line start at or after offset: just past the first '\n' at offset - 1 or later
+    private static long lineStartAtOrAfter(FileChannel channel, long offset, long end, ByteBuffer buffer) throws IOException {
+        if (offset == 0) {
+            return 0;
+        }
+        long position = offset - 1;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,285 @@
+package main.java.com.example.demo.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import main.java.com.example.demo.dto.BulkItemResult;
+import main.java.com.example.demo.dto.ClinicalDataRequest;
+import main.java.com.example.demo.service.ClinicalDataIngestService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Write-behind ingestion: readings are journaled, placed on a bounded queue and acknowledged immediately;
+// a single writer thread drains the queue in micro-batches (by size or delay) through ClinicalDataIngestService.
+// A full queue is reported to the caller (429) instead of blocking the request thread.
+@Component
+@ConditionalOnProperty(name = "clinical.ingest.write-behind.enabled", havingValue = "true")
+public class WriteBehindIngestor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindIngestor.class);
+
+    private static final long MIN_RETRY_BACKOFF_MS = 100L;
+    private static final long MAX_RETRY_BACKOFF_MS = 5_000L;
+
+    private record Pending(ClinicalDataRequest reading, long journalOffset) {
+    }
+
+    @Autowired
+    private ClinicalDataIngestService clinicalDataIngestService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${clinical.ingest.write-behind.capacity:100000}")
+    private int capacity;
+
+    @Value("${clinical.ingest.write-behind.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${clinical.ingest.write-behind.max-delay-ms:50}")
+    private long maxDelayMs;
+
+    @Value("${clinical.ingest.write-behind.journal-dir:data/ingest-journal}")
+    private Path journalDir;
+
+    @Value("${clinical.ingest.write-behind.fsync:false}")
+    private boolean fsync;
+
+    @Value("${clinical.ingest.write-behind.segment-bytes:67108864}")
+    private long segmentBytes;
+
+    @Value("${clinical.ingest.write-behind.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    // Guards journal appends together with queue insertion so journal order matches queue order
+    private final Object lock = new Object();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private ArrayBlockingQueue<Pending> queue;
+    private IngestJournal journal;
+    private Thread writer;
+    private volatile boolean accepting;
+    private volatile boolean running;
+
+    public record Stats(int queued, int capacity, long accepted, long rejected, long written, long dropped) {
+    }
+
+    // Enqueue one reading; false when the queue is full
+    public boolean offer(ClinicalDataRequest reading) {
+        return offerAll(List.of(reading));
+    }
+
+    // Enqueue all readings or none; false when the queue lacks room for all of them
+    public boolean offerAll(List<ClinicalDataRequest> readings) {
+        if (!accepting) {
+            throw new IllegalStateException("Write-behind ingestion is not accepting readings");
+        }
+        List<byte[]> lines = new ArrayList<>(readings.size());
+        for (ClinicalDataRequest reading : readings) {
+            lines.add(serialize(reading));
+        }
+        synchronized (lock) {
+            if (queue.remainingCapacity() < readings.size()) {
+                rejected.add(readings.size());
+                return false;
+            }
+            try {
+                for (int i = 0; i < readings.size(); i++) {
+                    long offset = journal.append(lines.get(i));
+                    queue.add(new Pending(readings.get(i), offset));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        accepted.add(readings.size());
+        return true;
+    }
+
+    public Stats stats() {
+        return new Stats(queue.size(), capacity, accepted.sum(), rejected.sum(), written.sum(), dropped.sum());
+    }
+
+    @Override
+    public void start() {
+        try {
+            journal = new IngestJournal(journalDir, fsync, segmentBytes);
+            List<Pending> replay = new ArrayList<>();
+            journal.forEachUncommitted(entry -> {
+                try {
+                    replay.add(new Pending(objectMapper.readValue(entry.line(), ClinicalDataRequest.class), entry.endOffset()));
+                } catch (IOException e) {
+                    log.warn("Dropping unreadable journaled reading ending at offset {}", entry.endOffset(), e);
+                    dropped.increment();
+                }
+            });
+            queue = new ArrayBlockingQueue<>(Math.max(capacity, replay.size()));
+            queue.addAll(replay);
+            if (!replay.isEmpty()) {
+                log.info("Replaying {} journaled readings not yet written to the database", replay.size());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open ingest journal in " + journalDir, e);
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "write-behind-ingest");
+        writer.start();
+        accepting = true;
+    }
+
+    // Stop accepting, let the writer drain what is queued, then close the journal.
+    // Anything left (timeout or database down) stays in the journal and is replayed on the next start.
+    @Override
+    public void stop() {
+        accepting = false;
+        running = false;
+        try {
+            writer.join(shutdownTimeoutMs);
+            if (writer.isAlive()) {
+                log.warn("Write-behind drain timed out with {} readings queued; they will be replayed from the journal", queue.size());
+                writer.interrupt();
+                writer.join(1_000L);
+            }
+            synchronized (lock) {
+                journal.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Could not close ingest journal", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // A batch that fails unexpectedly stays in hand (and in the journal) and is retried; the writer thread only
+    // ends on shutdown, since without it the queue would fill and every async request be refused
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty() && !fill(batch)) {
+                    continue;
+                }
+                if (!writeWithRetry(batch)) {
+                    return;
+                }
+                commit(batch.get(batch.size() - 1).journalOffset());
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Write-behind writer failed on a batch of {} readings, retrying in {} ms", batch.size(),
+                        MAX_RETRY_BACKOFF_MS, e);
+                try {
+                    Thread.sleep(MAX_RETRY_BACKOFF_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Collects the next micro-batch, by size or delay; false when nothing arrived within the delay
+    private boolean fill(List<Pending> batch) throws InterruptedException {
+        Pending first = queue.poll(maxDelayMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
+
+    // Retry database failures with backoff until written; readings the database rejects (e.g. unknown patient)
+    // cannot be reported back after the 202, so they are logged and dropped. An exception out of the ingest
+    // service (nothing was written) retries the whole remainder. Returns false when interrupted.
+    private boolean writeWithRetry(List<Pending> batch) throws InterruptedException {
+        List<ClinicalDataRequest> remaining = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            remaining.add(pending.reading());
+        }
+        long backoff = MIN_RETRY_BACKOFF_MS;
+        while (true) {
+            List<BulkItemResult> results;
+            try {
+                results = clinicalDataIngestService.ingest(remaining);
+            } catch (RuntimeException e) {
+                log.warn("Write-behind batch of {} readings failed, retrying in {} ms", remaining.size(), backoff, e);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MS);
+                continue;
+            }
+            List<ClinicalDataRequest> failed = new ArrayList<>();
+            for (BulkItemResult result : results) {
+                switch (result.status()) {
+                    case CREATED -> written.increment();
+                    case REJECTED -> {
+                        dropped.increment();
+                        log.warn("Dropping queued reading {}: {}", remaining.get(result.index()), result.error());
+                    }
+                    case FAILED -> failed.add(remaining.get(result.index()));
+                }
+            }
+            if (failed.isEmpty()) {
+                return true;
+            }
+            log.warn("Write-behind batch failed for {} readings, retrying in {} ms", failed.size(), backoff);
+            remaining = failed;
+            Thread.sleep(backoff);
+            backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MS);
+        }
+    }
+
+    private void commit(long offset) {
+        synchronized (lock) {
+            try {
+                journal.commit(offset);
+            } catch (IOException e) {
+                // The readings are in the database; worst case they are replayed once more after a restart
+                log.warn("Could not checkpoint ingest journal", e);
+            }
+        }
+    }
+
+    private byte[] serialize(ClinicalDataRequest reading) {
+        try {
+            return objectMapper.writeValueAsBytes(reading);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
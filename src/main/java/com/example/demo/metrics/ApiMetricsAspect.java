@@ -0,0 +1,124 @@
+package main.java.com.example.demo.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import main.java.com.example.demo.dto.CursorPage;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+// Result-size distributions and error counters for every controller handler and repository query.
+// Latency is already timed by Spring Boot (http.server.requests per handler and
+// spring.data.repository.invocations per repository method); this adds what those timers cannot see:
+// how many rows each call returned and failures that handlers turn into 5xx responses themselves.
+@Aspect
+@Component
+public class ApiMetricsAspect {
+
+    static final String RESPONSE_ITEMS = "clinical.api.response.items";
+    static final String API_ERRORS = "clinical.api.errors";
+    static final String REPOSITORY_ROWS = "clinical.repository.rows";
+    static final String REPOSITORY_ERRORS = "clinical.repository.errors";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(public * main.java.com.example.demo.controller.*Controller.*(..))")
+    public Object measureHandler(ProceedingJoinPoint joinPoint) throws Throwable {
+        String handler = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            error(API_ERRORS, "handler", handler, method, "exception", e.getClass().getSimpleName());
+            throw e;
+        }
+        if (result instanceof ResponseEntity<?> response) {
+            int status = response.getStatusCode().value();
+            if (status >= 400) {
+                error(API_ERRORS, "handler", handler, method, "status", Integer.toString(status));
+            }
+            long items = sizeOf(response.getBody());
+            if (items >= 0) {
+                summary(RESPONSE_ITEMS, "handler", handler, method).record(items);
+            }
+        }
+        return result;
+    }
+
+    // Spring Data repositories are JDK proxies, so match on the proxied interface rather than on a class
+    @Around("(this(main.java.com.example.demo.repository.ClinicalDataRepository)"
+            + " || this(main.java.com.example.demo.repository.PatientRepository)"
+            + " || this(main.java.com.example.demo.repository.ClinicalDataLatestRepository))"
+            + " && !execution(* java.lang.Object.*(..))")
+    public Object measureRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryName(joinPoint.getThis());
+        String method = joinPoint.getSignature().getName();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            error(REPOSITORY_ERRORS, "repository", repository, method, "exception", e.getClass().getSimpleName());
+            throw e;
+        }
+        long rows = sizeOf(result);
+        if (rows >= 0) {
+            summary(REPOSITORY_ROWS, "repository", repository, method).record(rows);
+        }
+        return result;
+    }
+
+    // Number of items in a result, or -1 when it is not countable without consuming it (streams, scalars)
+    static long sizeOf(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof CursorPage<?> page) {
+            return page.items().size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+
+    private DistributionSummary summary(String name, String ownerTag, String owner, String method) {
+        return DistributionSummary.builder(name)
+                .tag(ownerTag, owner)
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+
+    private void error(String name, String ownerTag, String owner, String method, String causeTag, String cause) {
+        Counter.builder(name)
+                .tag(ownerTag, owner)
+                .tag("method", method)
+                .tag(causeTag, cause)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String repositoryName(Object proxy) {
+        for (Class<?> type : proxy.getClass().getInterfaces()) {
+            if (type.getPackageName().equals("main.java.com.example.demo.repository")) {
+                return type.getSimpleName();
+            }
+        }
+        return proxy.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,149 @@
+package main.java.com.example.demo.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import main.java.com.example.demo.alert.AlertEngine;
+import main.java.com.example.demo.cache.LatestVitalsCache;
+import main.java.com.example.demo.counter.ClinicalCounters;
+import main.java.com.example.demo.ingest.WriteBehindIngestor;
+import main.java.com.example.demo.push.ReadingFanoutHub;
+import main.java.com.example.demo.replica.ReplicaRouter;
+import main.java.com.example.demo.search.PatientSearchService;
+import main.java.com.example.demo.service.PatientViewService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Exposes the in-process latest-vitals cache, push subscriptions, batch lookup coalescing, the patient search index,
+// maintained counters, alerting, read replica routing and the write-behind queue (when enabled) as meters.
+// Hikari pool and Hibernate statistics meters are registered by Spring Boot's own binders.
+@Component
+public class ClinicalMetricsBinder implements MeterBinder {
+
+    @Autowired
+    private LatestVitalsCache latestVitalsCache;
+
+    @Autowired
+    private ObjectProvider<WriteBehindIngestor> writeBehindIngestor;
+
+    @Autowired
+    private ReadingFanoutHub readingFanoutHub;
+
+    @Autowired
+    private PatientViewService patientViewService;
+
+    @Autowired
+    private ObjectProvider<PatientSearchService> patientSearchService;
+
+    @Autowired
+    private ObjectProvider<ClinicalCounters> clinicalCounters;
+
+    @Autowired
+    private ObjectProvider<AlertEngine> alertEngine;
+
+    @Autowired
+    private ObjectProvider<ReplicaRouter> replicaRouter;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        LatestVitalsCache cache = latestVitalsCache;
+        Gauge.builder("clinical.cache.latest.size", cache, c -> c.stats().size())
+                .description("Patients held in the latest-vitals cache")
+                .register(registry);
+        FunctionCounter.builder("clinical.cache.latest.requests", cache, c -> c.stats().hits())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("clinical.cache.latest.requests", cache, c -> c.stats().misses())
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("clinical.cache.latest.evictions", cache, c -> c.stats().evictions())
+                .register(registry);
+        FunctionCounter.builder("clinical.cache.latest.invalidations", cache, c -> c.stats().invalidations())
+                .register(registry);
+
+        ReadingFanoutHub hub = readingFanoutHub;
+        Gauge.builder("clinical.push.subscribers", hub, h -> h.stats().subscribers())
+                .register(registry);
+        FunctionCounter.builder("clinical.push.readings", hub, h -> h.stats().delivered())
+                .tag("outcome", "delivered")
+                .register(registry);
+        FunctionCounter.builder("clinical.push.readings", hub, h -> h.stats().coalesced())
+                .tag("outcome", "coalesced")
+                .register(registry);
+        FunctionCounter.builder("clinical.push.readings", hub, h -> h.stats().dropped())
+                .tag("outcome", "dropped")
+                .register(registry);
+
+        FunctionCounter.builder("clinical.batch.coalesced", patientViewService, PatientViewService::coalescedRequests)
+                .description("Batch lookups answered by an identical request already in flight")
+                .register(registry);
+
+        PatientSearchService search = patientSearchService.getIfAvailable();
+        if (search != null) {
+            Gauge.builder("clinical.search.patients", search, s -> s.stats().patients())
+                    .register(registry);
+            Gauge.builder("clinical.search.retired.slots", search, s -> s.stats().retiredSlots())
+                    .description("Index slots left by updates and deletes until the next compaction")
+                    .register(registry);
+        }
+
+        ClinicalCounters counters = clinicalCounters.getIfAvailable();
+        if (counters != null) {
+            FunctionCounter.builder("clinical.counters.reconciliations", counters, c -> c.stats().reconciliations())
+                    .register(registry);
+        }
+
+        AlertEngine alerts = alertEngine.getIfAvailable();
+        if (alerts != null) {
+            FunctionCounter.builder("clinical.alerts.raised", alerts, a -> a.stats().alerts())
+                    .register(registry);
+            FunctionCounter.builder("clinical.alerts.suppressed", alerts, a -> a.stats().suppressed())
+                    .description("Alerts not raised again within the cooldown")
+                    .register(registry);
+            FunctionCounter.builder("clinical.alerts.evaluated", alerts, a -> a.stats().evaluated())
+                    .register(registry);
+        }
+
+        ReplicaRouter router = replicaRouter.getIfAvailable();
+        if (router != null) {
+            Gauge.builder("clinical.replicas.healthy", router, r -> r.stats().healthy())
+                    .description("Read replicas currently taking read-only transactions")
+                    .register(registry);
+            FunctionCounter.builder("clinical.replicas.reads", router, r -> r.stats().replicaReads())
+                    .tag("target", "replica")
+                    .register(registry);
+            FunctionCounter.builder("clinical.replicas.reads", router, r -> r.stats().primaryReads())
+                    .tag("target", "primary")
+                    .description("Read-only transactions kept on the primary for read-your-writes")
+                    .register(registry);
+            FunctionCounter.builder("clinical.replicas.reads", router, r -> r.stats().fallbacks())
+                    .tag("target", "fallback")
+                    .description("Read-only transactions sent to the primary because no replica was healthy")
+                    .register(registry);
+        }
+
+        WriteBehindIngestor ingestor = writeBehindIngestor.getIfAvailable();
+        if (ingestor == null) {
+            return;
+        }
+        Gauge.builder("clinical.ingest.queue.size", ingestor, i -> i.stats().queued())
+                .description("Readings accepted but not yet written")
+                .register(registry);
+        Gauge.builder("clinical.ingest.queue.capacity", ingestor, i -> i.stats().capacity())
+                .register(registry);
+        FunctionCounter.builder("clinical.ingest.readings", ingestor, i -> i.stats().accepted())
+                .tag("outcome", "accepted")
+                .register(registry);
+        FunctionCounter.builder("clinical.ingest.readings", ingestor, i -> i.stats().rejected())
+                .tag("outcome", "rejected")
+                .register(registry);
+        FunctionCounter.builder("clinical.ingest.readings", ingestor, i -> i.stats().written())
+                .tag("outcome", "written")
+                .register(registry);
+        FunctionCounter.builder("clinical.ingest.readings", ingestor, i -> i.stats().dropped())
+                .tag("outcome", "dropped")
+                .register(registry);
+    }
+}
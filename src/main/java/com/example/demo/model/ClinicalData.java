@@ -1,20 +1,31 @@
 
 package main.java.com.example.demo.model;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
-import java.security.Timestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "clinicaldata")
+@Table(name = "clinicaldata", indexes = {
+        @Index(name = "idx_clinicaldata_patient_component_time", columnList = "patient_id, component_name, measured_date_time"),
+        @Index(name = "idx_clinicaldata_component_numeric", columnList = "component_name, numeric_value"),
+        @Index(name = "idx_clinicaldata_component_systolic", columnList = "component_name, systolic_value"),
+        @Index(name = "idx_clinicaldata_time", columnList = "measured_date_time"),
+        @Index(name = "idx_clinicaldata_patient_id", columnList = "patient_id, id"),
+        @Index(name = "idx_clinicaldata_component_id", columnList = "component_name, id")
+})
 public class ClinicalData {
 
+    // Sequence ids (a table-backed sequence on MySQL, pooled-lo optimizer) let Hibernate batch inserts,
+    // which IDENTITY columns prevent
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clinicaldata_seq")
+    @SequenceGenerator(name = "clinicaldata_seq", sequenceName = "clinicaldata_seq", allocationSize = 100)
     private Long id;
 
+    // No database foreign key: MySQL does not allow them on partitioned tables (see ClinicalDataPartitionManager)
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "patient_id", nullable = false)
+    @JoinColumn(name = "patient_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonIgnore
     private Patient patient;
 
@@ -24,8 +35,35 @@ public class ClinicalData {
     @Column(name = "component_value")
     private String componentValue;
     
-    @Column(name = "measured_date_time")
-    private Timestamp measuredDateTime;
+    // Partitioning column, part of the primary key on MySQL, so it can never be null
+    @Column(name = "measured_date_time", nullable = false)
+    private LocalDateTime measuredDateTime;
+
+    // Parsed numeric form of componentValue, maintained on every insert and update
+    @Column(name = "numeric_value")
+    private Double numericValue;
+
+    @Column(name = "systolic_value")
+    private Double systolicValue;
+
+    @Column(name = "diastolic_value")
+    private Double diastolicValue;
+
+    @PrePersist
+    @PreUpdate
+    void beforeWrite() {
+        if (measuredDateTime == null) {
+            measuredDateTime = LocalDateTime.now();
+        }
+        parseComponentValue();
+    }
+
+    public void parseComponentValue() {
+        ParsedMeasurement parsed = ParsedMeasurement.parse(componentValue);
+        this.numericValue = parsed.numericValue();
+        this.systolicValue = parsed.systolicValue();
+        this.diastolicValue = parsed.diastolicValue();
+    }
 
     // Getters and setters
 
@@ -61,11 +99,23 @@ public class ClinicalData {
         this.componentValue = componentValue;
     }
 
-    public Timestamp getMeasuredDateTime() {
+    public LocalDateTime getMeasuredDateTime() {
         return measuredDateTime;
     }
 
-    public void setMeasuredDateTime(Timestamp measuredDateTime) {
+    public void setMeasuredDateTime(LocalDateTime measuredDateTime) {
         this.measuredDateTime = measuredDateTime;
     }
+
+    public Double getNumericValue() {
+        return numericValue;
+    }
+
+    public Double getSystolicValue() {
+        return systolicValue;
+    }
+
+    public Double getDiastolicValue() {
+        return diastolicValue;
+    }
 }
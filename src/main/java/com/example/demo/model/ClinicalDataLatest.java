@@ -0,0 +1,76 @@
+package main.java.com.example.demo.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Maintained projection: the latest clinicaldata row per (patient, component), updated in the same transaction
+// as every clinical data write so latest-vitals lookups are primary key reads instead of scans
+@Entity
+@Table(name = "clinicaldata_latest")
+@IdClass(ClinicalDataLatest.Key.class)
+public class ClinicalDataLatest {
+
+    @Id
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Id
+    @Column(name = "component_name")
+    private String componentName;
+
+    @Column(name = "clinicaldata_id", nullable = false)
+    private Long clinicalDataId;
+
+    @Column(name = "measured_date_time")
+    private LocalDateTime measuredDateTime;
+
+    public static class Key implements Serializable {
+
+        private Long patientId;
+        private String componentName;
+
+        public Key() {}
+
+        public Key(Long patientId, String componentName) {
+            this.patientId = patientId;
+            this.componentName = componentName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(patientId, key.patientId) && Objects.equals(componentName, key.componentName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(patientId, componentName);
+        }
+    }
+
+    // Getters
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public String getComponentName() {
+        return componentName;
+    }
+
+    public Long getClinicalDataId() {
+        return clinicalDataId;
+    }
+
+    public LocalDateTime getMeasuredDateTime() {
+        return measuredDateTime;
+    }
+}
@@ -0,0 +1,64 @@
+package main.java.com.example.demo.model;
+
+// Numeric view of a free-form component value such as "67/119" (blood pressure) or "67" (heart rate)
+public record ParsedMeasurement(Double numericValue, Double systolicValue, Double diastolicValue) {
+
+    public static final ParsedMeasurement EMPTY = new ParsedMeasurement(null, null, null);
+
+    // Parse a component value. A pair "a/b" is stored as systolic = larger, diastolic = smaller, since
+    // the seed data records blood pressure as diastolic/systolic while clients usually send systolic/diastolic.
+    // For pairs the numeric value is the systolic reading. Unparseable values yield EMPTY.
+    public static ParsedMeasurement parse(String componentValue) {
+        if (componentValue == null) {
+            return EMPTY;
+        }
+        String value = componentValue.trim();
+        int slash = value.indexOf('/');
+        if (slash < 0) {
+            double scalar = parseNumber(value, 0, value.length());
+            return Double.isNaN(scalar) ? EMPTY : new ParsedMeasurement(scalar, null, null);
+        }
+        double first = parseNumber(value, 0, slash);
+        double second = parseNumber(value, slash + 1, value.length());
+        if (Double.isNaN(first) || Double.isNaN(second)) {
+            return EMPTY;
+        }
+        double systolic = Math.max(first, second);
+        double diastolic = Math.min(first, second);
+        return new ParsedMeasurement(systolic, systolic, diastolic);
+    }
+
+    public boolean isEmpty() {
+        return numericValue == null;
+    }
+
+    // Validate the characters up front so malformed values don't pay for a NumberFormatException
+    private static double parseNumber(String value, int from, int to) {
+        while (from < to && value.charAt(from) == ' ') {
+            from++;
+        }
+        while (to > from && value.charAt(to - 1) == ' ') {
+            to--;
+        }
+        if (from == to) {
+            return Double.NaN;
+        }
+        int i = from;
+        if (value.charAt(i) == '-' || value.charAt(i) == '+') {
+            i++;
+        }
+        boolean digits = false;
+        boolean dot = false;
+        for (; i < to; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                return Double.NaN;
+            }
+        }
+        return digits ? Double.parseDouble(value.substring(from, to)) : Double.NaN;
+    }
+}
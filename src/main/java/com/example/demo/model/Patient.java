@@ -1,12 +1,23 @@
 package main.java.com.example.demo.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
+// Rows rarely change and are looked up by id on most clinical data writes, so they live in the second-level
+// cache; Hibernate updates or evicts the entry on its own writes (the clinical data collection is not cached).
 @Entity
-@Table(name = "patient")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Patient.CACHE_REGION)
+@Table(name = "patient", indexes = {
+        @Index(name = "idx_patient_last_first", columnList = "last_name, first_name"),
+        @Index(name = "idx_patient_first", columnList = "first_name")
+})
 public class Patient {
 
+    public static final String CACHE_REGION = "patient";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -0,0 +1,11 @@
+package main.java.com.example.demo.partition;
+
+import java.time.LocalDateTime;
+
+// One range partition of clinicaldata; upperBound is exclusive and null for the MAXVALUE partition
+public record ClinicalDataPartition(String name, LocalDateTime upperBound, long estimatedRows) {
+
+    public boolean isCatchAll() {
+        return upperBound == null;
+    }
+}
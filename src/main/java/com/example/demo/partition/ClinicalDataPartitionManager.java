@@ -0,0 +1,224 @@
+package main.java.com.example.demo.partition;
+
+import main.java.com.example.demo.event.ClinicalDataChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Keeps clinicaldata's monthly RANGE COLUMNS partitions in step with time (see databaseSettings.sql):
+// months up to months-ahead in the future are split off the MAXVALUE partition p_future, and months older
+// than retention-months are either archived (exchanged into a plain clinicaldata_archive_pYYYYMM table) or
+// dropped. A month still holding somebody's latest reading (clinicaldata_latest) is never retired.
+// Runs on startup and on clinical.partitioning.cron, under a MySQL named lock so only one instance acts.
+@Component
+@ConditionalOnProperty(name = "clinical.partitioning.enabled", havingValue = "true", matchIfMissing = true)
+public class ClinicalDataPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ClinicalDataPartitionManager.class);
+
+    static final String TABLE = "clinicaldata";
+    static final String CATCH_ALL = "p_future";
+    static final String ARCHIVE_PREFIX = "clinicaldata_archive_";
+    private static final String LOCK = "clinicaldata_partition_maintenance";
+    private static final DateTimeFormatter MONTH_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public enum RetentionAction {
+        ARCHIVE, DROP
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${clinical.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 keeps every month
+    @Value("${clinical.partitioning.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${clinical.partitioning.retention-action:archive}")
+    private String retentionAction;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${clinical.partitioning.cron:0 15 2 * * *}")
+    public void maintain() {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                // Named locks belong to the connection, so everything runs on this one
+                JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+                Integer locked = jdbc.queryForObject("SELECT GET_LOCK(?, 0)", Integer.class, LOCK);
+                if (locked == null || locked != 1) {
+                    log.debug("Partition maintenance already running elsewhere");
+                    return null;
+                }
+                try {
+                    maintain(jdbc, LocalDate.now());
+                } finally {
+                    jdbc.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.error("Partition maintenance of {} failed", TABLE, e);
+        }
+    }
+
+    void maintain(JdbcTemplate jdbc, LocalDate today) {
+        List<ClinicalDataPartition> partitions = partitions(jdbc);
+        if (partitions.isEmpty()) {
+            log.warn("Table {} is not partitioned; run the partitioning migration in databaseSettings.sql", TABLE);
+            return;
+        }
+        LocalDateTime thisMonth = today.withDayOfMonth(1).atStartOfDay();
+        createFuturePartitions(jdbc, partitions, thisMonth.plusMonths(monthsAhead + 1L));
+        if (retentionMonths > 0 && retireOldPartitions(jdbc, partitions(jdbc), thisMonth.minusMonths(retentionMonths)) > 0) {
+            eventPublisher.publishEvent(ClinicalDataChangedEvent.archived());
+        }
+    }
+
+    public List<ClinicalDataPartition> partitions() {
+        return partitions(jdbcTemplate);
+    }
+
+    // Partitions a measured_date_time range query reads, straight from the optimizer; a range inside one
+    // month lists one partition, whatever the size of the history
+    public List<String> partitionsScanned(LocalDateTime startDate, LocalDateTime endDate) {
+        return jdbcTemplate.query("EXPLAIN SELECT id FROM " + TABLE + " WHERE measured_date_time BETWEEN ? AND ?",
+                rs -> {
+                    List<String> names = new ArrayList<>();
+                    while (rs.next()) {
+                        String scanned = rs.getString("partitions");
+                        if (scanned != null) {
+                            names.addAll(List.of(scanned.split(",")));
+                        }
+                    }
+                    return names;
+                },
+                Timestamp.valueOf(startDate), Timestamp.valueOf(endDate));
+    }
+
+    private List<ClinicalDataPartition> partitions(JdbcTemplate jdbc) {
+        return jdbc.query("SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> new ClinicalDataPartition(rs.getString(1), parseBound(rs.getString(2)), rs.getLong(3)),
+                TABLE);
+    }
+
+    // Splits p_future into one partition per month from the highest existing bound up to `until`.
+    // Only done while p_future is empty, which it is as long as this runs before each new month starts: splitting
+    // a populated p_future rewrites every row in it under a table lock, so that is left to an operator.
+    private void createFuturePartitions(JdbcTemplate jdbc, List<ClinicalDataPartition> partitions, LocalDateTime until) {
+        LocalDateTime highest = null;
+        boolean hasCatchAll = false;
+        for (ClinicalDataPartition partition : partitions) {
+            if (partition.isCatchAll()) {
+                hasCatchAll = CATCH_ALL.equals(partition.name());
+            } else if (highest == null || partition.upperBound().isAfter(highest)) {
+                highest = partition.upperBound();
+            }
+        }
+        if (!hasCatchAll || highest == null) {
+            log.warn("Table {} has no {} MAXVALUE partition after a bounded one; not adding partitions", TABLE, CATCH_ALL);
+            return;
+        }
+        StringBuilder split = new StringBuilder();
+        List<String> created = new ArrayList<>();
+        for (LocalDateTime lower = highest; lower.isBefore(until); lower = lower.plusMonths(1)) {
+            String name = lower.format(MONTH_NAME);
+            split.append("PARTITION ").append(name).append(" VALUES LESS THAN ('")
+                    .append(lower.plusMonths(1).format(BOUND)).append("'), ");
+            created.add(name);
+        }
+        if (created.isEmpty()) {
+            return;
+        }
+        if (!jdbc.queryForList("SELECT 1 FROM " + TABLE + " PARTITION (" + CATCH_ALL + ") LIMIT 1").isEmpty()) {
+            log.warn("Partition {} of {} holds rows from {} onwards; not splitting it into {}", CATCH_ALL, TABLE,
+                    highest, created);
+            return;
+        }
+        jdbc.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + CATCH_ALL + " INTO (" + split +
+                "PARTITION " + CATCH_ALL + " VALUES LESS THAN (MAXVALUE))");
+        log.info("Created {} partitions {}", TABLE, created);
+    }
+
+    // Returns the number of partitions retired
+    private int retireOldPartitions(JdbcTemplate jdbc, List<ClinicalDataPartition> partitions, LocalDateTime cutoff) {
+        RetentionAction action = RetentionAction.valueOf(retentionAction.trim().toUpperCase(Locale.ROOT));
+        LocalDateTime lower = null;
+        int retired = 0;
+        for (ClinicalDataPartition partition : partitions) {
+            if (partition.isCatchAll() || partition.upperBound().isAfter(cutoff)) {
+                break;
+            }
+            LocalDateTime upper = partition.upperBound();
+            Long pinned = lower == null
+                    ? jdbc.queryForObject("SELECT COUNT(*) FROM clinicaldata_latest WHERE measured_date_time < ? " +
+                            "OR measured_date_time IS NULL", Long.class, Timestamp.valueOf(upper))
+                    : jdbc.queryForObject("SELECT COUNT(*) FROM clinicaldata_latest WHERE measured_date_time >= ? " +
+                            "AND measured_date_time < ?", Long.class, Timestamp.valueOf(lower), Timestamp.valueOf(upper));
+            lower = upper;
+            if (pinned != null && pinned > 0) {
+                log.info("Keeping partition {}: it holds the latest reading of {} patient components", partition.name(), pinned);
+                continue;
+            }
+            if (action == RetentionAction.ARCHIVE) {
+                String archive = ARCHIVE_PREFIX + partition.name();
+                Integer existing = jdbc.queryForObject("SELECT COUNT(*) FROM information_schema.TABLES " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", Integer.class, archive);
+                if (existing != null && existing > 0) {
+                    // Left over from an interrupted run; exchanging again would swap the archived rows back in
+                    log.warn("Archive table {} already exists; not retiring partition {}", archive, partition.name());
+                    continue;
+                }
+                jdbc.execute("CREATE TABLE " + archive + " LIKE " + TABLE);
+                jdbc.execute("ALTER TABLE " + archive + " REMOVE PARTITIONING");
+                jdbc.execute("ALTER TABLE " + TABLE + " EXCHANGE PARTITION " + partition.name() + " WITH TABLE " + archive);
+                log.info("Archived partition {} ({} rows) to {}", partition.name(), partition.estimatedRows(), archive);
+            }
+            jdbc.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partition.name());
+            log.info("Dropped partition {}", partition.name());
+            retired++;
+        }
+        return retired;
+    }
+
+    // PARTITION_DESCRIPTION is a quoted literal for RANGE COLUMNS, or MAXVALUE for the catch-all
+    static LocalDateTime parseBound(String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        if (value.length() == 10) {
+            return LocalDate.parse(value).atStartOfDay();
+        }
+        return LocalDateTime.parse(value, BOUND);
+    }
+}
@@ -0,0 +1,275 @@
+package main.java.com.example.demo.push;
+
+import jakarta.annotation.PreDestroy;
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.event.ClinicalDataChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-process fan-out of committed clinical data changes to SSE subscribers. The write path only updates
+// subscriber buffers (never blocks on a socket); a small sender pool drains each subscriber's buffer into
+// one event at a time, so a burst of writes to a slow client collapses into one send of the newest values.
+//
+// Events: "readings" (array of ClinicalReading), "invalidate" (patient ids whose readings were deleted or
+// corrected; refetch their latest values) and "resync" (buffer overflowed or all data cleared; refetch all).
+@Component
+public class ReadingFanoutHub {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadingFanoutHub.class);
+
+    public record Stats(int subscribers, long delivered, long coalesced, long dropped) {
+    }
+
+    @Value("${clinical.push.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${clinical.push.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${clinical.push.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final ExecutorService senders;
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicInteger count = new AtomicInteger();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder coalescedByClosed = new LongAdder();
+    private final LongAdder droppedByClosed = new LongAdder();
+
+    // Subscribers with a patient filter are indexed by patient; the rest (component-only or unfiltered) are
+    // checked against every change
+    private final Map<Long, Set<ReadingSubscriber>> byPatient = new ConcurrentHashMap<>();
+    private final Set<ReadingSubscriber> unindexed = ConcurrentHashMap.newKeySet();
+    private final Set<ReadingSubscriber> all = ConcurrentHashMap.newKeySet();
+
+    public ReadingFanoutHub(@Value("${clinical.push.sender-threads:4}") int senderThreads) {
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "reading-push-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Registers a subscriber; empty sets mean "all patients" / "all components". Returns null when full.
+    public SseEmitter subscribe(Set<Long> patientIds, Set<String> componentNames, Collection<ClinicalReading> initial) {
+        if (count.incrementAndGet() > maxSubscribers) {
+            count.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        ReadingSubscriber subscriber = new ReadingSubscriber(ids.incrementAndGet(), emitter, Set.copyOf(patientIds),
+                Set.copyOf(componentNames), bufferSize);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        all.add(subscriber);
+        if (subscriber.patientIds().isEmpty()) {
+            unindexed.add(subscriber);
+        } else {
+            for (Long patientId : subscriber.patientIds()) {
+                // Inside compute so a concurrent unsubscribe cannot remove the set between lookup and add
+                byPatient.compute(patientId, (id, subscribers) -> {
+                    Set<ReadingSubscriber> updated = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+                    updated.add(subscriber);
+                    return updated;
+                });
+            }
+        }
+        // Registered before the snapshot is queued, so a write racing the snapshot is not lost; the
+        // per-vital buffer keeps whichever of the two is newer
+        for (ClinicalReading reading : initial) {
+            if (subscriber.matches(reading)) {
+                subscriber.offer(reading);
+            }
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    public Stats stats() {
+        long coalesced = coalescedByClosed.sum();
+        long dropped = droppedByClosed.sum();
+        for (ReadingSubscriber subscriber : all) {
+            coalesced += subscriber.coalesced();
+            dropped += subscriber.dropped();
+        }
+        return new Stats(count.get(), delivered.sum(), coalesced, dropped);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClinicalDataChanged(ClinicalDataChangedEvent event) {
+        if (all.isEmpty()) {
+            return;
+        }
+        switch (event.type()) {
+            case CREATED -> event.readings().forEach(this::publish);
+            case UPDATED -> {
+                ClinicalReading previous = event.previous();
+                ClinicalReading current = event.readings().get(0);
+                // A correction may move a reading to another patient or component, or back in time so that
+                // another reading is the latest again; the affected screens refetch in those cases
+                if (previous != null && (!Objects.equals(previous.patientId(), current.patientId())
+                        || !Objects.equals(previous.componentName(), current.componentName())
+                        || previous.isNewerThan(current))) {
+                    invalidate(previous.patientId());
+                }
+                publish(current);
+            }
+            case DELETED -> event.readings().forEach(reading -> invalidate(reading.patientId()));
+            case PATIENT_REMOVED -> invalidate(event.patientId());
+            // Imported history is not pushed row by row; screens of the patients it touched refetch
+            case IMPORTED -> event.readings().stream().map(ClinicalReading::patientId).distinct().forEach(this::invalidate);
+            case CLEARED -> {
+                for (ReadingSubscriber subscriber : all) {
+                    subscriber.invalidate(null);
+                    schedule(subscriber);
+                }
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and finds clients that went away without closing
+    @Scheduled(fixedDelayString = "${clinical.push.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (ReadingSubscriber subscriber : all) {
+            if (!subscriber.scheduled.get()) {
+                try {
+                    synchronized (subscriber.sendLock) {
+                        subscriber.emitter().send(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    subscriber.emitter().completeWithError(e);
+                    unsubscribe(subscriber);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        for (ReadingSubscriber subscriber : all) {
+            subscriber.emitter().complete();
+        }
+    }
+
+    private void publish(ClinicalReading reading) {
+        if (reading.patientId() == null) {
+            return;
+        }
+        Set<ReadingSubscriber> watching = byPatient.get(reading.patientId());
+        if (watching != null) {
+            for (ReadingSubscriber subscriber : watching) {
+                deliver(subscriber, reading);
+            }
+        }
+        for (ReadingSubscriber subscriber : unindexed) {
+            deliver(subscriber, reading);
+        }
+    }
+
+    private void deliver(ReadingSubscriber subscriber, ClinicalReading reading) {
+        if (subscriber.matches(reading)) {
+            subscriber.offer(reading);
+            schedule(subscriber);
+        }
+    }
+
+    private void invalidate(Long patientId) {
+        if (patientId == null) {
+            return;
+        }
+        Set<ReadingSubscriber> watching = byPatient.get(patientId);
+        if (watching != null) {
+            for (ReadingSubscriber subscriber : watching) {
+                subscriber.invalidate(patientId);
+                schedule(subscriber);
+            }
+        }
+        for (ReadingSubscriber subscriber : unindexed) {
+            subscriber.invalidate(patientId);
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(ReadingSubscriber subscriber) {
+        if (subscriber.closed || !subscriber.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> send(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.scheduled.set(false);
+        }
+    }
+
+    private void send(ReadingSubscriber subscriber) {
+        try {
+            ReadingSubscriber.Batch batch = subscriber.drain();
+            if (!batch.isEmpty() && !subscriber.closed) {
+                // SseEmitter is not safe for concurrent sends; the heartbeat takes the same lock
+                synchronized (subscriber.sendLock) {
+                    if (batch.resync()) {
+                        subscriber.emitter().send(SseEmitter.event().name("resync").data("", MediaType.TEXT_PLAIN));
+                    }
+                    if (!batch.invalidated().isEmpty()) {
+                        subscriber.emitter().send(SseEmitter.event().name("invalidate").data(batch.invalidated(), MediaType.APPLICATION_JSON));
+                    }
+                    if (!batch.readings().isEmpty()) {
+                        subscriber.emitter().send(SseEmitter.event().name("readings").data(batch.readings(), MediaType.APPLICATION_JSON));
+                        delivered.add(batch.readings().size());
+                    }
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping push subscriber {}: {}", subscriber.id(), e.getMessage());
+            subscriber.emitter().completeWithError(e);
+            unsubscribe(subscriber);
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // Readings that arrived during the send
+        if (subscriber.hasPending()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void unsubscribe(ReadingSubscriber subscriber) {
+        if (!all.remove(subscriber)) {
+            return;
+        }
+        subscriber.closed = true;
+        count.decrementAndGet();
+        coalescedByClosed.add(subscriber.coalesced());
+        droppedByClosed.add(subscriber.dropped());
+        unindexed.remove(subscriber);
+        for (Long patientId : subscriber.patientIds()) {
+            byPatient.computeIfPresent(patientId, (id, subscribers) -> {
+                subscribers.remove(subscriber);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package main.java.com.example.demo.push;
+
+import main.java.com.example.demo.dto.ClinicalReading;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// One SSE client. Pending readings are held per (patient, component) so a slow client only ever receives
+// the newest value of each vital (coalescing) and the buffer never exceeds `capacity` entries; when more
+// distinct vitals than that pile up, the oldest are dropped and the client is told to resync.
+final class ReadingSubscriber {
+
+    record Key(Long patientId, String componentName) {
+    }
+
+    // What one send writes to the client
+    record Batch(List<ClinicalReading> readings, Set<Long> invalidated, boolean resync) {
+
+        boolean isEmpty() {
+            return readings.isEmpty() && invalidated.isEmpty() && !resync;
+        }
+    }
+
+    private final long id;
+    private final SseEmitter emitter;
+    private final Set<Long> patientIds;
+    private final Set<String> componentNames;
+    private final int capacity;
+
+    private final LinkedHashMap<Key, ClinicalReading> pending = new LinkedHashMap<>();
+    private final Set<Long> invalidated = new LinkedHashSet<>();
+    private boolean resync;
+    private long coalesced;
+    private long dropped;
+
+    // True while the subscriber is queued for, or in, a send
+    final AtomicBoolean scheduled = new AtomicBoolean();
+    // Serializes writes to the emitter; separate from the buffer lock so writers never wait on a socket
+    final Object sendLock = new Object();
+    volatile boolean closed;
+
+    ReadingSubscriber(long id, SseEmitter emitter, Set<Long> patientIds, Set<String> componentNames, int capacity) {
+        this.id = id;
+        this.emitter = emitter;
+        this.patientIds = patientIds;
+        this.componentNames = componentNames;
+        this.capacity = capacity;
+    }
+
+    long id() {
+        return id;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    Set<Long> patientIds() {
+        return patientIds;
+    }
+
+    Set<String> componentNames() {
+        return componentNames;
+    }
+
+    boolean matches(ClinicalReading reading) {
+        return (patientIds.isEmpty() || patientIds.contains(reading.patientId()))
+                && (componentNames.isEmpty() || componentNames.contains(reading.componentName()));
+    }
+
+    boolean watches(Long patientId) {
+        return patientIds.isEmpty() || patientIds.contains(patientId);
+    }
+
+    // Keeps only the newest pending reading per vital
+    synchronized void offer(ClinicalReading reading) {
+        Key key = new Key(reading.patientId(), reading.componentName());
+        ClinicalReading previous = pending.get(key);
+        if (previous != null) {
+            coalesced++;
+            if (reading.isNewerThan(previous)) {
+                pending.put(key, reading);
+            }
+            return;
+        }
+        if (pending.size() >= capacity) {
+            Iterator<Map.Entry<Key, ClinicalReading>> oldest = pending.entrySet().iterator();
+            oldest.next();
+            oldest.remove();
+            dropped++;
+            resync = true;
+        }
+        pending.put(key, reading);
+    }
+
+    synchronized void invalidate(Long patientId) {
+        if (patientId == null) {
+            resync = true;
+            pending.clear();
+            invalidated.clear();
+            return;
+        }
+        pending.keySet().removeIf(key -> patientId.equals(key.patientId()));
+        if (invalidated.size() >= capacity) {
+            resync = true;
+        } else {
+            invalidated.add(patientId);
+        }
+    }
+
+    synchronized Batch drain() {
+        Batch batch = new Batch(new ArrayList<>(pending.values()), new LinkedHashSet<>(invalidated), resync);
+        pending.clear();
+        invalidated.clear();
+        resync = false;
+        return batch;
+    }
+
+    synchronized boolean hasPending() {
+        return !pending.isEmpty() || !invalidated.isEmpty() || resync;
+    }
+
+    synchronized long coalesced() {
+        return coalesced;
+    }
+
+    synchronized long dropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,53 @@
+package main.java.com.example.demo.replica;
+
+import java.util.function.Supplier;
+
+// Per-thread override that keeps read-only transactions on the primary. ReadYourWritesFilter sets it for requests
+// that write, and for requests from clients that wrote within the sticky window, so they never read a replica
+// that has not caught up with their own writes yet. Loads that fill a cache use it too (see onPrimary).
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static void usePrimary() {
+        PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static boolean primaryRequired() {
+        return PRIMARY.get() != null;
+    }
+
+    public static void clear() {
+        PRIMARY.remove();
+    }
+
+    // Runs work on a thread other than the request's (an async response body) with the request's override,
+    // captured beforehand with primaryRequired()
+    public static void onPrimaryIf(boolean primary, Runnable work) {
+        if (!primary) {
+            work.run();
+            return;
+        }
+        onPrimary(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // Runs work with reads on the primary, leaving an override already in place untouched. For loads whose result
+    // is cached: a replica still behind a write that just invalidated the entry would otherwise be cached as current.
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (primaryRequired()) {
+            return work.get();
+        }
+        usePrimary();
+        try {
+            return work.get();
+        } finally {
+            clear();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package main.java.com.example.demo.replica;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+// Read-your-writes for replica routing. A request that writes (any method but GET, HEAD and OPTIONS) reads from the
+// primary throughout and gets a cookie holding the time until which the client's later requests do the same, so a
+// GET right after a POST or PUT never sees a replica that has not applied it yet. sticky-ms should cover the usual
+// replication lag; lagging replicas beyond max-lag-seconds are taken out by ReplicaRouter anyway.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "clinical.replicas.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "clinical-primary-until";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    @Value("${clinical.replicas.sticky-ms:5000}")
+    private long stickyMs;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean writes = !READ_METHODS.contains(request.getMethod());
+        if (writes) {
+            Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis() + stickyMs));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (stickyMs + 999) / 1000));
+            response.addCookie(cookie);
+        }
+        if (writes || wroteRecently(request)) {
+            ReadRouting.usePrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadRouting.clear();
+        }
+    }
+
+    private static boolean wroteRecently(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,47 @@
+package main.java.com.example.demo.replica;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+// Sessions of read-only transactions that may read a replica only read the second-level cache (CacheMode.GET), so
+// an entity loaded from a lagging replica is never cached as current. The session's cache mode is restored when the
+// transaction ends, as with open-session-in-view the same session serves later transactions of the request.
+class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    private record TransactionData(Object delegate, Session session, CacheMode previous) {
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        if (!definition.isReadOnly() || ReadRouting.primaryRequired()) {
+            return super.beginTransaction(entityManager, definition);
+        }
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previous = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        try {
+            return new TransactionData(super.beginTransaction(entityManager, definition), session, previous);
+        } catch (RuntimeException | SQLException e) {
+            session.setCacheMode(previous);
+            throw e;
+        }
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof TransactionData data) {
+            data.session().setCacheMode(data.previous());
+            super.cleanupTransaction(data.delegate());
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+}
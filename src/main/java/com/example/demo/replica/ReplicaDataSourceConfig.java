@@ -0,0 +1,98 @@
+package main.java.com.example.demo.replica;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read/write splitting, on with clinical.replicas.enabled=true. The DataSource everything injects (JPA, JdbcTemplate
+// services) becomes a LazyConnectionDataSourceProxy over the spring.datasource pool: it hands out a connection handle
+// and only fetches the physical connection at the first statement, once the transaction's read-only flag is known,
+// taking read-only ones from ReplicaRouter. So @Transactional(readOnly = true) services and the repositories' query
+// methods read from replicas, while writes, read-write transactions and non-transactional JDBC stay on the primary.
+// The JPA vendor adapter is replaced only to install ReplicaAwareJpaDialect, which keeps replica reads out of the
+// second-level cache; it is otherwise configured from spring.jpa.* as Spring Boot's own.
+@Configuration
+@ConditionalOnProperty(name = "clinical.replicas.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    // Built from spring.datasource.* as Spring Boot would, but not injected directly
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRouter replicaRouter(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                       DataSourceProperties properties,
+                                       @Value("${clinical.replicas.urls}") List<String> urls,
+                                       @Value("${clinical.replicas.username:}") String username,
+                                       @Value("${clinical.replicas.password:}") String password,
+                                       @Value("${clinical.replicas.pool-size:10}") int poolSize,
+                                       @Value("${clinical.replicas.connection-timeout-ms:1000}") long connectionTimeoutMs,
+                                       @Value("${clinical.replicas.max-lag-seconds:5}") long maxLagSeconds,
+                                       @Value("${clinical.replicas.check-ms:2000}") long checkMs) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (pools.size() + 1));
+            config.setJdbcUrl(url.trim());
+            config.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            config.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            config.setMaximumPoolSize(poolSize);
+            config.setConnectionTimeout(connectionTimeoutMs);
+            config.setReadOnly(true);
+            // Start even while a replica is down; the health check brings it into rotation once it answers
+            config.setInitializationFailTimeout(-1);
+            pools.add(new HikariDataSource(config));
+        }
+        return new ReplicaRouter(primary, pools, maxLagSeconds, checkMs);
+    }
+
+    @Bean
+    public JpaVendorAdapter jpaVendorAdapter(JpaProperties properties) {
+        HibernateJpaDialect dialect = new ReplicaAwareJpaDialect();
+        HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter() {
+            @Override
+            public HibernateJpaDialect getJpaDialect() {
+                return dialect;
+            }
+        };
+        adapter.setShowSql(properties.isShowSql());
+        if (properties.getDatabase() != null) {
+            adapter.setDatabase(properties.getDatabase());
+        }
+        if (properties.getDatabasePlatform() != null) {
+            adapter.setDatabasePlatform(properties.getDatabasePlatform());
+        }
+        adapter.setGenerateDdl(properties.isGenerateDdl());
+        return adapter;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary, ReplicaRouter replicaRouter) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaRouter);
+        return dataSource;
+    }
+}
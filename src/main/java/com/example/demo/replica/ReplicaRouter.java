@@ -0,0 +1,197 @@
+package main.java.com.example.demo.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Source of connections for read-only transactions: round-robin over the healthy replica pools, or the primary
+// while ReadRouting requires it or no replica is healthy. A replica is healthy once its last check connected and,
+// when maxLagSeconds > 0, it was replicating no more than maxLagSeconds behind (MySQL SHOW REPLICA STATUS).
+// Checks run on their own thread every checkMs; a replica whose pool fails to hand out a connection is taken out
+// right away and comes back with the next good check.
+public class ReplicaRouter extends AbstractDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private static final int VALID_TIMEOUT_SECONDS = 2;
+    private static final String UNCHECKED = "not checked yet";
+
+    public record Stats(int replicas, int healthy, long replicaReads, long primaryReads, long fallbacks) {
+    }
+
+    public record ReplicaStatus(String name, boolean healthy, Long lagSeconds, String problem) {
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource pool;
+        private volatile boolean healthy;
+        private volatile Long lagSeconds;
+        private volatile String problem = UNCHECKED;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService checker;
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReplicaRouter(DataSource primary, List<HikariDataSource> pools, long maxLagSeconds, long checkMs) {
+        this.primary = primary;
+        for (HikariDataSource pool : pools) {
+            replicas.add(new Replica(pool));
+        }
+        this.maxLagSeconds = maxLagSeconds;
+        this.checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkAll, 0, checkMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadRouting.primaryRequired()) {
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+        int count = replicas.size();
+        int start = next.getAndIncrement();
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, count));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+        fallbacks.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Replica connections use the configured credentials");
+    }
+
+    public Stats stats() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return new Stats(replicas.size(), healthy, replicaReads.sum(), primaryReads.sum(), fallbacks.sum());
+    }
+
+    public List<ReplicaStatus> replicas() {
+        List<ReplicaStatus> statuses = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            statuses.add(new ReplicaStatus(replica.pool.getPoolName(), replica.healthy, replica.lagSeconds, replica.problem));
+        }
+        return statuses;
+    }
+
+    private void checkAll() {
+        for (Replica replica : replicas) {
+            try {
+                check(replica);
+            } catch (RuntimeException e) {
+                markDown(replica, e.toString());
+            }
+        }
+    }
+
+    private void check(Replica replica) {
+        try (Connection connection = replica.pool.getConnection()) {
+            if (!connection.isValid(VALID_TIMEOUT_SECONDS)) {
+                markDown(replica, "connection not valid");
+                return;
+            }
+            if (maxLagSeconds <= 0) {
+                markUp(replica, null);
+                return;
+            }
+            Long lag = lagSeconds(connection);
+            replica.lagSeconds = lag;
+            if (lag == null) {
+                markDown(replica, "not replicating");
+            } else if (lag > maxLagSeconds) {
+                markDown(replica, "lagging " + lag + " s behind the primary");
+            } else {
+                markUp(replica, lag);
+            }
+        } catch (SQLException e) {
+            markDown(replica, e.getMessage());
+        }
+    }
+
+    // Seconds behind the source, or null when the server is not a replica or its replication threads are stopped
+    private static Long lagSeconds(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!rs.next()) {
+                return null;
+            }
+            long lag = rs.getLong("Seconds_Behind_Source");
+            return rs.wasNull() ? null : lag;
+        }
+    }
+
+    private void markUp(Replica replica, Long lag) {
+        replica.lagSeconds = lag;
+        replica.problem = null;
+        if (!replica.healthy) {
+            replica.healthy = true;
+            log.info("Read replica {} is healthy", replica.pool.getPoolName());
+        }
+    }
+
+    private void markDown(Replica replica, String problem) {
+        String previous = replica.problem;
+        replica.problem = problem;
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Read replica {} taken out of rotation: {}", replica.pool.getPoolName(), problem);
+        } else if (UNCHECKED.equals(previous)) {
+            log.warn("Read replica {} not used yet: {}", replica.pool.getPoolName(), problem);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package main.java.com.example.demo.repository;
+
+import main.java.com.example.demo.model.ClinicalData;
+import main.java.com.example.demo.model.Patient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Per-patient and date-range lookups that span both storage tiers: hot rows in MySQL and readings moved to
+// the local columnar archive (see ClinicalDataArchive). Results are ordered by measuredDateTime, id.
+public interface ClinicalDataHistoryRepository {
+
+    // Find clinical data by patient
+    List<ClinicalData> findByPatient(Patient patient);
+
+    // Find clinical data by patient ID
+    List<ClinicalData> findByPatientId(Long patientId);
+
+    // Find clinical data by component name and patient
+    List<ClinicalData> findByComponentNameAndPatient(String componentName, Patient patient);
+
+    // Find clinical data by component name and patient ID
+    List<ClinicalData> findByComponentNameAndPatientId(String componentName, Long patientId);
+
+    // Find clinical data by date range. The MySQL side is a plain BETWEEN on the partitioning column, so it
+    // only reads the monthly partitions the range overlaps; the archive side only opens segments of those months.
+    List<ClinicalData> findByMeasuredDateTimeBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    // Find clinical data by patient and date range
+    List<ClinicalData> findByPatientAndMeasuredDateTimeBetween(Patient patient, LocalDateTime startDate, LocalDateTime endDate);
+
+    // Find clinical data by patient ID and date range
+    List<ClinicalData> findByPatientIdAndMeasuredDateTimeBetween(Long patientId, LocalDateTime startDate, LocalDateTime endDate);
+}
@@ -0,0 +1,125 @@
+package main.java.com.example.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import main.java.com.example.demo.archive.ArchivedReading;
+import main.java.com.example.demo.archive.ClinicalDataArchive;
+import main.java.com.example.demo.model.ClinicalData;
+import main.java.com.example.demo.model.Patient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Spring Data fragment behind ClinicalDataHistoryRepository. Archived readings are returned as detached,
+// read-only ClinicalData instances; when a row exists in both tiers (an archive run was interrupted before
+// its delete) the MySQL row wins.
+@Transactional(readOnly = true)
+public class ClinicalDataHistoryRepositoryImpl implements ClinicalDataHistoryRepository {
+
+    private static final Comparator<ClinicalData> BY_TIME = Comparator
+            .comparing(ClinicalData::getMeasuredDateTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ClinicalData::getId);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ClinicalDataArchive archive;
+
+    @Override
+    public List<ClinicalData> findByPatient(Patient patient) {
+        return findByPatientId(patient.getId());
+    }
+
+    @Override
+    public List<ClinicalData> findByPatientId(Long patientId) {
+        List<ClinicalData> hot = entityManager
+                .createQuery("SELECT c FROM ClinicalData c WHERE c.patient.id = :patientId", ClinicalData.class)
+                .setParameter("patientId", patientId)
+                .getResultList();
+        return merge(hot, consumer -> archive.readPatient(patientId, null, null, null, consumer));
+    }
+
+    @Override
+    public List<ClinicalData> findByComponentNameAndPatient(String componentName, Patient patient) {
+        return findByComponentNameAndPatientId(componentName, patient.getId());
+    }
+
+    @Override
+    public List<ClinicalData> findByComponentNameAndPatientId(String componentName, Long patientId) {
+        List<ClinicalData> hot = entityManager
+                .createQuery("SELECT c FROM ClinicalData c WHERE c.componentName = :componentName AND c.patient.id = :patientId",
+                        ClinicalData.class)
+                .setParameter("componentName", componentName)
+                .setParameter("patientId", patientId)
+                .getResultList();
+        return merge(hot, consumer -> archive.readPatient(patientId, componentName, null, null, consumer));
+    }
+
+    @Override
+    public List<ClinicalData> findByMeasuredDateTimeBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        List<ClinicalData> hot = entityManager
+                .createQuery("SELECT c FROM ClinicalData c WHERE c.measuredDateTime BETWEEN :startDate AND :endDate",
+                        ClinicalData.class)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate)
+                .getResultList();
+        return merge(hot, consumer -> archive.scan(startDate, endDate, consumer));
+    }
+
+    @Override
+    public List<ClinicalData> findByPatientAndMeasuredDateTimeBetween(Patient patient, LocalDateTime startDate, LocalDateTime endDate) {
+        return findByPatientIdAndMeasuredDateTimeBetween(patient.getId(), startDate, endDate);
+    }
+
+    @Override
+    public List<ClinicalData> findByPatientIdAndMeasuredDateTimeBetween(Long patientId, LocalDateTime startDate, LocalDateTime endDate) {
+        List<ClinicalData> hot = entityManager
+                .createQuery("SELECT c FROM ClinicalData c WHERE c.patient.id = :patientId " +
+                        "AND c.measuredDateTime BETWEEN :startDate AND :endDate", ClinicalData.class)
+                .setParameter("patientId", patientId)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate)
+                .getResultList();
+        return merge(hot, consumer -> archive.readPatient(patientId, null, startDate, endDate, consumer));
+    }
+
+    private List<ClinicalData> merge(List<ClinicalData> hot, Consumer<Consumer<ArchivedReading>> archived) {
+        if (archive.isEmpty()) {
+            return hot;
+        }
+        Set<Long> hotIds = new HashSet<>(hot.size() * 2);
+        for (ClinicalData clinicalData : hot) {
+            hotIds.add(clinicalData.getId());
+        }
+        List<ClinicalData> merged = new ArrayList<>(hot);
+        archived.accept(reading -> {
+            if (!hotIds.contains(reading.id())) {
+                merged.add(toClinicalData(reading));
+            }
+        });
+        if (merged.size() == hot.size()) {
+            return hot;
+        }
+        merged.sort(BY_TIME);
+        return merged;
+    }
+
+    private ClinicalData toClinicalData(ArchivedReading reading) {
+        ClinicalData clinicalData = new ClinicalData();
+        clinicalData.setId(reading.id());
+        clinicalData.setPatient(entityManager.getReference(Patient.class, reading.patientId()));
+        clinicalData.setComponentName(reading.componentName());
+        clinicalData.setComponentValue(reading.componentValue());
+        clinicalData.setMeasuredDateTime(reading.measuredDateTime());
+        clinicalData.parseComponentValue();
+        return clinicalData;
+    }
+}
@@ -0,0 +1,45 @@
+package main.java.com.example.demo.repository;
+
+import main.java.com.example.demo.model.ClinicalDataLatest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ClinicalDataLatestRepository extends JpaRepository<ClinicalDataLatest, ClinicalDataLatest.Key> {
+    
+    // Insert the projection row, or replace it when the given reading is newer (by measured time, then id).
+    // A missing measured time sorts before any other. clinicaldata_id is assigned first, so the second assignment
+    // sees whether the row was replaced. VALUES() is never the first operand of a parenthesised condition, which
+    // H2 (benchmarks) would read as a table value constructor.
+    @Modifying
+    @Query(value = "INSERT INTO clinicaldata_latest (patient_id, component_name, clinicaldata_id, measured_date_time) " +
+                   "VALUES (:patientId, :componentName, :clinicalDataId, :measuredDateTime) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "clinicaldata_id = CASE WHEN COALESCE(measured_date_time, TIMESTAMP '1000-01-01 00:00:00') " +
+                   "< COALESCE(VALUES(measured_date_time), TIMESTAMP '1000-01-01 00:00:00') " +
+                   "OR (COALESCE(measured_date_time, TIMESTAMP '1000-01-01 00:00:00') " +
+                   "= COALESCE(VALUES(measured_date_time), TIMESTAMP '1000-01-01 00:00:00') " +
+                   "AND clinicaldata_id < VALUES(clinicaldata_id)) " +
+                   "THEN VALUES(clinicaldata_id) ELSE clinicaldata_id END, " +
+                   "measured_date_time = CASE WHEN clinicaldata_id = VALUES(clinicaldata_id) " +
+                   "THEN VALUES(measured_date_time) ELSE measured_date_time END",
+           nativeQuery = true)
+    int upsertIfNewer(@Param("patientId") Long patientId, @Param("componentName") String componentName,
+                      @Param("clinicalDataId") Long clinicalDataId, @Param("measuredDateTime") LocalDateTime measuredDateTime);
+    
+    // Remove the projection row only if it points at the given reading
+    @Modifying
+    @Query("DELETE FROM ClinicalDataLatest l WHERE l.patientId = :patientId AND l.componentName = :componentName AND l.clinicalDataId = :clinicalDataId")
+    int deleteIfPointsTo(@Param("patientId") Long patientId, @Param("componentName") String componentName,
+                         @Param("clinicalDataId") Long clinicalDataId);
+    
+    // Remove all projection rows of a patient
+    @Modifying
+    @Query("DELETE FROM ClinicalDataLatest l WHERE l.patientId = :patientId")
+    int deleteByPatientId(@Param("patientId") Long patientId);
+}
@@ -1,52 +1,78 @@
 package main.java.com.example.demo.repository;
 
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.dto.PatientCount;
 import main.java.com.example.demo.model.ClinicalData;
 import main.java.com.example.demo.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+// Per-patient and date-range lookups live in ClinicalDataHistoryRepository, which also reads archived readings.
+// Every measuredDateTime range predicate is a plain BETWEEN on the partitioning column, so MySQL only reads
+// the monthly partitions the range overlaps.
+// Query methods run in read-only transactions (joining the caller's transaction when there is one), which are
+// routed to a read replica when clinical.replicas.enabled=true; inherited writes keep their read-write transactions.
 @Repository
-public interface ClinicalDataRepository extends JpaRepository<ClinicalData, Long> {
-    
-    // Find clinical data by patient
-    List<ClinicalData> findByPatient(Patient patient);
-    
-    // Find clinical data by patient ID
-    List<ClinicalData> findByPatientId(Long patientId);
+@Transactional(readOnly = true)
+public interface ClinicalDataRepository extends JpaRepository<ClinicalData, Long>, ClinicalDataHistoryRepository {
     
     // Find clinical data by component name
     List<ClinicalData> findByComponentName(String componentName);
     
-    // Find clinical data by component name and patient
-    List<ClinicalData> findByComponentNameAndPatient(String componentName, Patient patient);
+    // Find clinical data by component name with a parsed numeric value in range
+    List<ClinicalData> findByComponentNameAndNumericValueBetween(String componentName, Double minValue, Double maxValue);
     
-    // Find clinical data by component name and patient ID
-    List<ClinicalData> findByComponentNameAndPatientId(String componentName, Long patientId);
+    // Find clinical data by component name with a parsed systolic value in range
+    List<ClinicalData> findByComponentNameAndSystolicValueBetween(String componentName, Double minValue, Double maxValue);
     
-    // Find clinical data by date range
-    List<ClinicalData> findByMeasuredDateTimeBetween(LocalDateTime startDate, LocalDateTime endDate);
+    // Find clinical data by component name with a parsed diastolic value in range
+    List<ClinicalData> findByComponentNameAndDiastolicValueBetween(String componentName, Double minValue, Double maxValue);
     
-    // Find clinical data by patient and date range
-    List<ClinicalData> findByPatientAndMeasuredDateTimeBetween(Patient patient, LocalDateTime startDate, LocalDateTime endDate);
+    // Rows whose parsed numeric columns have not been filled yet, for the backfill job
+    List<ClinicalData> findByNumericValueIsNullAndIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
     
-    // Find clinical data by patient ID and date range
-    List<ClinicalData> findByPatientIdAndMeasuredDateTimeBetween(Long patientId, LocalDateTime startDate, LocalDateTime endDate);
+    // Find latest clinical data for each component by patient (one row per component via clinicaldata_latest)
+    default List<ClinicalData> findLatestClinicalDataByPatient(Patient patient) {
+        return findLatestClinicalDataByPatientId(patient.getId());
+    }
     
-    // Custom query to find latest clinical data for each component by patient
-    @Query("SELECT c FROM ClinicalData c WHERE c.patient = :patient AND c.measuredDateTime = " +
-           "(SELECT MAX(c2.measuredDateTime) FROM ClinicalData c2 WHERE c2.patient = :patient AND c2.componentName = c.componentName)")
-    List<ClinicalData> findLatestClinicalDataByPatient(@Param("patient") Patient patient);
+    // Custom query to find latest clinical data for each component by patient ID through the maintained projection
+    @Query("SELECT c FROM ClinicalDataLatest l JOIN ClinicalData c ON c.id = l.clinicalDataId WHERE l.patientId = :patientId")
+    List<ClinicalData> findLatestClinicalDataByPatientId(@Param("patientId") Long patientId);
     
-    // Custom query to find latest clinical data for a specific component by patient ID
-    @Query("SELECT c FROM ClinicalData c WHERE c.patient.id = :patientId AND c.componentName = :componentName " +
-           "ORDER BY c.measuredDateTime DESC LIMIT 1")
+    // Custom query to find latest clinical data for a specific component by patient ID through the maintained projection
+    @Query("SELECT c FROM ClinicalDataLatest l JOIN ClinicalData c ON c.id = l.clinicalDataId " +
+           "WHERE l.patientId = :patientId AND l.componentName = :componentName")
     ClinicalData findLatestByPatientIdAndComponentName(@Param("patientId") Long patientId, @Param("componentName") String componentName);
     
+    // Clinical data counts for a set of patients in one grouped query; patients without data are absent
+    @Query("SELECT new main.java.com.example.demo.dto.PatientCount(c.patient.id, COUNT(c)) FROM ClinicalData c " +
+           "WHERE c.patient.id IN :patientIds GROUP BY c.patient.id")
+    List<PatientCount> countByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+    
+    // Latest reading per component for a set of patients as DTOs, in one query without loading entities
+    @Query("SELECT new main.java.com.example.demo.dto.ClinicalReading(c.id, l.patientId, c.componentName, c.componentValue, " +
+           "c.measuredDateTime, c.numericValue, c.systolicValue, c.diastolicValue) " +
+           "FROM ClinicalDataLatest l JOIN ClinicalData c ON c.id = l.clinicalDataId WHERE l.patientId IN :patientIds")
+    List<ClinicalReading> findLatestReadingsByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+    
+    // Newest reading for a patient and component straight from clinicaldata (composite index), used to repair the projection
+    ClinicalData findFirstByPatientIdAndComponentNameOrderByMeasuredDateTimeDescIdDesc(Long patientId, String componentName);
+    
     // Count clinical data entries by patient
     long countByPatient(Patient patient);
     
@@ -63,4 +89,40 @@ public interface ClinicalDataRepository extends JpaRepository<ClinicalData, Long
     // Custom query to get distinct component names for a patient
     @Query("SELECT DISTINCT c.componentName FROM ClinicalData c WHERE c.patient.id = :patientId")
     List<String> findDistinctComponentNamesByPatientId(@Param("patientId") Long patientId);
+    
+    // Keyset pagination: next page of clinical data ordered by id
+    List<ClinicalData> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    
+    // Keyset pagination: next page of clinical data for a patient ordered by id
+    List<ClinicalData> findByPatientIdAndIdGreaterThanOrderByIdAsc(Long patientId, Long afterId, Limit limit);
+    
+    // Keyset pagination: next page of clinical data for a component ordered by id
+    List<ClinicalData> findByComponentNameAndIdGreaterThanOrderByIdAsc(String componentName, Long afterId, Limit limit);
+    
+    // Keyset pagination: next page of clinical data for a component and patient ordered by id
+    List<ClinicalData> findByComponentNameAndPatientIdAndIdGreaterThanOrderByIdAsc(String componentName, Long patientId, Long afterId, Limit limit);
+    
+    // Keyset pagination: next page of a date range ordered by (measuredDateTime, id)
+    @Query("SELECT c FROM ClinicalData c WHERE c.measuredDateTime BETWEEN :startDate AND :endDate " +
+           "AND (c.measuredDateTime > :afterTime OR (c.measuredDateTime = :afterTime AND c.id > :afterId)) " +
+           "ORDER BY c.measuredDateTime ASC, c.id ASC")
+    List<ClinicalData> findByMeasuredDateTimeBetweenAfter(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate,
+                                                          @Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId, Limit limit);
+    
+    // Streaming variants backed by a JDBC cursor; must be consumed inside a transaction and closed
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT c FROM ClinicalData c ORDER BY c.id")
+    Stream<ClinicalData> streamAll();
+    
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<ClinicalData> streamByPatientIdOrderByIdAsc(Long patientId);
+    
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<ClinicalData> streamByComponentNameOrderByIdAsc(String componentName);
+    
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<ClinicalData> streamByComponentNameAndPatientIdOrderByIdAsc(String componentName, Long patientId);
+    
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<ClinicalData> streamByMeasuredDateTimeBetweenOrderByMeasuredDateTimeAscIdAsc(LocalDateTime startDate, LocalDateTime endDate);
 }
@@ -1,17 +1,29 @@
 package main.java.com.example.demo.repository;
 
+import main.java.com.example.demo.dto.PatientSummary;
 import main.java.com.example.demo.model.Patient;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+// Query methods run in read-only transactions, routed to a read replica when clinical.replicas.enabled=true
 @Repository
+@Transactional(readOnly = true)
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     
+    // On the primary: a miss fills the Patient second-level cache, which must not hold a lagging replica's state
+    // (hits do not reach a database at all)
+    @Override
+    @Transactional
+    Optional<Patient> findById(Long id);
+
     // Find patient by first name and last name
     Optional<Patient> findByFirstNameAndLastName(String firstName, String lastName);
     
@@ -31,10 +43,56 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     @Query("SELECT p FROM Patient p WHERE p.age > :age")
     List<Patient> findPatientsOlderThan(@Param("age") int age);
     
-    // Custom query to find patients with clinical data
-    @Query("SELECT DISTINCT p FROM Patient p JOIN p.clinicalDataList c")
+    // Custom query to find patients with clinical data; the collection is fetched in the same query
+    // (the inner fetch join also keeps only patients that have clinical data)
+    @Query("SELECT DISTINCT p FROM Patient p JOIN FETCH p.clinicalDataList")
     List<Patient> findPatientsWithClinicalData();
     
+    // Patients with clinical data as column-only projections
+    @Query("SELECT new main.java.com.example.demo.dto.PatientSummary(p.id, p.firstName, p.lastName, p.age) FROM Patient p " +
+           "WHERE EXISTS (SELECT 1 FROM ClinicalData c WHERE c.patient = p) ORDER BY p.id")
+    List<PatientSummary> findPatientSummariesWithClinicalData();
+    
+    // Keyset pagination over patient projections
+    @Query("SELECT new main.java.com.example.demo.dto.PatientSummary(p.id, p.firstName, p.lastName, p.age) FROM Patient p " +
+           "WHERE p.id > :afterId ORDER BY p.id ASC")
+    List<PatientSummary> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+    
+    // Patient projections for a set of ids in one IN query
+    @Query("SELECT new main.java.com.example.demo.dto.PatientSummary(p.id, p.firstName, p.lastName, p.age) FROM Patient p " +
+           "WHERE p.id IN :ids")
+    List<PatientSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Set-based existence check: which of the given ids are patients
+    @Query("SELECT p.id FROM Patient p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
     // Count patients by age
     long countByAge(int age);
+    
+    // Keyset pagination: next page of patient projections by first name
+    @Query("SELECT new main.java.com.example.demo.dto.PatientSummary(p.id, p.firstName, p.lastName, p.age) FROM Patient p " +
+           "WHERE p.firstName = :firstName AND p.id > :afterId ORDER BY p.id ASC")
+    List<PatientSummary> findSummariesByFirstNameAfter(@Param("firstName") String firstName, @Param("afterId") Long afterId, Limit limit);
+    
+    // Keyset pagination: next page of patient projections by last name
+    @Query("SELECT new main.java.com.example.demo.dto.PatientSummary(p.id, p.firstName, p.lastName, p.age) FROM Patient p " +
+           "WHERE p.lastName = :lastName AND p.id > :afterId ORDER BY p.id ASC")
+    List<PatientSummary> findSummariesByLastNameAfter(@Param("lastName") String lastName, @Param("afterId") Long afterId, Limit limit);
+    
+    // Keyset pagination: next page of patient projections by age
+    @Query("SELECT new main.java.com.example.demo.dto.PatientSummary(p.id, p.firstName, p.lastName, p.age) FROM Patient p " +
+           "WHERE p.age = :age AND p.id > :afterId ORDER BY p.id ASC")
+    List<PatientSummary> findSummariesByAgeAfter(@Param("age") int age, @Param("afterId") Long afterId, Limit limit);
+    
+    // Keyset pagination: next page of patient projections by age range
+    @Query("SELECT new main.java.com.example.demo.dto.PatientSummary(p.id, p.firstName, p.lastName, p.age) FROM Patient p " +
+           "WHERE p.age BETWEEN :minAge AND :maxAge AND p.id > :afterId ORDER BY p.id ASC")
+    List<PatientSummary> findSummariesByAgeBetweenAfter(@Param("minAge") int minAge, @Param("maxAge") int maxAge,
+                                                        @Param("afterId") Long afterId, Limit limit);
+    
+    // Keyset pagination: next page of patient projections with clinical data
+    @Query("SELECT new main.java.com.example.demo.dto.PatientSummary(p.id, p.firstName, p.lastName, p.age) FROM Patient p " +
+           "WHERE p.id > :afterId AND EXISTS (SELECT 1 FROM ClinicalData c WHERE c.patient = p) ORDER BY p.id ASC")
+    List<PatientSummary> findSummariesWithClinicalDataAfter(@Param("afterId") Long afterId, Limit limit);
 }
@@ -0,0 +1,615 @@
+package main.java.com.example.demo.search;
+
+import main.java.com.example.demo.dto.PatientSearchHit;
+import main.java.com.example.demo.dto.PatientSummary;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over patient names, age and id for ranked type-ahead search.
+//
+// Every patient gets a slot; names are folded (accents stripped, lower case, punctuation as word breaks) and each
+// word is posted under its prefix trigrams ("  s", " sm", "smi", ...), so a query word finds names it is a prefix of
+// by intersecting its own trigram lists. When prefixes find nobody, words of four letters or more instead
+// accept candidates sharing only part of their trigrams, kept if within one or two edits. Ages have their own
+// posting lists.
+//
+// Slots are appended in increasing order, so every posting list is sorted without ever being re-sorted. Updates
+// retire the old slot and append a new one; retired slots are skipped by queries until compacted() copies the
+// live patients into a fresh index.
+public class PatientSearchIndex {
+
+    // Hits ranked per query; deeper pages are not served
+    public static final int MAX_WINDOW = 10_000;
+
+    private static final char PAD = ' ';
+
+    public record Stats(int patients, int slots, int retiredSlots, int trigrams) {
+    }
+
+    // One query term: a folded word for the name fields, a number for ID and NUMBER (id or age), a range for AGE
+    private record Term(Field field, String text, long number, int low, int high) {
+    }
+
+    private enum Field {
+        ANY, FIRST, LAST, AGE, ID, NUMBER
+    }
+
+    private record Scored(int slot, double score) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[1024];
+    private int[] ages = new int[1024];
+    private String[] firstNames = new String[1024];
+    private String[] lastNames = new String[1024];
+    private String[] firstKeys = new String[1024];
+    private String[] lastKeys = new String[1024];
+    private int slots;
+    private final BitSet retired = new BitSet();
+    private int retiredCount;
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Map<Long, IntList> trigramPostings = new HashMap<>();
+    private final Map<Integer, IntList> agePostings = new HashMap<>();
+
+    // Adds the patient, replacing any earlier state for the same id
+    public void put(PatientSummary patient) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(patient.id());
+            int slot = slots++;
+            ensureCapacity(slots);
+            ids[slot] = patient.id();
+            ages[slot] = patient.age();
+            firstNames[slot] = patient.firstName();
+            lastNames[slot] = patient.lastName();
+            firstKeys[slot] = fold(patient.firstName());
+            lastKeys[slot] = fold(patient.lastName());
+            for (long gram : distinct(wordTrigrams(firstKeys[slot] + PAD + lastKeys[slot]))) {
+                trigramPostings.computeIfAbsent(gram, g -> new IntList()).add(slot);
+            }
+            agePostings.computeIfAbsent(patient.age(), a -> new IntList()).add(slot);
+            slotById.put(patient.id(), slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long patientId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(patientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Stats stats() {
+        lock.readLock().lock();
+        try {
+            return new Stats(slotById.size(), slots, retiredCount, trigramPostings.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A fresh index holding only the live patients, for when retired slots have piled up
+    public PatientSearchIndex compacted() {
+        PatientSearchIndex compacted = new PatientSearchIndex();
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < slots; slot++) {
+                if (!retired.get(slot)) {
+                    compacted.put(new PatientSummary(ids[slot], firstNames[slot], lastNames[slot], ages[slot]));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return compacted;
+    }
+
+    // Best max hits for the query, highest score first, ties by last name, first name and id.
+    //
+    // Words match first or last names by prefix; only when that finds nobody are words of four letters or more
+    // matched within one or two edits instead, so typo matches never crowd out real ones. "first:", "last:",
+    // "age:" (a number or a low-high range) and "id:" restrict a term to one field, and a bare number matches the
+    // id or the age. All terms must match.
+    public List<PatientSearchHit> search(String query, int max) {
+        List<Term> terms = parse(query);
+        if (terms.isEmpty() || max <= 0) {
+            return List.of();
+        }
+        int window = Math.min(max, MAX_WINDOW);
+        lock.readLock().lock();
+        try {
+            List<PatientSearchHit> hits = rank(terms, window, false);
+            if (hits.isEmpty() && terms.stream().anyMatch(term -> term.text().length() >= 4)) {
+                hits = rank(terms, window, true);
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<PatientSearchHit> rank(List<Term> terms, int window, boolean fuzzy) {
+        // Only the most selective term is expanded into candidates; the others are checked on each candidate
+        Term driver = terms.get(0);
+        long driverCost = Long.MAX_VALUE;
+        for (Term term : terms) {
+            long cost = cost(term, fuzzy);
+            if (cost < driverCost) {
+                driver = term;
+                driverCost = cost;
+            }
+        }
+        Comparator<Scored> ranking = Comparator.comparingDouble(Scored::score).reversed()
+                .thenComparing(scored -> lastKeys[scored.slot()])
+                .thenComparing(scored -> firstKeys[scored.slot()])
+                .thenComparingLong(scored -> ids[scored.slot()]);
+        PriorityQueue<Scored> best = new PriorityQueue<>(Math.min(window, 1024) + 1, ranking.reversed());
+        for (int slot : candidates(driver, fuzzy)) {
+            if (retired.get(slot)) {
+                continue;
+            }
+            double score = 0;
+            for (Term term : terms) {
+                double termScore = score(term, slot, fuzzy);
+                if (termScore == 0) {
+                    score = 0;
+                    break;
+                }
+                score += termScore;
+            }
+            if (score == 0) {
+                continue;
+            }
+            Scored scored = new Scored(slot, score);
+            if (best.size() < window) {
+                best.add(scored);
+            } else if (ranking.compare(scored, best.peek()) < 0) {
+                best.poll();
+                best.add(scored);
+            }
+        }
+        List<Scored> ranked = new ArrayList<>(best);
+        ranked.sort(ranking);
+        List<PatientSearchHit> hits = new ArrayList<>(ranked.size());
+        for (Scored scored : ranked) {
+            int slot = scored.slot();
+            hits.add(new PatientSearchHit(ids[slot], firstNames[slot], lastNames[slot], ages[slot], scored.score()));
+        }
+        return hits;
+    }
+
+    private void removeLocked(Long patientId) {
+        Integer slot = slotById.remove(patientId);
+        if (slot != null) {
+            retired.set(slot);
+            retiredCount++;
+            firstNames[slot] = null;
+            lastNames[slot] = null;
+            firstKeys[slot] = null;
+            lastKeys[slot] = null;
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(needed, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        firstNames = Arrays.copyOf(firstNames, capacity);
+        lastNames = Arrays.copyOf(lastNames, capacity);
+        firstKeys = Arrays.copyOf(firstKeys, capacity);
+        lastKeys = Arrays.copyOf(lastKeys, capacity);
+    }
+
+    // Query parsing
+
+    private static List<Term> parse(String query) {
+        List<Term> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+        for (String token : query.trim().split("\\s+")) {
+            int colon = token.indexOf(':');
+            String prefix = colon > 0 ? token.substring(0, colon).toLowerCase(Locale.ROOT) : "";
+            String value = colon > 0 ? token.substring(colon + 1) : token;
+            switch (prefix) {
+                case "first" -> addWords(terms, Field.FIRST, value);
+                case "last" -> addWords(terms, Field.LAST, value);
+                case "age" -> terms.add(ageTerm(value));
+                case "id" -> {
+                    if (!isNumber(value)) {
+                        throw new IllegalArgumentException("Invalid id: " + value);
+                    }
+                    terms.add(new Term(Field.ID, value, Long.parseLong(value), 0, 0));
+                }
+                default -> addWords(terms, Field.ANY, token);
+            }
+        }
+        return terms;
+    }
+
+    private static void addWords(List<Term> terms, Field field, String value) {
+        String folded = fold(value);
+        if (folded.isEmpty()) {
+            return;
+        }
+        for (String word : folded.split(" ")) {
+            if (field == Field.ANY && isNumber(word)) {
+                terms.add(new Term(Field.NUMBER, word, Long.parseLong(word), 0, 0));
+            } else {
+                terms.add(new Term(field, word, 0, 0, 0));
+            }
+        }
+    }
+
+    private static Term ageTerm(String value) {
+        try {
+            int dash = value.indexOf('-', 1);
+            int low = Integer.parseInt(dash < 0 ? value : value.substring(0, dash));
+            int high = dash < 0 ? low : Integer.parseInt(value.substring(dash + 1));
+            if (low > high) {
+                throw new IllegalArgumentException("Invalid age range: " + value);
+            }
+            return new Term(Field.AGE, value, 0, low, high);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid age: " + value, e);
+        }
+    }
+
+    private static boolean isNumber(String text) {
+        if (text.isEmpty() || text.length() > 18) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Candidate generation
+
+    private long cost(Term term, boolean fuzzy) {
+        switch (term.field()) {
+            case ID:
+                return 1;
+            case AGE:
+                return ageCost(term.low(), term.high());
+            case NUMBER: {
+                int age = (int) Math.min(term.number(), Integer.MAX_VALUE);
+                return 1 + ageCost(age, age);
+            }
+            default:
+                long[] grams = distinct(wordTrigrams(term.text()));
+                boolean exact = required(grams.length, fuzzy) == grams.length;
+                long cost = exact ? Long.MAX_VALUE : 0;
+                for (long gram : grams) {
+                    IntList postings = trigramPostings.get(gram);
+                    int size = postings == null ? 0 : postings.size;
+                    cost = exact ? Math.min(cost, size) : cost + size;
+                }
+                return cost;
+        }
+    }
+
+    private long ageCost(int low, int high) {
+        long cost = 0;
+        for (Map.Entry<Integer, IntList> entry : agePostings.entrySet()) {
+            if (entry.getKey() >= low && entry.getKey() <= high) {
+                cost += entry.getValue().size;
+            }
+        }
+        return cost;
+    }
+
+    // Sorted slots that may match the term; retired slots and false positives are filtered by score()
+    private int[] candidates(Term term, boolean fuzzy) {
+        switch (term.field()) {
+            case ID: {
+                Integer slot = slotById.get(term.number());
+                return slot == null ? new int[0] : new int[] {slot};
+            }
+            case AGE:
+                return ageSlots(term.low(), term.high(), null);
+            case NUMBER: {
+                int age = (int) Math.min(term.number(), Integer.MAX_VALUE);
+                return ageSlots(age, age, slotById.get(term.number()));
+            }
+            default:
+                long[] grams = distinct(wordTrigrams(term.text()));
+                List<IntList> lists = new ArrayList<>(grams.length);
+                for (long gram : grams) {
+                    IntList postings = trigramPostings.get(gram);
+                    lists.add(postings == null ? new IntList() : postings);
+                }
+                int required = required(grams.length, fuzzy);
+                return required == grams.length ? intersect(lists) : atLeast(lists, required);
+        }
+    }
+
+    private int[] ageSlots(int low, int high, Integer extra) {
+        List<IntList> lists = new ArrayList<>();
+        for (Map.Entry<Integer, IntList> entry : agePostings.entrySet()) {
+            if (entry.getKey() >= low && entry.getKey() <= high) {
+                lists.add(entry.getValue());
+            }
+        }
+        if (extra != null) {
+            IntList single = new IntList();
+            single.add(extra);
+            lists.add(single);
+        }
+        return atLeast(lists, 1);
+    }
+
+    // Trigrams a word must share with a name: all of them for a prefix match; when fuzzy, two in five from four
+    // letters on, so a transposed or mistyped letter still leaves the word a candidate
+    static int required(int trigrams, boolean fuzzy) {
+        return !fuzzy || trigrams <= 3 ? trigrams : Math.max(2, (trigrams * 2 + 4) / 5);
+    }
+
+    private static int[] intersect(List<IntList> lists) {
+        if (lists.isEmpty()) {
+            return new int[0];
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        IntList smallest = lists.get(0);
+        int[] from = new int[lists.size()];
+        int[] result = new int[smallest.size];
+        int count = 0;
+        outer:
+        for (int i = 0; i < smallest.size; i++) {
+            int slot = smallest.values[i];
+            for (int l = 1; l < lists.size(); l++) {
+                IntList list = lists.get(l);
+                int at = Arrays.binarySearch(list.values, from[l], list.size, slot);
+                if (at < 0) {
+                    from[l] = -at - 1;
+                    if (from[l] >= list.size) {
+                        break outer;
+                    }
+                    continue outer;
+                }
+                from[l] = at + 1;
+            }
+            result[count++] = slot;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Slots present in at least required of the sorted lists, by merging them
+    private static int[] atLeast(List<IntList> lists, int required) {
+        int[] heads = new int[lists.size()];
+        IntList result = new IntList();
+        while (true) {
+            int min = Integer.MAX_VALUE;
+            for (int l = 0; l < lists.size(); l++) {
+                if (heads[l] < lists.get(l).size) {
+                    min = Math.min(min, lists.get(l).values[heads[l]]);
+                }
+            }
+            if (min == Integer.MAX_VALUE) {
+                return Arrays.copyOf(result.values, result.size);
+            }
+            int count = 0;
+            for (int l = 0; l < lists.size(); l++) {
+                IntList list = lists.get(l);
+                if (heads[l] < list.size && list.values[heads[l]] == min) {
+                    heads[l]++;
+                    count++;
+                }
+            }
+            if (count >= required) {
+                result.add(min);
+            }
+        }
+    }
+
+    // Scoring
+
+    private double score(Term term, int slot, boolean fuzzy) {
+        switch (term.field()) {
+            case ID:
+                return ids[slot] == term.number() ? 1.0 : 0;
+            case AGE:
+                return ages[slot] >= term.low() && ages[slot] <= term.high() ? 0.5 : 0;
+            case FIRST:
+                return nameScore(term.text(), firstKeys[slot], fuzzy);
+            case LAST:
+                return nameScore(term.text(), lastKeys[slot], fuzzy);
+            case NUMBER:
+                return ids[slot] == term.number() ? 1.0 : ages[slot] == term.number() ? 0.5 : 0;
+            default:
+                return Math.max(nameScore(term.text(), firstKeys[slot], fuzzy), nameScore(term.text(), lastKeys[slot], fuzzy));
+        }
+    }
+
+    // 1 for a whole word, 0.7-0.9 for a prefix (more for a longer share of the word), below that for a word or
+    // word prefix within the allowed edits when fuzzy, 0 otherwise
+    static double nameScore(String term, String key, boolean fuzzy) {
+        if (key == null || key.isEmpty()) {
+            return 0;
+        }
+        int allowed = !fuzzy ? 0 : term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+        double best = 0;
+        for (int start = 0; start < key.length(); ) {
+            int end = key.indexOf(PAD, start);
+            if (end < 0) {
+                end = key.length();
+            }
+            int length = end - start;
+            if (length == term.length() && key.startsWith(term, start)) {
+                return 1.0;
+            }
+            if (length > term.length() && key.startsWith(term, start)) {
+                best = Math.max(best, 0.7 + 0.2 * term.length() / length);
+            } else if (allowed > 0 && Math.abs(length - term.length()) <= allowed) {
+                int whole = editDistance(term, key.substring(start, end), allowed);
+                if (whole <= allowed) {
+                    best = Math.max(best, 0.6 - 0.15 * whole);
+                }
+            }
+            if (allowed > 0 && length > term.length() && best < 0.5) {
+                int prefix = editDistance(term, key.substring(start, start + term.length()), allowed);
+                if (prefix <= allowed) {
+                    best = Math.max(best, 0.5 - 0.15 * prefix);
+                }
+            }
+            start = end + 1;
+        }
+        return best;
+    }
+
+    // Optimal string alignment distance (adjacent transpositions count once); anything above max returns max + 1
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] twoBack = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, twoBack[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = twoBack;
+            twoBack = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    // Text folding and trigrams
+
+    // Accents stripped, lower case, letters and digits only, words separated by single spaces
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        boolean gap = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            int type = Character.getType(c);
+            if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK || type == Character.ENCLOSING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                switch (c) {
+                    // Letters without a decomposition into base letter and accent
+                    case 'ß' -> folded.append("ss");
+                    case 'Æ', 'æ' -> folded.append("ae");
+                    case 'Œ', 'œ' -> folded.append("oe");
+                    case 'Ø', 'ø' -> folded.append('o');
+                    case 'Ł', 'ł' -> folded.append('l');
+                    case 'Đ', 'đ' -> folded.append('d');
+                    case 'ı' -> folded.append('i');
+                    default -> folded.append(Character.toLowerCase(c));
+                }
+                gap = false;
+            } else if (!gap) {
+                folded.append(PAD);
+                gap = true;
+            }
+        }
+        int end = folded.length();
+        if (end > 0 && folded.charAt(end - 1) == PAD) {
+            folded.setLength(end - 1);
+        }
+        return folded.toString();
+    }
+
+    // Prefix trigrams of every word in folded text: two pad characters before each word, none after, so a
+    // word's trigrams are a subset of those of every longer word it is a prefix of
+    static long[] wordTrigrams(String folded) {
+        long[] grams = new long[folded.length()];
+        int count = 0;
+        char first = PAD;
+        char second = PAD;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (c == PAD) {
+                first = PAD;
+                second = PAD;
+                continue;
+            }
+            grams[count++] = ((long) first << 32) | ((long) second << 16) | c;
+            first = second;
+            second = c;
+        }
+        return Arrays.copyOf(grams, count);
+    }
+
+    private static long[] distinct(long[] grams) {
+        if (grams.length < 2) {
+            return grams;
+        }
+        long[] sorted = grams.clone();
+        Arrays.sort(sorted);
+        int count = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[count - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    // Growable int array for posting lists
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1) + 1);
+            }
+            values[size++] = value;
+        }
+    }
+}
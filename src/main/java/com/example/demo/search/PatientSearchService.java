@@ -0,0 +1,140 @@
+package main.java.com.example.demo.search;
+
+import main.java.com.example.demo.dto.CursorPage;
+import main.java.com.example.demo.dto.KeysetCursor;
+import main.java.com.example.demo.dto.PatientSearchHit;
+import main.java.com.example.demo.dto.PatientSummary;
+import main.java.com.example.demo.event.PatientChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Owns the patient search index: built from the patient table in the background once the application is ready,
+// then kept current from PatientChangedEvents. Changes arriving during a rebuild are applied to the index being
+// served and replayed onto the new one before it is swapped in.
+@Service
+@ConditionalOnProperty(name = "clinical.search.enabled", havingValue = "true", matchIfMissing = true)
+public class PatientSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchService.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Retired slots tolerated, as a fraction of live patients, before the index is compacted
+    @Value("${clinical.search.compact-ratio:0.25}")
+    private double compactRatio;
+
+    private volatile PatientSearchIndex index = new PatientSearchIndex();
+    private volatile boolean ready;
+
+    // Guards index swaps and the pending list; held while applying a change so none is lost to a swap
+    private final Object changeLock = new Object();
+    private List<PatientChangedEvent> pending;
+
+    @Autowired
+    public PatientSearchService(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread builder = new Thread(this::rebuild, "patient-search-rebuild");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    // Reloads every patient into a fresh index and swaps it in
+    public void rebuild() {
+        synchronized (changeLock) {
+            if (pending != null) {
+                return;
+            }
+            pending = new ArrayList<>();
+        }
+        PatientSearchIndex fresh = new PatientSearchIndex();
+        long started = System.nanoTime();
+        try {
+            jdbcTemplate.query("SELECT id, first_name, last_name, age FROM patient", rs -> {
+                fresh.put(new PatientSummary(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4)));
+            });
+        } catch (RuntimeException e) {
+            synchronized (changeLock) {
+                pending = null;
+            }
+            log.error("Patient search index rebuild failed", e);
+            return;
+        }
+        PatientSearchIndex built = fresh;
+        synchronized (changeLock) {
+            for (PatientChangedEvent event : pending) {
+                built = apply(built, event);
+            }
+            pending = null;
+            index = built;
+            ready = true;
+        }
+        log.info("Patient search index built with {} patients in {} ms", built.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        synchronized (changeLock) {
+            if (pending != null) {
+                pending.add(event);
+            }
+            PatientSearchIndex current = apply(index, event);
+            PatientSearchIndex.Stats stats = current.stats();
+            index = stats.retiredSlots() > Math.max(1024, stats.patients() * compactRatio) ? current.compacted() : current;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Ranked page of hits; the cursor carries the offset into the ranking, which is recomputed per page
+    public CursorPage<PatientSearchHit> search(String query, String cursor, int limit) {
+        long offset = KeysetCursor.decodeId(cursor);
+        if (offset < 0 || offset >= PatientSearchIndex.MAX_WINDOW) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        int size = CursorPage.clampLimit(limit);
+        List<PatientSearchHit> hits = index.search(query, (int) offset + size + 1);
+        if (hits.size() <= offset) {
+            return new CursorPage<>(List.of(), null);
+        }
+        int end = (int) Math.min(hits.size(), offset + size);
+        String next = hits.size() > end && end < PatientSearchIndex.MAX_WINDOW ? KeysetCursor.encodeId(end) : null;
+        return new CursorPage<>(new ArrayList<>(hits.subList((int) offset, end)), next);
+    }
+
+    public PatientSearchIndex.Stats stats() {
+        return index.stats();
+    }
+
+    // The index to serve after the change: the same one updated, or an empty one after CLEARED
+    private static PatientSearchIndex apply(PatientSearchIndex target, PatientChangedEvent event) {
+        switch (event.type()) {
+            case SAVED -> target.put(event.patient());
+            case REMOVED -> target.remove(event.patientId());
+            case CLEARED -> {
+                return new PatientSearchIndex();
+            }
+        }
+        return target;
+    }
+}
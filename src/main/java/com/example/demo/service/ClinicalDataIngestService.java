@@ -0,0 +1,166 @@
+package main.java.com.example.demo.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import main.java.com.example.demo.dto.BulkItemResult;
+import main.java.com.example.demo.dto.ClinicalDataRequest;
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.event.ClinicalDataChangedEvent;
+import main.java.com.example.demo.model.ClinicalData;
+import main.java.com.example.demo.model.Patient;
+import main.java.com.example.demo.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Bulk write path for clinical readings: one set-based patient lookup and one transaction per chunk,
+// with inserts grouped into JDBC batches (hibernate.jdbc.batch_size)
+@Service
+public class ClinicalDataIngestService {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LatestProjectionService latestProjectionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Readings written per transaction
+    @Value("${clinical.ingest.chunk-size:1000}")
+    private int chunkSize;
+
+    // Matches hibernate.jdbc.batch_size; the persistence context is flushed and cleared at this interval
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    public List<BulkItemResult> ingest(List<ClinicalDataRequest> readings) {
+        List<BulkItemResult> results = new ArrayList<>(readings.size());
+        for (int from = 0; from < readings.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, readings.size());
+            results.addAll(writeChunk(readings.subList(from, to), from));
+        }
+        return results;
+    }
+
+    // Reads one JSON reading per line and writes them chunk by chunk, so the request body is never fully buffered
+    public List<BulkItemResult> ingestNdjson(InputStream body) throws IOException {
+        List<BulkItemResult> results = new ArrayList<>();
+        List<ClinicalDataRequest> chunk = new ArrayList<>(chunkSize);
+        int base = 0;
+        try (MappingIterator<ClinicalDataRequest> lines = objectMapper.readerFor(ClinicalDataRequest.class).readValues(body)) {
+            while (lines.hasNextValue()) {
+                chunk.add(lines.nextValue());
+                if (chunk.size() == chunkSize) {
+                    results.addAll(writeChunk(chunk, base));
+                    base += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(writeChunk(chunk, base));
+        }
+        return results;
+    }
+
+    private List<BulkItemResult> writeChunk(List<ClinicalDataRequest> chunk, int baseIndex) {
+        BulkItemResult[] results = new BulkItemResult[chunk.size()];
+
+        // Validate shape first, then check every referenced patient with a single IN query
+        Set<Long> patientIds = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ClinicalDataRequest reading = chunk.get(i);
+            String error = reading == null ? "reading is required" : reading.validate();
+            if (error != null) {
+                results[i] = BulkItemResult.rejected(baseIndex + i, error);
+            } else {
+                patientIds.add(reading.patientId());
+            }
+        }
+        if (patientIds.isEmpty()) {
+            return List.of(results);
+        }
+
+        // The patient lookup is guarded with the write: a database outage fails the readings instead of the chunk
+        try {
+            Set<Long> existing = new HashSet<>(patientRepository.findExistingIds(patientIds));
+            List<Integer> accepted = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                if (results[i] == null) {
+                    if (existing.contains(chunk.get(i).patientId())) {
+                        accepted.add(i);
+                    } else {
+                        results[i] = BulkItemResult.rejected(baseIndex + i, "patient " + chunk.get(i).patientId() + " not found");
+                    }
+                }
+            }
+            if (!accepted.isEmpty()) {
+                List<ClinicalReading> readings = new TransactionTemplate(transactionManager).execute(status -> {
+                    List<ClinicalReading> written = persist(chunk, accepted);
+                    latestProjectionService.recordInserts(written);
+                    return written;
+                });
+                for (int k = 0; k < accepted.size(); k++) {
+                    int i = accepted.get(k);
+                    results[i] = BulkItemResult.created(baseIndex + i, readings.get(k).id());
+                }
+                eventPublisher.publishEvent(ClinicalDataChangedEvent.created(readings));
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i < chunk.size(); i++) {
+                if (results[i] == null) {
+                    results[i] = BulkItemResult.failed(baseIndex + i, e.getMessage());
+                }
+            }
+        }
+        return List.of(results);
+    }
+
+    private List<ClinicalReading> persist(List<ClinicalDataRequest> chunk, List<Integer> accepted) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ClinicalReading> saved = new ArrayList<>(accepted.size());
+        for (int i : accepted) {
+            ClinicalDataRequest reading = chunk.get(i);
+            ClinicalData clinicalData = new ClinicalData();
+            // Patients were verified above; a reference avoids loading each one
+            clinicalData.setPatient(entityManager.getReference(Patient.class, reading.patientId()));
+            clinicalData.setComponentName(reading.componentName());
+            clinicalData.setComponentValue(reading.componentValue());
+            clinicalData.setMeasuredDateTime(reading.measuredDateTime() != null ? reading.measuredDateTime() : now);
+            entityManager.persist(clinicalData);
+            // Snapshot after persist: the sequence id and parsed values are assigned by now
+            saved.add(ClinicalReading.from(clinicalData));
+            if (saved.size() % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return saved;
+    }
+}
@@ -0,0 +1,139 @@
+package main.java.com.example.demo.service;
+
+import main.java.com.example.demo.archive.ClinicalDataArchive;
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.dto.PatientSummary;
+import main.java.com.example.demo.event.ClinicalDataChangedEvent;
+import main.java.com.example.demo.event.PatientChangedEvent;
+import main.java.com.example.demo.model.ClinicalData;
+import main.java.com.example.demo.model.ParsedMeasurement;
+import main.java.com.example.demo.model.Patient;
+import main.java.com.example.demo.repository.ClinicalDataRepository;
+import main.java.com.example.demo.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+// Single-row clinical data and patient writes. Each write and its clinicaldata_latest maintenance share one
+// transaction; change events are published inside it and delivered to listeners after commit.
+@Service
+@Transactional
+public class ClinicalDataWriteService {
+
+    @Autowired
+    private ClinicalDataRepository clinicalDataRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private LatestProjectionService latestProjectionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ClinicalDataArchive archive;
+
+    public ClinicalData create(ClinicalData clinicalData) {
+        ClinicalData savedClinicalData = clinicalDataRepository.save(clinicalData);
+        ClinicalReading reading = ClinicalReading.from(savedClinicalData);
+        latestProjectionService.recordInsert(reading);
+        eventPublisher.publishEvent(ClinicalDataChangedEvent.created(List.of(reading)));
+        return savedClinicalData;
+    }
+
+    public Optional<ClinicalData> update(Long id, ClinicalData clinicalData) {
+        Optional<ClinicalData> clinicalDataOptional = clinicalDataRepository.findById(id);
+        if (!clinicalDataOptional.isPresent()) {
+            return Optional.empty();
+        }
+        ClinicalData existingClinicalData = clinicalDataOptional.get();
+        ClinicalReading previous = ClinicalReading.from(existingClinicalData);
+        existingClinicalData.setComponentName(clinicalData.getComponentName());
+        existingClinicalData.setComponentValue(clinicalData.getComponentValue());
+        existingClinicalData.setMeasuredDateTime(clinicalData.getMeasuredDateTime());
+
+        // Update patient if provided
+        if (clinicalData.getPatient() != null && clinicalData.getPatient().getId() != null) {
+            Optional<Patient> patient = patientRepository.findById(clinicalData.getPatient().getId());
+            if (patient.isPresent()) {
+                existingClinicalData.setPatient(patient.get());
+            }
+        }
+
+        ClinicalData savedClinicalData = clinicalDataRepository.save(existingClinicalData);
+        ClinicalReading current = ClinicalReading.from(savedClinicalData);
+        latestProjectionService.recordUpdate(previous, current);
+        eventPublisher.publishEvent(ClinicalDataChangedEvent.updated(previous, current));
+        return Optional.of(savedClinicalData);
+    }
+
+    // Loads the row first so the projection and listeners know its patient and component. A reading found only in
+    // the archive tier is never anybody's latest; its delete is a tombstone written by the archive after commit.
+    public void delete(Long id) {
+        Optional<ClinicalData> clinicalData = clinicalDataRepository.findById(id);
+        if (clinicalData.isPresent()) {
+            ClinicalReading reading = ClinicalReading.from(clinicalData.get());
+            clinicalDataRepository.delete(clinicalData.get());
+            latestProjectionService.recordDelete(reading);
+            eventPublisher.publishEvent(ClinicalDataChangedEvent.deleted(reading));
+            return;
+        }
+        archive.find(id).ifPresent(archived -> {
+            ParsedMeasurement parsed = ParsedMeasurement.parse(archived.componentValue());
+            eventPublisher.publishEvent(ClinicalDataChangedEvent.deletedFromArchive(new ClinicalReading(archived.id(),
+                    archived.patientId(), archived.componentName(), archived.componentValue(), archived.measuredDateTime(),
+                    parsed.numericValue(), parsed.systolicValue(), parsed.diastolicValue())));
+        });
+    }
+
+    public void deleteAll() {
+        clinicalDataRepository.deleteAll();
+        latestProjectionService.clear();
+        eventPublisher.publishEvent(ClinicalDataChangedEvent.cleared());
+    }
+
+    public Patient createPatient(Patient patient) {
+        Patient savedPatient = patientRepository.save(patient);
+        eventPublisher.publishEvent(PatientChangedEvent.created(savedPatient));
+        return savedPatient;
+    }
+
+    public Optional<Patient> updatePatient(Long id, Patient patient) {
+        Optional<Patient> patientData = patientRepository.findById(id);
+        if (!patientData.isPresent()) {
+            return Optional.empty();
+        }
+        Patient existingPatient = patientData.get();
+        PatientSummary previous = PatientChangedEvent.summaryOf(existingPatient);
+        existingPatient.setFirstName(patient.getFirstName());
+        existingPatient.setLastName(patient.getLastName());
+        existingPatient.setAge(patient.getAge());
+
+        Patient savedPatient = patientRepository.save(existingPatient);
+        eventPublisher.publishEvent(PatientChangedEvent.updated(previous, savedPatient));
+        return Optional.of(savedPatient);
+    }
+
+    // Clinical data cascades with the patient, so its projection rows go too. The patient is loaded first
+    // (as deleteById would) so listeners learn its last state.
+    public void deletePatient(Long patientId) {
+        Optional<Patient> patient = patientRepository.findById(patientId);
+        patient.ifPresent(patientRepository::delete);
+        latestProjectionService.removePatient(patientId);
+        eventPublisher.publishEvent(ClinicalDataChangedEvent.patientRemoved(patientId));
+        eventPublisher.publishEvent(PatientChangedEvent.removed(patientId, patient.map(PatientChangedEvent::summaryOf).orElse(null)));
+    }
+
+    public void deleteAllPatients() {
+        patientRepository.deleteAll();
+        latestProjectionService.clear();
+        eventPublisher.publishEvent(ClinicalDataChangedEvent.cleared());
+        eventPublisher.publishEvent(PatientChangedEvent.cleared());
+    }
+}
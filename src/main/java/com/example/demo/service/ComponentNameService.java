@@ -0,0 +1,98 @@
+package main.java.com.example.demo.service;
+
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.event.ClinicalDataChangedEvent;
+import main.java.com.example.demo.replica.ReadRouting;
+import main.java.com.example.demo.repository.ClinicalDataRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Objects;
+
+// Distinct component names, overall and per patient, from Spring caches instead of a SELECT DISTINCT per call.
+// Committed changes evict only the entries they may alter: a new reading when its component is missing from the
+// cached list, a removal always (it may have been the component's last reading). spring.cache.caffeine.spec bounds
+// size and age, which also covers a load that raced with a commit. Loads read from the primary, never a replica.
+// Names come from the hot tier (clinicaldata) only: a component whose readings have all been archived is not listed.
+@Service
+public class ComponentNameService {
+
+    public static final String ALL_COMPONENTS = "componentNames";
+    public static final String PATIENT_COMPONENTS = "patientComponentNames";
+
+    private static final String ALL_KEY = "all";
+
+    @Autowired
+    private ClinicalDataRepository clinicalDataRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Cacheable(cacheNames = ALL_COMPONENTS, key = "'" + ALL_KEY + "'")
+    public List<String> componentNames() {
+        return ReadRouting.onPrimary(() -> List.copyOf(clinicalDataRepository.findDistinctComponentNames()));
+    }
+
+    @Cacheable(cacheNames = PATIENT_COMPONENTS)
+    public List<String> componentNamesOfPatient(Long patientId) {
+        return ReadRouting.onPrimary(() -> List.copyOf(clinicalDataRepository.findDistinctComponentNamesByPatientId(patientId)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClinicalDataChanged(ClinicalDataChangedEvent event) {
+        Cache all = cacheManager.getCache(ALL_COMPONENTS);
+        Cache byPatient = cacheManager.getCache(PATIENT_COMPONENTS);
+        switch (event.type()) {
+            case CREATED, IMPORTED -> event.readings().forEach(reading -> added(all, byPatient, reading));
+            case UPDATED -> {
+                ClinicalReading previous = event.previous();
+                ClinicalReading current = event.readings().get(0);
+                // A reading moved to another component or patient may have been the last one where it was
+                if (previous != null && !(Objects.equals(previous.componentName(), current.componentName())
+                        && Objects.equals(previous.patientId(), current.patientId()))) {
+                    removed(all, byPatient, previous);
+                }
+                added(all, byPatient, current);
+            }
+            case DELETED -> event.readings().forEach(reading -> removed(all, byPatient, reading));
+            case PATIENT_REMOVED -> {
+                byPatient.evict(event.patientId());
+                all.evict(ALL_KEY);
+            }
+            // Archived rows leave clinicaldata, which is all the distinct queries read
+            case CLEARED, ARCHIVED -> {
+                all.clear();
+                byPatient.clear();
+            }
+        }
+    }
+
+    private static void added(Cache all, Cache byPatient, ClinicalReading reading) {
+        if (reading.componentName() == null) {
+            return;
+        }
+        evictIfMissing(all, ALL_KEY, reading.componentName());
+        if (reading.patientId() != null) {
+            evictIfMissing(byPatient, reading.patientId(), reading.componentName());
+        }
+    }
+
+    private static void removed(Cache all, Cache byPatient, ClinicalReading reading) {
+        all.evict(ALL_KEY);
+        if (reading.patientId() != null) {
+            byPatient.evict(reading.patientId());
+        }
+    }
+
+    private static void evictIfMissing(Cache cache, Object key, String componentName) {
+        List<?> names = cache.get(key, List.class);
+        if (names != null && !names.contains(componentName)) {
+            cache.evict(key);
+        }
+    }
+}
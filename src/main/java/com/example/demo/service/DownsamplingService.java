@@ -0,0 +1,93 @@
+package main.java.com.example.demo.service;
+
+import main.java.com.example.demo.analytics.Downsampler;
+import main.java.com.example.demo.analytics.TimeSeries;
+import main.java.com.example.demo.archive.ClinicalDataArchive;
+import main.java.com.example.demo.dto.DownsampledSeries;
+import main.java.com.example.demo.dto.SeriesPoint;
+import main.java.com.example.demo.model.ParsedMeasurement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Chart series for one patient and component: (timestamp, value) pairs are streamed from JDBC and the
+// archive tier into primitive arrays, reduced with LTTB or min/max buckets, and only the kept points are
+// turned into objects. Response size is bounded by the requested point count, not by the history length.
+@Service
+public class DownsamplingService {
+
+    public static final int DEFAULT_POINTS = 1000;
+    public static final int MAX_POINTS = 10_000;
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClinicalDataArchive archive;
+
+    @Autowired
+    public DownsamplingService(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    @Transactional(readOnly = true)
+    public DownsampledSeries downsample(Long patientId, String componentName, String measure, Downsampler method, int points,
+                                        LocalDateTime startDate, LocalDateTime endDate) {
+        String column = VitalsAggregationService.measureColumn(measure);
+        int target = Math.max(2, Math.min(points, MAX_POINTS));
+
+        TimeSeries series = new TimeSeries();
+        StringBuilder sql = new StringBuilder("SELECT c.measured_date_time, c.").append(column)
+                .append(", c.id FROM clinicaldata c WHERE c.patient_id = ? AND c.component_name = ? AND c.").append(column).append(" IS NOT NULL");
+        List<Object> args = new ArrayList<>(List.of(patientId, componentName));
+        if (startDate != null) {
+            sql.append(" AND c.measured_date_time >= ?");
+            args.add(Timestamp.valueOf(startDate));
+        }
+        if (endDate != null) {
+            sql.append(" AND c.measured_date_time <= ?");
+            args.add(Timestamp.valueOf(endDate));
+        }
+        sql.append(" ORDER BY c.measured_date_time, c.id");
+        // A reading in both tiers (an interrupted archive run) is taken from clinicaldata, as in
+        // ClinicalDataHistoryRepositoryImpl; only rows older than the archived months can be duplicates
+        LocalDateTime coveredUntil = archive.coveredUntil();
+        Set<Long> hotIds = new HashSet<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            LocalDateTime measured = rs.getTimestamp(1).toLocalDateTime();
+            if (coveredUntil != null && measured.isBefore(coveredUntil)) {
+                hotIds.add(rs.getLong(3));
+            }
+            series.add(measured.toEpochSecond(ZoneOffset.UTC), rs.getDouble(2));
+        }, args.toArray());
+        if (coveredUntil != null) {
+            archive.readPatient(patientId, componentName, startDate, endDate, reading -> {
+                Double value = VitalsAggregationService.measureValue(ParsedMeasurement.parse(reading.componentValue()), measure);
+                if (value != null && !hotIds.contains(reading.id())) {
+                    series.add(reading.measuredDateTime().toEpochSecond(ZoneOffset.UTC), value);
+                }
+            });
+        }
+        series.sortByTime();
+
+        int[] selected = method.select(series, target);
+        List<SeriesPoint> result = new ArrayList<>(selected.length);
+        for (int i : selected) {
+            result.add(new SeriesPoint(LocalDateTime.ofEpochSecond(series.time(i), 0, ZoneOffset.UTC), series.value(i)));
+        }
+        return new DownsampledSeries(method.name().toLowerCase(Locale.ROOT), series.size(), result);
+    }
+}
@@ -0,0 +1,103 @@
+package main.java.com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import main.java.com.example.demo.replica.ReadRouting;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Writes repository streams to the response one row at a time so memory stays flat regardless of result size
+@Service
+public class JsonStreamWriter {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // Rows written between explicit flushes of the response
+    private static final int FLUSH_EVERY = 500;
+
+    public enum Format {
+        NDJSON, JSON;
+
+        public static Format of(String value) {
+            if (value == null || value.isBlank()) {
+                return NDJSON;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown stream format: " + value, e);
+            }
+        }
+
+        public MediaType mediaType() {
+            return this == JSON ? MediaType.APPLICATION_JSON : JsonStreamWriter.NDJSON;
+        }
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // The stream is opened inside a read-only transaction on the async response thread, since the
+    // underlying JDBC cursor must stay open while rows are written. A read-your-writes override of the request
+    // thread is carried over, so a client that just wrote does not stream from a lagging replica.
+    public <T> StreamingResponseBody stream(Supplier<Stream<T>> source, Format format) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+        boolean primary = ReadRouting.primaryRequired();
+
+        return out -> ReadRouting.onPrimaryIf(primary, () -> readOnly.executeWithoutResult(status -> {
+            try (Stream<T> rows = source.get()) {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                if (format == Format.JSON) {
+                    generator.writeStartArray();
+                }
+                long written = 0;
+                Iterator<T> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    T row = iterator.next();
+                    writer.writeValue(generator, row);
+                    // Detach so the persistence context does not grow with the result
+                    if (entityManager.contains(row)) {
+                        entityManager.detach(row);
+                    }
+                    if (++written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+                if (format == Format.JSON) {
+                    generator.writeEndArray();
+                } else if (written > 0) {
+                    generator.writeRaw('\n');
+                }
+                generator.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+}
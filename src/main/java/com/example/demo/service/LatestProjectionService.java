@@ -0,0 +1,82 @@
+package main.java.com.example.demo.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.model.ClinicalData;
+import main.java.com.example.demo.repository.ClinicalDataLatestRepository;
+import main.java.com.example.demo.repository.ClinicalDataRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// Keeps clinicaldata_latest in step with clinicaldata. Every method joins the caller's transaction,
+// so the projection commits or rolls back together with the write it reflects.
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class LatestProjectionService {
+
+    @Autowired
+    private ClinicalDataLatestRepository clinicalDataLatestRepository;
+
+    @Autowired
+    private ClinicalDataRepository clinicalDataRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private record Key(Long patientId, String componentName) {
+    }
+
+    public void recordInsert(ClinicalReading reading) {
+        if (reading.patientId() == null || reading.componentName() == null) {
+            return;
+        }
+        clinicalDataLatestRepository.upsertIfNewer(reading.patientId(), reading.componentName(), reading.id(), reading.measuredDateTime());
+    }
+
+    // Collapse a batch to its newest reading per key first, so each key costs one statement
+    public void recordInserts(Collection<ClinicalReading> readings) {
+        Map<Key, ClinicalReading> newest = new HashMap<>();
+        for (ClinicalReading reading : readings) {
+            if (reading.patientId() != null && reading.componentName() != null) {
+                newest.merge(new Key(reading.patientId(), reading.componentName()), reading, (a, b) -> b.isNewerThan(a) ? b : a);
+            }
+        }
+        newest.values().forEach(this::recordInsert);
+    }
+
+    // An update may move a reading to another key or back in time, so treat it as delete + insert
+    public void recordUpdate(ClinicalReading previous, ClinicalReading current) {
+        recordDelete(previous);
+        recordInsert(current);
+    }
+
+    // If the deleted reading was the latest for its key, fall back to the next newest via the composite index
+    public void recordDelete(ClinicalReading reading) {
+        if (reading.patientId() == null || reading.componentName() == null) {
+            return;
+        }
+        entityManager.flush();
+        if (clinicalDataLatestRepository.deleteIfPointsTo(reading.patientId(), reading.componentName(), reading.id()) > 0) {
+            ClinicalData next = clinicalDataRepository.findFirstByPatientIdAndComponentNameOrderByMeasuredDateTimeDescIdDesc(
+                    reading.patientId(), reading.componentName());
+            if (next != null) {
+                recordInsert(ClinicalReading.from(next));
+            }
+        }
+    }
+
+    public void removePatient(Long patientId) {
+        clinicalDataLatestRepository.deleteByPatientId(patientId);
+    }
+
+    public void clear() {
+        clinicalDataLatestRepository.deleteAllInBatch();
+    }
+}
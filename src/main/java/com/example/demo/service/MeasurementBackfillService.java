@@ -0,0 +1,92 @@
+package main.java.com.example.demo.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import main.java.com.example.demo.model.ClinicalData;
+import main.java.com.example.demo.repository.ClinicalDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Fills the parsed numeric columns for rows written before they existed
+@Service
+public class MeasurementBackfillService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MeasurementBackfillService.class);
+
+    @Autowired
+    private ClinicalDataRepository clinicalDataRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${clinical.measurements.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    @Value("${clinical.measurements.backfill-batch-size:1000}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (backfillOnStartup) {
+            backfill();
+        }
+    }
+
+    // Walk unparsed rows in id order, one transaction per batch; returns the number of rows updated.
+    // Rows whose value cannot be parsed stay null and are skipped by the id cursor.
+    public long backfill() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Measurement backfill is already running");
+        }
+        try {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            long afterId = 0L;
+            long updated = 0L;
+            while (true) {
+                long cursor = afterId;
+                long[] result = tx.execute(status -> backfillBatch(cursor));
+                if (result == null || result[0] == 0L) {
+                    break;
+                }
+                afterId = result[1];
+                updated += result[2];
+            }
+            log.info("Measurement backfill updated {} clinical data rows", updated);
+            return updated;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Returns {rows scanned, last id, rows updated}
+    private long[] backfillBatch(long afterId) {
+        List<ClinicalData> batch = clinicalDataRepository.findByNumericValueIsNullAndIdGreaterThanOrderByIdAsc(afterId, Limit.of(batchSize));
+        long updated = 0L;
+        for (ClinicalData clinicalData : batch) {
+            clinicalData.parseComponentValue();
+            if (clinicalData.getNumericValue() != null) {
+                updated++;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        long lastId = batch.isEmpty() ? afterId : batch.get(batch.size() - 1).getId();
+        return new long[] {batch.size(), lastId, updated};
+    }
+}
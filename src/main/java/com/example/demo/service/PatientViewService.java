@@ -0,0 +1,183 @@
+package main.java.com.example.demo.service;
+
+import main.java.com.example.demo.cache.LatestVitalsCache;
+import main.java.com.example.demo.cache.RequestCoalescer;
+import main.java.com.example.demo.counter.ClinicalCounters;
+import main.java.com.example.demo.dto.ClinicalReading;
+import main.java.com.example.demo.dto.PatientCount;
+import main.java.com.example.demo.dto.PatientOverview;
+import main.java.com.example.demo.dto.PatientSummary;
+import main.java.com.example.demo.dto.PatientWithVitals;
+import main.java.com.example.demo.repository.ClinicalDataRepository;
+import main.java.com.example.demo.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Assembles patient DTO views with a fixed number of queries regardless of how many patients are on the page
+@Service
+public class PatientViewService {
+
+    // Patient ids accepted by one batch lookup
+    public static final int MAX_BATCH = 1000;
+
+    // Identical batch requests in flight at the same time (a ward's screens refreshing together) share one load
+    private record BatchKey(String view, List<Long> patientIds) {
+    }
+
+    @Autowired
+    private ClinicalDataRepository clinicalDataRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private LatestVitalsCache latestVitalsCache;
+
+    // Absent when clinical.counters.enabled=false
+    @Autowired(required = false)
+    private ClinicalCounters clinicalCounters;
+
+    private final RequestCoalescer<BatchKey, Object> coalescer = new RequestCoalescer<>();
+
+    // One IN query over clinicaldata_latest for the whole page, grouped in memory
+    @Transactional(readOnly = true)
+    public List<PatientWithVitals> withLatestVitals(List<PatientSummary> patients) {
+        if (patients.isEmpty()) {
+            return List.of();
+        }
+        List<Long> patientIds = new ArrayList<>(patients.size());
+        for (PatientSummary patient : patients) {
+            patientIds.add(patient.id());
+        }
+        Map<Long, List<ClinicalReading>> byPatient = new HashMap<>();
+        for (ClinicalReading reading : clinicalDataRepository.findLatestReadingsByPatientIds(patientIds)) {
+            byPatient.computeIfAbsent(reading.patientId(), id -> new ArrayList<>()).add(reading);
+        }
+        List<PatientWithVitals> result = new ArrayList<>(patients.size());
+        for (PatientSummary patient : patients) {
+            result.add(PatientWithVitals.of(patient, byPatient.getOrDefault(patient.id(), List.of())));
+        }
+        return result;
+    }
+
+    // Patient, latest vitals and reading count for each existing patient, in request order: one IN query for
+    // the patients, one IN query for latest vitals not already cached, and counts from the maintained counters
+    // (one grouped count query until they are loaded). The shared load is keyed by id; each caller applies its
+    // own order, since coalesced callers may list the same patients differently.
+    @SuppressWarnings("unchecked")
+    public List<PatientOverview> overviews(Collection<Long> patientIds) {
+        List<Long> ids = normalize(patientIds);
+        Map<Long, PatientOverview> overviews = (Map<Long, PatientOverview>) coalescer.execute(new BatchKey("overview", ids), () -> {
+            Map<Long, PatientSummary> patients = new HashMap<>();
+            for (PatientSummary patient : patientRepository.findSummariesByIdIn(ids)) {
+                patients.put(patient.id(), patient);
+            }
+            if (patients.isEmpty()) {
+                return Map.of();
+            }
+            Map<Long, List<ClinicalReading>> latest = loadLatest(patients.keySet());
+            Map<Long, Long> counts = loadCounts(patients.keySet());
+            Map<Long, PatientOverview> result = new HashMap<>();
+            patients.forEach((id, patient) -> result.put(id,
+                    PatientOverview.of(patient, latest.getOrDefault(id, List.of()), counts.getOrDefault(id, 0L))));
+            return Map.copyOf(result);
+        });
+        List<PatientOverview> result = new ArrayList<>(overviews.size());
+        for (Long id : orderedAsRequested(patientIds, overviews.keySet())) {
+            result.add(overviews.get(id));
+        }
+        return result;
+    }
+
+    // Latest reading per component for each existing patient, keyed by patient id
+    @SuppressWarnings("unchecked")
+    public Map<Long, List<ClinicalReading>> latestVitals(Collection<Long> patientIds) {
+        List<Long> ids = normalize(patientIds);
+        return (Map<Long, List<ClinicalReading>>) coalescer.execute(new BatchKey("latest", ids), () -> loadLatest(ids));
+    }
+
+    // Clinical data count for each existing patient, keyed by patient id
+    @SuppressWarnings("unchecked")
+    public Map<Long, Long> clinicalDataCounts(Collection<Long> patientIds) {
+        List<Long> ids = normalize(patientIds);
+        return (Map<Long, Long>) coalescer.execute(new BatchKey("count", ids), () -> {
+            Map<Long, Long> counts = new LinkedHashMap<>();
+            for (Long id : patientRepository.findExistingIds(ids)) {
+                counts.put(id, 0L);
+            }
+            counts.putAll(loadCounts(counts.keySet()));
+            return Map.copyOf(counts);
+        });
+    }
+
+    public long coalescedRequests() {
+        return coalescer.coalesced();
+    }
+
+    private Map<Long, List<ClinicalReading>> loadLatest(Collection<Long> patientIds) {
+        Map<Long, Map<String, ClinicalReading>> latest = latestVitalsCache.getAllOrLoad(patientIds, missing -> {
+            Map<Long, Map<String, ClinicalReading>> loaded = new HashMap<>();
+            for (Long id : patientRepository.findExistingIds(missing)) {
+                loaded.put(id, new HashMap<>());
+            }
+            if (loaded.isEmpty()) {
+                return loaded;
+            }
+            for (ClinicalReading reading : clinicalDataRepository.findLatestReadingsByPatientIds(loaded.keySet())) {
+                loaded.get(reading.patientId()).put(reading.componentName(), reading);
+            }
+            return loaded;
+        });
+        Map<Long, List<ClinicalReading>> result = new HashMap<>();
+        latest.forEach((id, readings) -> result.put(id, List.copyOf(readings.values())));
+        return Map.copyOf(result);
+    }
+
+    private Map<Long, Long> loadCounts(Collection<Long> patientIds) {
+        if (clinicalCounters != null && clinicalCounters.isReady()) {
+            return clinicalCounters.readingsOfPatients(patientIds);
+        }
+        Map<Long, Long> counts = new HashMap<>();
+        if (!patientIds.isEmpty()) {
+            for (PatientCount count : clinicalDataRepository.countByPatientIds(patientIds)) {
+                counts.put(count.patientId(), count.count());
+            }
+        }
+        return counts;
+    }
+
+    // Sorted and de-duplicated, so the same set of patients in any order coalesces
+    private static List<Long> normalize(Collection<Long> patientIds) {
+        if (patientIds.size() > MAX_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH + " patient ids per request");
+        }
+        TreeSet<Long> ids = new TreeSet<>();
+        for (Long id : patientIds) {
+            if (id == null) {
+                throw new IllegalArgumentException("Patient id must not be null");
+            }
+            ids.add(id);
+        }
+        return List.copyOf(ids);
+    }
+
+    private static List<Long> orderedAsRequested(Collection<Long> requested, Collection<Long> existing) {
+        List<Long> ordered = new ArrayList<>(existing.size());
+        for (Long id : new LinkedHashSet<>(requested)) {
+            if (existing.contains(id)) {
+                ordered.add(id);
+            }
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,189 @@
+package main.java.com.example.demo.service;
+
+import main.java.com.example.demo.analytics.BucketSize;
+import main.java.com.example.demo.analytics.VitalsAccumulator;
+import main.java.com.example.demo.archive.ArchivedReading;
+import main.java.com.example.demo.archive.ClinicalDataArchive;
+import main.java.com.example.demo.dto.AggregateBucket;
+import main.java.com.example.demo.model.ParsedMeasurement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+// Computes per-bucket vitals statistics in a single pass over (timestamp, value) rows read straight from JDBC,
+// followed by the matching readings of the archive tier; no ClinicalData entities are materialized. Memory is bounded
+// by the number of buckets plus the ids of hot rows old enough to also be archived, which a reading in both tiers
+// is counted from, the hot copy winning as in ClinicalDataHistoryRepositoryImpl.
+@Service
+public class VitalsAggregationService {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClinicalDataArchive archive;
+
+    @Autowired
+    public VitalsAggregationService(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    // Measure names accepted by the API mapped to their indexed columns
+    public static String measureColumn(String measure) {
+        return switch (measure) {
+            case "value" -> "numeric_value";
+            case "systolic" -> "systolic_value";
+            case "diastolic" -> "diastolic_value";
+            default -> throw new IllegalArgumentException("Unknown measure: " + measure);
+        };
+    }
+
+    // The value of a measure in a parsed component value, as stored in its measureColumn
+    public static Double measureValue(ParsedMeasurement parsed, String measure) {
+        return switch (measure) {
+            case "systolic" -> parsed.systolicValue();
+            case "diastolic" -> parsed.diastolicValue();
+            default -> parsed.numericValue();
+        };
+    }
+
+    // Buckets for a single patient/component pair
+    @Transactional(readOnly = true)
+    public List<AggregateBucket> aggregatePatient(Long patientId, String componentName, String measure, BucketSize bucketSize,
+                                                  LocalDateTime startDate, LocalDateTime endDate) {
+        String column = measureColumn(measure);
+        StringBuilder sql = new StringBuilder("SELECT c.measured_date_time, c.").append(column)
+                .append(", c.id FROM clinicaldata c WHERE c.patient_id = ? AND c.component_name = ? AND c.").append(column).append(" IS NOT NULL");
+        List<Object> args = new ArrayList<>(List.of(patientId, componentName));
+        appendRange(sql, args, startDate, endDate);
+        return aggregate(sql.toString(), args.toArray(), measure, bucketSize,
+                consumer -> archive.readPatient(patientId, componentName, startDate, endDate, consumer));
+    }
+
+    // Buckets merged across a cohort: an explicit patient id set and/or an age range; no filter means every patient
+    @Transactional(readOnly = true)
+    public List<AggregateBucket> aggregateCohort(Collection<Long> patientIds, Integer minAge, Integer maxAge, String componentName,
+                                                 String measure, BucketSize bucketSize, LocalDateTime startDate, LocalDateTime endDate) {
+        String column = measureColumn(measure);
+        StringBuilder sql = new StringBuilder("SELECT c.measured_date_time, c.").append(column).append(", c.id FROM clinicaldata c");
+        if (minAge != null || maxAge != null) {
+            sql.append(" JOIN patient p ON p.id = c.patient_id");
+        }
+        sql.append(" WHERE c.component_name = ? AND c.").append(column).append(" IS NOT NULL");
+        List<Object> args = new ArrayList<>(List.of(componentName));
+        if (patientIds != null && !patientIds.isEmpty()) {
+            sql.append(" AND c.patient_id IN (").append(String.join(",", Collections.nCopies(patientIds.size(), "?"))).append(")");
+            args.addAll(patientIds);
+        }
+        if (minAge != null) {
+            sql.append(" AND p.age >= ?");
+            args.add(minAge);
+        }
+        if (maxAge != null) {
+            sql.append(" AND p.age <= ?");
+            args.add(maxAge);
+        }
+        appendRange(sql, args, startDate, endDate);
+        return aggregate(sql.toString(), args.toArray(), measure, bucketSize,
+                consumer -> archivedCohort(patientIds, minAge, maxAge, componentName, startDate, endDate, consumer));
+    }
+
+    // Archived readings of the cohort: read per patient for an explicit id set, otherwise one scan of the
+    // component's segments filtered on the patients within the age range
+    private void archivedCohort(Collection<Long> patientIds, Integer minAge, Integer maxAge, String componentName,
+                                LocalDateTime startDate, LocalDateTime endDate, Consumer<ArchivedReading> consumer) {
+        Set<Long> ofAge = null;
+        if (minAge != null || maxAge != null) {
+            ofAge = new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM patient WHERE age >= ? AND age <= ?", Long.class,
+                    minAge == null ? Integer.MIN_VALUE : minAge, maxAge == null ? Integer.MAX_VALUE : maxAge));
+        }
+        if (patientIds != null && !patientIds.isEmpty()) {
+            for (Long patientId : new HashSet<>(patientIds)) {
+                if (ofAge == null || ofAge.contains(patientId)) {
+                    archive.readPatient(patientId, componentName, startDate, endDate, consumer);
+                }
+            }
+        } else if (ofAge == null) {
+            archive.scan(componentName, startDate, endDate, consumer);
+        } else {
+            Set<Long> cohort = ofAge;
+            archive.scan(componentName, startDate, endDate, reading -> {
+                if (cohort.contains(reading.patientId())) {
+                    consumer.accept(reading);
+                }
+            });
+        }
+    }
+
+    private void appendRange(StringBuilder sql, List<Object> args, LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate != null) {
+            sql.append(" AND c.measured_date_time >= ?");
+            args.add(Timestamp.valueOf(startDate));
+        }
+        if (endDate != null) {
+            sql.append(" AND c.measured_date_time <= ?");
+            args.add(Timestamp.valueOf(endDate));
+        }
+    }
+
+    private List<AggregateBucket> aggregate(String sql, Object[] args, String measure, BucketSize bucketSize,
+                                            Consumer<Consumer<ArchivedReading>> archived) {
+        Map<Long, VitalsAccumulator> buckets = new HashMap<>();
+        LocalDateTime coveredUntil = archive.coveredUntil();
+        Set<Long> hotIds = new HashSet<>();
+        RowCallbackHandler handler = rs -> {
+            Timestamp measured = rs.getTimestamp(1);
+            if (measured == null) {
+                return;
+            }
+            LocalDateTime measuredDateTime = measured.toLocalDateTime();
+            if (coveredUntil != null && measuredDateTime.isBefore(coveredUntil)) {
+                hotIds.add(rs.getLong(3));
+            }
+            add(buckets, bucketSize, measuredDateTime, rs.getDouble(2));
+        };
+        jdbcTemplate.query(sql, handler, args);
+        if (coveredUntil != null) {
+            archived.accept(reading -> {
+                Double value = measureValue(ParsedMeasurement.parse(reading.componentValue()), measure);
+                if (value != null && !hotIds.contains(reading.id())) {
+                    add(buckets, bucketSize, reading.measuredDateTime(), value);
+                }
+            });
+        }
+
+        List<AggregateBucket> result = new ArrayList<>(buckets.size());
+        for (Map.Entry<Long, VitalsAccumulator> entry : new TreeMap<>(buckets).entrySet()) {
+            VitalsAccumulator acc = entry.getValue();
+            LocalDateTime start = bucketSize == BucketSize.ALL ? null : LocalDateTime.ofEpochSecond(entry.getKey(), 0, ZoneOffset.UTC);
+            result.add(new AggregateBucket(start, acc.getCount(), acc.getMin(), acc.getMax(), acc.getMean(),
+                    acc.quantile(0.5), acc.quantile(0.95)));
+        }
+        return result;
+    }
+
+    // Bucket on wall-clock time, the same way measured_date_time is stored and queried
+    private static void add(Map<Long, VitalsAccumulator> buckets, BucketSize bucketSize, LocalDateTime measured, double value) {
+        long epochSecond = measured.toEpochSecond(ZoneOffset.UTC);
+        buckets.computeIfAbsent(bucketSize.bucketStart(epochSecond), k -> new VitalsAccumulator()).add(value);
+    }
+}
@@ -130,4 +130,108 @@ insert into clinicaldata  values('95', '6', 'heartrate', '67/119', '2019-03-29 1
 insert into clinicaldata  values('96', '7', 'heartrate', '55', '2019-02-21 19:34:24');
 insert into clinicaldata  values('97', '8', 'heartrate', '50', '2019-02-15 19:34:24');
 insert into clinicaldata  values('98', '9', 'heartrate', '67', '2019-04-19 19:34:24');
-insert into clinicaldata  values('99', '10', 'heartrate', '89', '2019-05-29 19:34:24');
\ No newline at end of file
+insert into clinicaldata  values('99', '10', 'heartrate', '89', '2019-05-29 19:34:24');
+
+-- Parsed numeric form of component_value, filled by the application on every write.
+-- Existing rows are filled by POST /api/clinical-data/measurements/backfill
+-- (or clinical.measurements.backfill-on-startup=true).
+ALTER TABLE clinicaldata
+    ADD COLUMN numeric_value DOUBLE NULL,
+    ADD COLUMN systolic_value DOUBLE NULL,
+    ADD COLUMN diastolic_value DOUBLE NULL;
+
+CREATE INDEX idx_clinicaldata_component_numeric ON clinicaldata (component_name, numeric_value);
+CREATE INDEX idx_clinicaldata_component_systolic ON clinicaldata (component_name, systolic_value);
+
+-- Table-backed sequence for clinicaldata ids (pooled-lo, allocation size 100), so Hibernate can batch inserts.
+-- Create and seed it before the application starts, otherwise schema update would start it at 1.
+CREATE TABLE clinicaldata_seq (
+    next_val bigint
+);
+INSERT INTO clinicaldata_seq SELECT COALESCE(MAX(id), 0) + 1 FROM clinicaldata;
+
+-- Latest-value lookups: composite index plus a projection holding the latest reading per (patient, component).
+-- The application maintains clinicaldata_latest in the same transaction as every clinicaldata write.
+CREATE INDEX idx_clinicaldata_patient_component_time ON clinicaldata (patient_id, component_name, measured_date_time);
+
+CREATE TABLE clinicaldata_latest (
+    patient_id int NOT NULL,
+    component_name varchar(255) NOT NULL,
+    clinicaldata_id int NOT NULL,
+    measured_date_time TIMESTAMP NULL,
+    PRIMARY KEY (patient_id, component_name)
+);
+
+INSERT INTO clinicaldata_latest (patient_id, component_name, clinicaldata_id, measured_date_time)
+SELECT patient_id, component_name, id, measured_date_time FROM (
+    SELECT c.patient_id, c.component_name, c.id, c.measured_date_time,
+           ROW_NUMBER() OVER (PARTITION BY c.patient_id, c.component_name ORDER BY c.measured_date_time DESC, c.id DESC) AS rn
+    FROM clinicaldata c
+    WHERE c.patient_id IS NOT NULL
+) ranked
+WHERE rn = 1;
+
+-- Monthly range partitions on measured_date_time, so date-range queries only read the months they ask for.
+-- MySQL requires the partitioning column in every unique key (hence the (id, measured_date_time) primary key),
+-- does not support foreign keys on partitioned tables, and only range-partitions DATETIME columns by COLUMNS.
+-- The migration creates one partition per month from the earliest dated reading (rows without a date were set to
+-- 1970 and stay in p_history) through the later of the latest reading and the current month, so p_future starts
+-- out empty. ClinicalDataPartitionManager then splits further months off the empty p_future on startup and daily.
+ALTER TABLE clinicaldata DROP FOREIGN KEY fk_patient;
+
+UPDATE clinicaldata SET measured_date_time = '1970-01-01 00:00:00' WHERE measured_date_time IS NULL;
+
+ALTER TABLE clinicaldata
+    MODIFY measured_date_time DATETIME NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, measured_date_time);
+
+CREATE INDEX idx_clinicaldata_time ON clinicaldata (measured_date_time);
+
+-- Streaming and paging by patient or component walk id order (WHERE ... AND id > ? ORDER BY id)
+CREATE INDEX idx_clinicaldata_patient_id ON clinicaldata (patient_id, id);
+CREATE INDEX idx_clinicaldata_component_id ON clinicaldata (component_name, id);
+
+SET @first_month = (SELECT DATE_FORMAT(COALESCE(MIN(measured_date_time), NOW()), '%Y-%m-01')
+                    FROM clinicaldata WHERE measured_date_time > '1970-01-01 00:00:00');
+SET @last_month = (SELECT DATE_FORMAT(GREATEST(COALESCE(MAX(measured_date_time), NOW()), NOW()), '%Y-%m-01')
+                   FROM clinicaldata);
+SET SESSION group_concat_max_len = 1048576;
+SET @monthly_partitions = (
+    WITH RECURSIVE months (lower_bound) AS (
+        SELECT CAST(@first_month AS DATE)
+        UNION ALL
+        SELECT lower_bound + INTERVAL 1 MONTH FROM months WHERE lower_bound < CAST(@last_month AS DATE)
+    )
+    SELECT GROUP_CONCAT(CONCAT('PARTITION p', DATE_FORMAT(lower_bound, '%Y%m'), ' VALUES LESS THAN (''',
+                               DATE_FORMAT(lower_bound + INTERVAL 1 MONTH, '%Y-%m-%d 00:00:00'), ''')')
+                        ORDER BY lower_bound SEPARATOR ', ')
+    FROM months
+);
+SET @partition_clinicaldata = CONCAT('ALTER TABLE clinicaldata PARTITION BY RANGE COLUMNS (measured_date_time) (',
+    'PARTITION p_history VALUES LESS THAN (''', @first_month, ' 00:00:00''), ', @monthly_partitions, ', ',
+    'PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+PREPARE partition_clinicaldata FROM @partition_clinicaldata;
+EXECUTE partition_clinicaldata;
+DEALLOCATE PREPARE partition_clinicaldata;
+
+-- Name lookups (GET /api/patients/firstName/..., /lastName/...) use these instead of scanning patient.
+-- Type-ahead and fuzzy search (GET /api/patients/search) is served from an in-memory index built at startup.
+CREATE INDEX idx_patient_last_first ON patient (last_name, first_name);
+CREATE INDEX idx_patient_first ON patient (first_name);
+
+-- Checkpoints of bulk imports (POST /api/clinical-data/import): one row per byte range of an imported file,
+-- updated in the same transaction as each chunk of rows. Created by the application on first import if missing.
+CREATE TABLE clinicaldata_import (
+    file varchar(255) NOT NULL,
+    part int NOT NULL,
+    file_size bigint NOT NULL,
+    file_modified bigint NOT NULL,
+    format varchar(16) NOT NULL,
+    start_offset bigint NOT NULL,
+    end_offset bigint NOT NULL,
+    committed_offset bigint NOT NULL,
+    imported_rows bigint NOT NULL,
+    rejected_rows bigint NOT NULL,
+    PRIMARY KEY (file, part)
+);
@@ -0,0 +1,74 @@
+package main.java.com.example.demo.alert;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VitalSeriesTest {
+
+	private static final AlertRule HIGH = new AlertRule("high", "heartrate", AlertRule.Type.THRESHOLD, null, null,
+			null, 130.0, null, null, null, null, null);
+	private static final AlertRule JUMP = new AlertRule("jump", "heartrate", AlertRule.Type.RATE_OF_CHANGE, null, null,
+			null, null, 30.0, 600L, null, null, null);
+	private static final AlertRule DEVIATION = new AlertRule("deviation", "heartrate", AlertRule.Type.DEVIATION, null, null,
+			null, null, null, null, 0.1, 4.0, 20);
+
+	@Test
+	void rateOfChangeOnlyLooksBackOverItsWindow() {
+		VitalSeries series = new VitalSeries(16, 1);
+		AlertRule[] rules = {JUMP};
+		assertEquals(List.of(), fire(series, rules, 0, 70));
+		assertEquals(List.of(), fire(series, rules, 300, 90));
+		assertEquals(List.of("jump"), fire(series, rules, 590, 105));
+		// 70 and 90 are out of the window now; 105 is within 30
+		assertEquals(List.of(), fire(series, rules, 1_000, 120, 0));
+	}
+
+	@Test
+	void deviationFiresOnceWarmedUp() {
+		VitalSeries series = new VitalSeries(16, 1);
+		AlertRule[] rules = {DEVIATION};
+		for (int i = 0; i < 19; i++) {
+			fire(series, rules, i * 60L, 70 + (i % 3));
+		}
+		// not warmed up yet: only 19 readings seen
+		assertEquals(List.of(), fire(series, rules, 19 * 60L, 140));
+		VitalSeries warm = new VitalSeries(16, 1);
+		for (int i = 0; i < 40; i++) {
+			assertEquals(List.of(), fire(warm, rules, i * 60L, 70 + (i % 3)));
+		}
+		assertEquals(List.of("deviation"), fire(warm, rules, 40 * 60L, 110));
+	}
+
+	@Test
+	void cooldownSuppressesRepeatsAndLateReadingsOnlyCheckThresholds() {
+		VitalSeries series = new VitalSeries(16, 2);
+		AlertRule[] rules = {HIGH, JUMP};
+		assertEquals(List.of(), fire(series, rules, 1_000, 80));
+		assertEquals(List.of("high", "jump"), fire(series, rules, 1_060, 140));
+		List<VitalSeries.Firing> firings = new ArrayList<>();
+		assertEquals(2, series.evaluate(rules, 1_120, 150, 300, firings));
+		assertTrue(firings.isEmpty());
+		// a late reading is only checked against thresholds, not scored as a jump from the newer readings
+		assertEquals(List.of(), fire(series, rules, 500, 60));
+		assertEquals(List.of("high", "jump"), fire(series, rules, 1_400, 150));
+	}
+
+	private static List<String> fire(VitalSeries series, AlertRule[] rules, long second, double value) {
+		return fire(series, rules, second, value, 300);
+	}
+
+	private static List<String> fire(VitalSeries series, AlertRule[] rules, long second, double value, long cooldown) {
+		List<VitalSeries.Firing> firings = new ArrayList<>();
+		series.evaluate(rules, second, value, cooldown, firings);
+		List<String> names = new ArrayList<>();
+		for (VitalSeries.Firing firing : firings) {
+			names.add(firing.rule().name());
+		}
+		return names;
+	}
+}
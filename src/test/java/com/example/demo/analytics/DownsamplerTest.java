@@ -0,0 +1,62 @@
+package main.java.com.example.demo.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DownsamplerTest {
+
+	@Test
+	void lttbKeepsEndsAndSpikes() {
+		TimeSeries series = new TimeSeries();
+		for (int i = 0; i < 10_000; i++) {
+			series.add(i * 60L, i == 5_000 ? 180 : 70);
+		}
+		int[] selected = Downsampler.LTTB.select(series, 100);
+		assertEquals(100, selected.length);
+		assertEquals(0, selected[0]);
+		assertEquals(9_999, selected[99]);
+		assertTrue(contains(selected, 5_000));
+		assertStrictlyIncreasing(selected);
+	}
+
+	@Test
+	void minMaxKeepsEveryBucketExtreme() {
+		TimeSeries series = new TimeSeries();
+		for (int i = 0; i < 10_000; i++) {
+			series.add(i * 60L, i == 1_234 ? 30 : i == 8_765 ? 190 : 70 + i % 5);
+		}
+		int[] selected = Downsampler.MINMAX.select(series, 200);
+		assertTrue(selected.length <= 200);
+		assertTrue(contains(selected, 1_234));
+		assertTrue(contains(selected, 8_765));
+		assertStrictlyIncreasing(selected);
+	}
+
+	@Test
+	void shortSeriesIsReturnedWhole() {
+		TimeSeries series = new TimeSeries();
+		series.add(120, 2);
+		series.add(60, 1);
+		series.sortByTime();
+		assertEquals(60, series.time(0));
+		assertArrayEquals(new int[] {0, 1}, Downsampler.LTTB.select(series, 1000));
+	}
+
+	private static boolean contains(int[] values, int value) {
+		for (int v : values) {
+			if (v == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void assertStrictlyIncreasing(int[] values) {
+		for (int i = 1; i < values.length; i++) {
+			assertTrue(values[i] > values[i - 1]);
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package main.java.com.example.demo.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantileSketchTest {
+
+	@Test
+	void quantilesStayWithinRelativeAccuracy() {
+		QuantileSketch sketch = new QuantileSketch(0.01);
+		for (int i = 1; i <= 10_000; i++) {
+			sketch.add(i);
+		}
+		assertEquals(10_000, sketch.getCount());
+		assertEquals(5_000, sketch.quantile(0.5), 5_000 * 0.01 + 1);
+		assertEquals(9_500, sketch.quantile(0.95), 9_500 * 0.01 + 1);
+	}
+
+	@Test
+	void mergedSketchMatchesSingleSketch() {
+		QuantileSketch low = new QuantileSketch();
+		QuantileSketch high = new QuantileSketch();
+		QuantileSketch all = new QuantileSketch();
+		for (int i = 1; i <= 1_000; i++) {
+			(i <= 500 ? low : high).add(i);
+			all.add(i);
+		}
+		low.merge(high);
+		assertEquals(all.getCount(), low.getCount());
+		assertEquals(all.quantile(0.5), low.quantile(0.5));
+		assertEquals(all.quantile(0.95), low.quantile(0.95));
+	}
+
+	@Test
+	void emptySketchHasNoQuantiles() {
+		assertTrue(Double.isNaN(new QuantileSketch().quantile(0.5)));
+	}
+}
@@ -0,0 +1,92 @@
+package main.java.com.example.demo.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentFileTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void readingsRoundTripInEveryValueEncoding() throws Exception {
+		LocalDateTime start = LocalDateTime.of(2024, 3, 1, 8, 0);
+		Path file = dir.resolve("bp.seg");
+		try (SegmentWriter writer = new SegmentWriter(file, "bp", YearMonth.of(2024, 3))) {
+			writer.append(10, 1, start, "67/119");
+			writer.append(14, 1, start.plusMinutes(5), "63/115");
+			writer.append(11, 2, start, "72");
+			writer.append(20, 2, start.plusHours(1), "-3");
+			writer.append(12, 3, start.plusSeconds(1).plusNanos(500_000_000), "07/90");
+			writer.finish();
+		}
+
+		SegmentFile segment = SegmentFile.open(file);
+		assertEquals("bp", segment.componentName());
+		assertEquals(YearMonth.of(2024, 3), segment.month());
+		assertEquals(5, segment.rows());
+
+		List<ArchivedReading> patient1 = new ArrayList<>();
+		segment.read(1, null, null, patient1::add);
+		assertEquals(List.of(new ArchivedReading(10, 1, "bp", "67/119", start),
+				new ArchivedReading(14, 1, "bp", "63/115", start.plusMinutes(5))), patient1);
+
+		List<ArchivedReading> patient2 = new ArrayList<>();
+		segment.read(2, null, null, patient2::add);
+		assertEquals(List.of("72", "-3"), patient2.stream().map(ArchivedReading::componentValue).toList());
+
+		// Non-canonical numbers fall back to text so the original value is kept exactly
+		List<ArchivedReading> patient3 = new ArrayList<>();
+		segment.read(3, null, null, patient3::add);
+		assertEquals(new ArchivedReading(12, 3, "bp", "07/90", start.plusSeconds(1).plusNanos(500_000_000)), patient3.get(0));
+	}
+
+	@Test
+	void scanFiltersByTimeRange() throws Exception {
+		LocalDateTime start = LocalDateTime.of(2024, 3, 1, 0, 0);
+		Path file = dir.resolve("heartrate.seg");
+		try (SegmentWriter writer = new SegmentWriter(file, "heartrate", YearMonth.of(2024, 3))) {
+			for (int patient = 1; patient <= 3; patient++) {
+				for (int day = 0; day < 31; day++) {
+					writer.append(patient * 100L + day, patient, start.plusDays(day), Integer.toString(60 + day));
+				}
+			}
+			writer.finish();
+		}
+
+		SegmentFile segment = SegmentFile.open(file);
+		List<ArchivedReading> week = new ArrayList<>();
+		segment.scan(start.plusDays(7), start.plusDays(13), week::add);
+		assertEquals(3 * 7, week.size());
+		assertTrue(week.stream().allMatch(r -> !r.measuredDateTime().isBefore(start.plusDays(7))
+				&& !r.measuredDateTime().isAfter(start.plusDays(13))));
+		assertTrue(segment.overlaps(start.minusDays(1), start));
+		assertTrue(!segment.overlaps(start.plusMonths(1), start.plusMonths(2)));
+	}
+
+	@Test
+	void findLocatesAReadingById() throws Exception {
+		LocalDateTime start = LocalDateTime.of(2024, 3, 1, 8, 0);
+		Path file = dir.resolve("heartrate.seg");
+		try (SegmentWriter writer = new SegmentWriter(file, "heartrate", YearMonth.of(2024, 3))) {
+			writer.append(10, 1, start, "60");
+			writer.append(14, 1, start.plusMinutes(5), "61");
+			writer.append(11, 2, start, "72");
+			writer.finish();
+		}
+
+		SegmentFile segment = SegmentFile.open(file);
+		assertEquals(new ArchivedReading(14, 1, "heartrate", "61", start.plusMinutes(5)), segment.find(14));
+		assertEquals(new ArchivedReading(11, 2, "heartrate", "72", start), segment.find(11));
+		assertEquals(null, segment.find(12));
+	}
+}
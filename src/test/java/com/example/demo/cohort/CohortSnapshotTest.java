@@ -0,0 +1,91 @@
+package main.java.com.example.demo.cohort;
+
+import main.java.com.example.demo.dto.ClinicalReading;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CohortSnapshotTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+	private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+	@Test
+	void latestOnlyLooksAtEachPatientsNewestReading() {
+		CohortSnapshot snapshot = snapshot();
+		snapshot.putPatient(1, 60);
+		snapshot.putPatient(2, 70);
+		snapshot.addReading(heartrate(10, 1, NOW.minusDays(3), 120), false);
+		snapshot.addReading(heartrate(11, 1, NOW.minusDays(1), 80), false);
+		snapshot.addReading(heartrate(12, 2, NOW.minusDays(1), 125), false);
+		assertArrayEquals(new long[]{2}, snapshot.query(query(CohortQuery.Mode.LATEST, null), NOW, POOL));
+		assertArrayEquals(new long[]{1, 2}, snapshot.query(query(CohortQuery.Mode.ANY, null), NOW, POOL));
+		// patient 1's high reading is older than two days
+		assertArrayEquals(new long[]{2}, snapshot.query(query(CohortQuery.Mode.ANY, 2), NOW, POOL));
+	}
+
+	@Test
+	void removedReadingsAndPatientsNoLongerMatch() {
+		CohortSnapshot snapshot = snapshot();
+		snapshot.putPatient(1, 60);
+		snapshot.putPatient(2, 70);
+		snapshot.addReading(heartrate(10, 1, NOW.minusDays(3), 120), false);
+		snapshot.addReading(heartrate(11, 1, NOW.minusDays(1), 130), false);
+		snapshot.addReading(heartrate(12, 2, NOW.minusDays(1), 125), false);
+		snapshot.removeReading(heartrate(11, 1, NOW.minusDays(1), 130));
+		// the older reading becomes patient 1's latest again
+		assertArrayEquals(new long[]{1, 2}, snapshot.query(query(CohortQuery.Mode.LATEST, null), NOW, POOL));
+		snapshot.removePatient(2);
+		assertArrayEquals(new long[]{1}, snapshot.query(query(CohortQuery.Mode.LATEST, null), NOW, POOL));
+		assertEquals(1, snapshot.stats().deadRows());
+	}
+
+	@Test
+	void agesAndSeveralPredicatesCombine() {
+		CohortSnapshot snapshot = snapshot();
+		for (int patient = 0; patient < 200_000; patient++) {
+			snapshot.putPatient(patient, patient % 100);
+			snapshot.addReading(heartrate(patient, patient, NOW.minusDays(1), 60 + patient % 80), false);
+			if (patient % 2 == 0) {
+				snapshot.addReading(new ClinicalReading(1_000_000L + patient, (long) patient, "bp", "80/140", NOW.minusDays(2),
+						140.0, 140.0, 80.0), false);
+			}
+		}
+		CohortQuery query = new CohortQuery(50, 59, List.of(
+				new CohortQuery.ReadingPredicate("heartrate", null, CohortQuery.Op.GE, 130.0, null, CohortQuery.Mode.LATEST),
+				new CohortQuery.ReadingPredicate("bp", CohortQuery.Measure.DIASTOLIC, CohortQuery.Op.EQ, 80.0, 7, CohortQuery.Mode.ANY)),
+				null);
+		long[] expected = LongStream.range(0, 200_000)
+				.filter(p -> p % 100 >= 50 && p % 100 <= 59 && 60 + p % 80 >= 130 && p % 2 == 0)
+				.toArray();
+		assertArrayEquals(expected, snapshot.query(query, NOW, POOL));
+	}
+
+	@Test
+	void replayDoesNotAddAReadingTwice() {
+		CohortSnapshot snapshot = snapshot();
+		snapshot.putPatient(1, 60);
+		snapshot.addReading(heartrate(10, 1, NOW.minusDays(1), 120), false);
+		snapshot.addReading(heartrate(10, 1, NOW.minusDays(1), 120), true);
+		assertEquals(1, snapshot.stats().rows());
+	}
+
+	private static CohortSnapshot snapshot() {
+		return new CohortSnapshot(NOW.minusDays(400));
+	}
+
+	private static CohortQuery query(CohortQuery.Mode mode, Integer withinDays) {
+		return new CohortQuery(null, null, List.of(
+				new CohortQuery.ReadingPredicate("heartrate", null, CohortQuery.Op.GT, 100.0, withinDays, mode)), null);
+	}
+
+	private static ClinicalReading heartrate(long id, long patientId, LocalDateTime measured, double value) {
+		return new ClinicalReading(id, patientId, "heartrate", String.valueOf(value), measured, value, null, null);
+	}
+}
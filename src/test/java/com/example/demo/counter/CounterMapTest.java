@@ -0,0 +1,53 @@
+package main.java.com.example.demo.counter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CounterMapTest {
+
+	@Test
+	void reconcileKeepsUpdatesMadeWhileTheSnapshotIsRead() {
+		CounterMap<String> counters = new CounterMap<>();
+		counters.add("HR", 5);
+		counters.add("BP", 2);
+
+		counters.beginReconcile();
+		counters.add("HR", 1);
+		assertEquals(6, counters.get("HR"));
+		assertTrue(counters.finishReconcile(sink -> {
+			// the database holds 10 HR rows and no BP rows; one more HR reading commits mid-query
+			counters.add("HR", 1);
+			sink.accept("HR", 10L);
+		}));
+
+		assertEquals(12, counters.get("HR"));
+		assertEquals(0, counters.get("BP"));
+		assertEquals(Map.of("HR", 12L), counters.snapshot());
+	}
+
+	@Test
+	void clearAbandonsAReconciliationInProgress() {
+		CounterMap<Integer> counters = new CounterMap<>();
+		counters.add(40, 3);
+		counters.beginReconcile();
+		counters.clear();
+		assertFalse(counters.finishReconcile(sink -> sink.accept(40, 3L)));
+		assertEquals(0, counters.get(40));
+		assertTrue(counters.snapshot().isEmpty());
+	}
+
+	@Test
+	void removeDropsTheKey() {
+		CounterMap<Long> counters = new CounterMap<>();
+		counters.add(7L, 4);
+		counters.add(7L, -1);
+		assertEquals(3, counters.get(7L));
+		counters.remove(7L);
+		assertEquals(0, counters.get(7L));
+	}
+}
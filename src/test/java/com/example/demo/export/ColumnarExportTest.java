@@ -0,0 +1,55 @@
+package main.java.com.example.demo.export;
+
+import main.java.com.example.demo.dto.ClinicalReading;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ColumnarExportTest {
+
+	@Test
+	void roundTripsRowsAcrossRowGroups() throws IOException {
+		List<ClinicalReading> readings = new ArrayList<>();
+		LocalDateTime start = LocalDateTime.of(2024, 3, 1, 8, 0, 0, 125_000_000);
+		for (int i = 0; i < ColumnarRowWriter.ROWS_PER_GROUP * 2 + 17; i++) {
+			long patientId = 1 + (i * 7919L) % 500;
+			LocalDateTime measured = start.plusSeconds(i * 37L % 86_400).minusMinutes(i % 3);
+			readings.add(switch (i % 4) {
+				case 0 -> new ClinicalReading((long) i + 1, patientId, "HR", String.valueOf(60 + i % 40), measured, 60.0 + i % 40, null, null);
+				case 1 -> new ClinicalReading((long) i + 1, patientId, "BP", "120/80", measured, null, 120.0, 80.0);
+				case 2 -> new ClinicalReading((long) i + 1, patientId, "Note", "blässe, ok", measured, null, null, null);
+				default -> new ClinicalReading((long) i + 1, patientId, null, null, measured, null, null, null);
+			});
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ColumnarRowWriter writer = new ColumnarRowWriter(out);
+		for (ClinicalReading reading : readings) {
+			writer.write(reading);
+		}
+		writer.finish();
+
+		List<ClinicalReading> read = new ArrayList<>();
+		assertEquals(readings.size(), ColumnarExportReader.read(new ByteArrayInputStream(out.toByteArray()), read::add));
+		assertEquals(readings, read);
+	}
+
+	@Test
+	void rejectsOtherGzipContent() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write("id,patient_id\r\n".getBytes(StandardCharsets.US_ASCII));
+		}
+		assertThrows(IOException.class, () -> ColumnarExportReader.read(new ByteArrayInputStream(out.toByteArray()), r -> { }));
+	}
+}
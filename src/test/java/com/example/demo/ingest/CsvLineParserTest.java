@@ -0,0 +1,44 @@
+package main.java.com.example.demo.ingest;
+
+import main.java.com.example.demo.dto.ClinicalDataRequest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvLineParserTest {
+
+	@Test
+	void readsTheColumnsOfAnExport() {
+		CsvLineParser parser = new CsvLineParser("id,patient_id,component_name,component_value,measured_date_time,numeric_value,systolic_value,diastolic_value");
+		assertEquals(new ClinicalDataRequest(7L, "BP", "120/80", LocalDateTime.of(2021, 5, 3, 9, 30)),
+				parse(parser, "41,7,BP,120/80,2021-05-03T09:30,,120.0,80.0"));
+		assertEquals(new ClinicalDataRequest(7L, "Note", "said \"fine\", slept", LocalDateTime.of(2021, 5, 3, 9, 30, 15)),
+				parse(parser, "42,7,Note,\"said \"\"fine\"\", slept\",2021-05-03 09:30:15,,,"));
+	}
+
+	@Test
+	void findsColumnsInAnyOrder() {
+		CsvLineParser parser = new CsvLineParser("measured_date_time,component_value,component_name,patient_id");
+		assertEquals(new ClinicalDataRequest(3L, "HR", "72", LocalDateTime.of(2019, 1, 1, 0, 0, 5)),
+				parse(parser, "2019-01-01 00:00:05,72,HR,3"));
+	}
+
+	@Test
+	void rejectsMalformedLines() {
+		CsvLineParser parser = new CsvLineParser("patient_id,component_name,component_value,measured_date_time");
+		assertThrows(IllegalArgumentException.class, () -> parse(parser, "x,HR,72,2019-01-01 00:00:05"));
+		assertThrows(IllegalArgumentException.class, () -> parse(parser, "3,HR,72"));
+		assertThrows(IllegalArgumentException.class, () -> parse(parser, "3,HR,\"72,2019-01-01 00:00:05"));
+		assertThrows(IllegalArgumentException.class, () -> parse(parser, "3,HR,72,"));
+		assertThrows(IllegalArgumentException.class, () -> new CsvLineParser("patient_id,component_name,component_value"));
+	}
+
+	private static ClinicalDataRequest parse(CsvLineParser parser, String line) {
+		byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+		return parser.parse(bytes, bytes.length);
+	}
+}
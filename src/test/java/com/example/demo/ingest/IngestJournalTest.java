@@ -0,0 +1,102 @@
+package main.java.com.example.demo.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IngestJournalTest {
+
+	private static final long SEGMENT_BYTES = 1 << 20;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void tornLastLineIsCutBeforeTheNextAppend() throws IOException {
+		try (IngestJournal journal = new IngestJournal(directory, false, SEGMENT_BYTES)) {
+			journal.append(bytes("{\"a\":1}"));
+			journal.append(bytes("{\"a\":2}"));
+		}
+		// a crash in the middle of the third append
+		Files.write(directory.resolve("ingest-00000000000000000000.journal"), bytes("{\"a\":"), StandardOpenOption.APPEND);
+
+		try (IngestJournal journal = new IngestJournal(directory, false, SEGMENT_BYTES)) {
+			journal.append(bytes("{\"a\":4}"));
+		}
+		try (IngestJournal journal = new IngestJournal(directory, false, SEGMENT_BYTES)) {
+			assertEquals(List.of("{\"a\":1}", "{\"a\":2}", "{\"a\":4}"), lines(journal));
+		}
+	}
+
+	@Test
+	void tornLineRightAfterTheCheckpointIsCutBackToIt() throws IOException {
+		try (IngestJournal journal = new IngestJournal(directory, false, SEGMENT_BYTES)) {
+			journal.commit(journal.append(bytes("{\"a\":1}")));
+		}
+		Files.write(directory.resolve("ingest-00000000000000000000.journal"), bytes("{\"a\""), StandardOpenOption.APPEND);
+
+		try (IngestJournal journal = new IngestJournal(directory, false, SEGMENT_BYTES)) {
+			assertEquals(List.of(), lines(journal));
+			journal.append(bytes("{\"a\":3}"));
+			assertEquals(List.of("{\"a\":3}"), lines(journal));
+		}
+	}
+
+	@Test
+	void committedSegmentsAreDeletedAndReplayCrossesSegments() throws IOException {
+		long second;
+		try (IngestJournal journal = new IngestJournal(directory, false, 16)) {
+			journal.append(bytes("{\"a\":1}"));
+			second = journal.append(bytes("{\"a\":2}"));
+			journal.append(bytes("{\"a\":3}"));
+			journal.append(bytes("{\"a\":4}"));
+			journal.append(bytes("{\"a\":5}"));
+			assertEquals(3, segmentCount());
+
+			journal.commit(second);
+			assertEquals(2, segmentCount());
+		}
+		try (IngestJournal journal = new IngestJournal(directory, false, 16)) {
+			assertEquals(List.of("{\"a\":3}", "{\"a\":4}", "{\"a\":5}"), lines(journal));
+			journal.commit(journal.size());
+			assertEquals(1, segmentCount());
+			assertEquals(List.of(), lines(journal));
+		}
+	}
+
+	@Test
+	void singleFileJournalIsPickedUpAsTheFirstSegment() throws IOException {
+		Files.write(directory.resolve("ingest.journal"), bytes("{\"a\":1}\n{\"a\":2}\n"));
+		Files.writeString(directory.resolve("ingest.checkpoint"), "8");
+
+		try (IngestJournal journal = new IngestJournal(directory, false, SEGMENT_BYTES)) {
+			assertEquals(List.of("{\"a\":2}"), lines(journal));
+		}
+	}
+
+	private long segmentCount() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(".journal")).count();
+		}
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static List<String> lines(IngestJournal journal) throws IOException {
+		List<String> lines = new ArrayList<>();
+		journal.forEachUncommitted(entry -> lines.add(entry.line()));
+		return lines;
+	}
+}
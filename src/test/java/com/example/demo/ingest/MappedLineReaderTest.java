@@ -0,0 +1,88 @@
+package main.java.com.example.demo.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedLineReaderTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void splitRangesTogetherReadEveryLineOnce() throws IOException {
+		StringBuilder content = new StringBuilder();
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			String line = i + ",HR," + "x".repeat(i % 37);
+			expected.add(line);
+			content.append(line).append(i % 3 == 0 ? "\r\n" : "\n");
+		}
+		// last line without a line break
+		expected.add("500,HR,end");
+		content.append("500,HR,end");
+		Path file = write(content.toString());
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long[] bounds = MappedLineReader.split(channel, 0, channel.size(), 7);
+			assertEquals(8, bounds.length);
+			List<String> lines = new ArrayList<>();
+			for (int part = 0; part + 1 < bounds.length; part++) {
+				// windows far smaller than the range, so lines straddle window ends
+				MappedLineReader reader = new MappedLineReader(channel, bounds[part], bounds[part + 1], 64);
+				while (reader.next()) {
+					lines.add(line(reader));
+				}
+				assertEquals(bounds[part + 1], reader.offset());
+			}
+			assertEquals(expected, lines);
+		}
+	}
+
+	@Test
+	void resumesFromAnOffsetAfterALine() throws IOException {
+		Path file = write("a\nbb\nccc\n");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedLineReader reader = new MappedLineReader(channel, 0, channel.size());
+			reader.next();
+			reader.next();
+			assertEquals(5, reader.offset());
+
+			MappedLineReader resumed = new MappedLineReader(channel, reader.offset(), channel.size());
+			resumed.next();
+			assertEquals("ccc", line(resumed));
+			assertEquals(false, resumed.next());
+		}
+	}
+
+	@Test
+	void rejectsLinesLongerThanAWindow() throws IOException {
+		Path file = write("short\n" + "y".repeat(100) + "\n");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedLineReader reader = new MappedLineReader(channel, 0, channel.size(), 32);
+			reader.next();
+			assertThrows(IOException.class, reader::next);
+		}
+	}
+
+	private Path write(String content) throws IOException {
+		return Files.writeString(directory.resolve("readings.csv"), content, StandardCharsets.UTF_8);
+	}
+
+	private static String line(MappedLineReader reader) {
+		byte[] bytes = new byte[reader.lineLength()];
+		reader.copyLine(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
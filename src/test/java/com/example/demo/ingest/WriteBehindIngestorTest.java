@@ -0,0 +1,88 @@
+package main.java.com.example.demo.ingest;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import main.java.com.example.demo.dto.BulkItemResult;
+import main.java.com.example.demo.dto.ClinicalDataRequest;
+import main.java.com.example.demo.service.ClinicalDataIngestService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindIngestorTest {
+
+	@TempDir
+	Path directory;
+
+	// Throws like a database that is down for the first calls, then writes everything
+	static class FlakyIngestService extends ClinicalDataIngestService {
+
+		final AtomicInteger outages;
+		final List<ClinicalDataRequest> written = new CopyOnWriteArrayList<>();
+
+		FlakyIngestService(int outages) {
+			this.outages = new AtomicInteger(outages);
+		}
+
+		@Override
+		public List<BulkItemResult> ingest(List<ClinicalDataRequest> readings) {
+			if (outages.getAndDecrement() > 0) {
+				throw new DataAccessResourceFailureException("Communications link failure");
+			}
+			List<BulkItemResult> results = new ArrayList<>();
+			for (int i = 0; i < readings.size(); i++) {
+				written.add(readings.get(i));
+				results.add(BulkItemResult.created(i, (long) written.size()));
+			}
+			return results;
+		}
+	}
+
+	@Test
+	void queuedBatchIsWrittenOnceTheDatabaseRecovers() throws Exception {
+		FlakyIngestService service = new FlakyIngestService(3);
+		WriteBehindIngestor ingestor = ingestor(service);
+		ingestor.start();
+		List<ClinicalDataRequest> readings = List.of(
+				new ClinicalDataRequest(1L, "hr", "60", LocalDateTime.of(2025, 1, 1, 8, 0)),
+				new ClinicalDataRequest(2L, "hr", "72", LocalDateTime.of(2025, 1, 1, 8, 5)));
+		assertTrue(ingestor.offerAll(readings));
+
+		long deadline = System.currentTimeMillis() + 10_000L;
+		while (ingestor.stats().written() < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		ingestor.stop();
+
+		assertEquals(2, ingestor.stats().written());
+		assertEquals(readings, service.written);
+		try (IngestJournal journal = new IngestJournal(directory, false, 1 << 20)) {
+			List<String> uncommitted = new ArrayList<>();
+			journal.forEachUncommitted(entry -> uncommitted.add(entry.line()));
+			assertEquals(List.of(), uncommitted);
+		}
+	}
+
+	private WriteBehindIngestor ingestor(ClinicalDataIngestService service) {
+		WriteBehindIngestor ingestor = new WriteBehindIngestor();
+		ReflectionTestUtils.setField(ingestor, "clinicalDataIngestService", service);
+		ReflectionTestUtils.setField(ingestor, "objectMapper", JsonMapper.builder().findAndAddModules().build());
+		ReflectionTestUtils.setField(ingestor, "capacity", 100);
+		ReflectionTestUtils.setField(ingestor, "batchSize", 10);
+		ReflectionTestUtils.setField(ingestor, "maxDelayMs", 10L);
+		ReflectionTestUtils.setField(ingestor, "journalDir", directory);
+		ReflectionTestUtils.setField(ingestor, "segmentBytes", 1L << 20);
+		ReflectionTestUtils.setField(ingestor, "shutdownTimeoutMs", 5_000L);
+		return ingestor;
+	}
+}
@@ -0,0 +1,39 @@
+package main.java.com.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParsedMeasurementTest {
+
+	@Test
+	void parsesScalarValue() {
+		ParsedMeasurement parsed = ParsedMeasurement.parse("67");
+		assertEquals(67.0, parsed.numericValue());
+		assertNull(parsed.systolicValue());
+		assertNull(parsed.diastolicValue());
+	}
+
+	@Test
+	void parsesBloodPressureInEitherOrder() {
+		ParsedMeasurement seeded = ParsedMeasurement.parse("67/119");
+		assertEquals(119.0, seeded.systolicValue());
+		assertEquals(67.0, seeded.diastolicValue());
+		assertEquals(119.0, seeded.numericValue());
+
+		ParsedMeasurement conventional = ParsedMeasurement.parse(" 120 / 80 ");
+		assertEquals(120.0, conventional.systolicValue());
+		assertEquals(80.0, conventional.diastolicValue());
+	}
+
+	@Test
+	void rejectsMalformedValues() {
+		assertTrue(ParsedMeasurement.parse(null).isEmpty());
+		assertTrue(ParsedMeasurement.parse("").isEmpty());
+		assertTrue(ParsedMeasurement.parse("high").isEmpty());
+		assertTrue(ParsedMeasurement.parse("67/").isEmpty());
+		assertTrue(ParsedMeasurement.parse("1.2.3").isEmpty());
+	}
+}
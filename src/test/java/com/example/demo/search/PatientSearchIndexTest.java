@@ -0,0 +1,86 @@
+package main.java.com.example.demo.search;
+
+import main.java.com.example.demo.dto.PatientSearchHit;
+import main.java.com.example.demo.dto.PatientSummary;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientSearchIndexTest {
+
+	private static PatientSearchIndex sample() {
+		PatientSearchIndex index = new PatientSearchIndex();
+		index.put(new PatientSummary(1L, "John", "Mccain", 52));
+		index.put(new PatientSummary(2L, "José", "Smith", 32));
+		index.put(new PatientSummary(3L, "Anthony", "Simon", 22));
+		index.put(new PatientSummary(4L, "Zoë", "O'Brien-Smythe", 40));
+		return index;
+	}
+
+	@Test
+	void matchesPrefixesIgnoringCaseAndAccents() {
+		PatientSearchIndex index = sample();
+		assertEquals(List.of(1L, 2L), ids(index.search("JO", 10)));
+		assertEquals(List.of(4L), ids(index.search("zoe", 10)));
+		assertEquals(List.of(4L), ids(index.search("smyth", 10)));
+		assertEquals(List.of(2L), ids(index.search("jose smi", 10)));
+	}
+
+	@Test
+	void fallsBackToEditDistanceWhenPrefixesFindNothing() {
+		PatientSearchIndex index = sample();
+		assertEquals(List.of(2L), ids(index.search("smtih", 10)));
+		assertEquals(List.of(1L), ids(index.search("jonh mcain", 10)));
+		assertTrue(index.search("xyzzy", 10).isEmpty());
+	}
+
+	@Test
+	void ranksWholeWordsAboveLongerPrefixMatches() {
+		PatientSearchIndex index = sample();
+		index.put(new PatientSummary(5L, "Simone", "Adams", 61));
+		List<PatientSearchHit> hits = index.search("simon", 10);
+		assertEquals(List.of(3L, 5L), ids(hits));
+		assertEquals(1.0, hits.get(0).score());
+	}
+
+	@Test
+	void restrictsFieldsAndMatchesNumbers() {
+		PatientSearchIndex index = sample();
+		assertEquals(List.of(3L), ids(index.search("first:an", 10)));
+		assertTrue(index.search("last:an", 10).isEmpty());
+		assertEquals(List.of(4L, 2L), ids(index.search("age:30-45", 10)));
+		assertEquals(List.of(3L), ids(index.search("id:3", 10)));
+		assertEquals(List.of(1L), ids(index.search("52", 10)));
+		assertThrows(IllegalArgumentException.class, () -> index.search("age:old", 10));
+	}
+
+	@Test
+	void followsUpdatesRemovalsAndCompaction() {
+		PatientSearchIndex index = sample();
+		index.put(new PatientSummary(2L, "Joseph", "Smith", 33));
+		index.remove(1L);
+		assertEquals(List.of(2L), ids(index.search("jo", 10)));
+		assertEquals("Joseph", index.search("smith", 10).get(0).firstName());
+		assertEquals(2, index.stats().retiredSlots());
+
+		PatientSearchIndex compacted = index.compacted();
+		assertEquals(0, compacted.stats().retiredSlots());
+		assertEquals(3, compacted.size());
+		assertEquals(List.of(2L), ids(compacted.search("jo", 10)));
+	}
+
+	@Test
+	void editDistanceCountsTranspositionsOnce() {
+		assertEquals(1, PatientSearchIndex.editDistance("smtih", "smith", 2));
+		assertEquals(2, PatientSearchIndex.editDistance("jonh", "joan", 2));
+		assertEquals(2, PatientSearchIndex.editDistance("abcdef", "uvwxyz", 1));
+	}
+
+	private static List<Long> ids(List<PatientSearchHit> hits) {
+		return hits.stream().map(PatientSearchHit::id).toList();
+	}
+}
@@ -0,0 +1,56 @@
+package main.java.com.example.demo.service;
+
+import main.java.com.example.demo.cache.LatestVitalsCache;
+import main.java.com.example.demo.dto.PatientOverview;
+import main.java.com.example.demo.dto.PatientSummary;
+import main.java.com.example.demo.repository.ClinicalDataRepository;
+import main.java.com.example.demo.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PatientViewServiceTest {
+
+	@Test
+	void coalescedOverviewsKeepEachCallersOrder() throws Exception {
+		PatientViewService service = new PatientViewService();
+		PatientRepository patientRepository = mock(PatientRepository.class);
+		ClinicalDataRepository clinicalDataRepository = mock(ClinicalDataRepository.class);
+		LatestVitalsCache latestVitalsCache = mock(LatestVitalsCache.class);
+		ReflectionTestUtils.setField(service, "patientRepository", patientRepository);
+		ReflectionTestUtils.setField(service, "clinicalDataRepository", clinicalDataRepository);
+		ReflectionTestUtils.setField(service, "latestVitalsCache", latestVitalsCache);
+
+		// The first load waits until the second caller has joined it
+		when(patientRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+			long deadline = System.currentTimeMillis() + 5_000L;
+			while (service.coalescedRequests() == 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+			return List.of(new PatientSummary(1L, "John", "Mccain", 52), new PatientSummary(2L, "José", "Smith", 32),
+					new PatientSummary(3L, "Anthony", "Simon", 22));
+		});
+		when(latestVitalsCache.getAllOrLoad(anyCollection(), any())).thenReturn(Map.of());
+		when(clinicalDataRepository.countByPatientIds(anyCollection())).thenReturn(List.of());
+
+		CompletableFuture<List<PatientOverview>> first = CompletableFuture.supplyAsync(() -> service.overviews(List.of(3L, 1L, 2L)));
+		CompletableFuture<List<PatientOverview>> second = CompletableFuture.supplyAsync(() -> service.overviews(List.of(2L, 3L, 1L)));
+
+		assertEquals(List.of(3L, 1L, 2L), first.get(10, TimeUnit.SECONDS).stream().map(PatientOverview::id).toList());
+		assertEquals(List.of(2L, 3L, 1L), second.get(10, TimeUnit.SECONDS).stream().map(PatientOverview::id).toList());
+		assertEquals(1, service.coalescedRequests());
+		verify(patientRepository, times(1)).findSummariesByIdIn(anyCollection());
+	}
+}